@@ -16,13 +16,17 @@
 
 package manifold.api.fs.cache;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Supplier;
 import manifold.api.fs.IDirectory;
 import manifold.api.fs.IFile;
@@ -32,6 +36,7 @@ import manifold.api.host.IModule;
 import manifold.api.host.RefreshRequest;
 import manifold.util.JsonUtil;
 import manifold.util.ManClassUtil;
+import manifold.util.PerfLogUtil;
 import manifold.util.cache.FqnCache;
 import manifold.util.concurrent.ConcurrentHashSet;
 
@@ -44,14 +49,24 @@ public class PathCache
   private final IModule _module;
   private final Supplier<Collection<IDirectory>> _pathSupplier;
   private final Runnable _clearHandler;
+  private final boolean _parallel;
   private Map<IFile, Set<String>> _reverseMap;
   private Map<String, FqnCache<IFile>> _filesByExtension;
 
   public PathCache( IModule module, Supplier<Collection<IDirectory>> pathSupplier, Runnable clearHandler )
+  {
+    this( module, pathSupplier, clearHandler, true );
+  }
+
+  /**
+   * @param parallel True to scan the path entries in parallel, otherwise they are scanned in path order
+   */
+  PathCache( IModule module, Supplier<Collection<IDirectory>> pathSupplier, Runnable clearHandler, boolean parallel )
   {
     _module = module;
     _pathSupplier = pathSupplier;
     _clearHandler = clearHandler;
+    _parallel = parallel;
     _reverseMap = new ConcurrentHashMap<>();
     init();
     _module.getHost().addTypeSystemListenerAsWeakRef( module, _clearer = new CacheClearer() );
@@ -59,15 +74,44 @@ public class PathCache
 
   private void init()
   {
-    Map<String, FqnCache<IFile>> filesByExtension = new ConcurrentHashMap<>();
+    long before = System.nanoTime();
+
+    // scan path entries in parallel, each entry is typically a jar file or a directory
+    List<ForkJoinTask<PathScan>> scans = new ArrayList<>();
     for( IDirectory sourceEntry : _pathSupplier.get() )
     {
-      if( IFileUtil.hasSourceFiles( sourceEntry ) )
+      ForkJoinTask<PathScan> scan = ForkJoinTask.adapt( () -> scan( sourceEntry ) );
+      scans.add( _parallel ? ForkJoinPool.commonPool().submit( scan ) : scan );
+    }
+
+    // merge in path order as the scans complete; the first file for a fqn wins
+    Map<String, FqnCache<IFile>> filesByExtension = new ConcurrentHashMap<>();
+    for( ForkJoinTask<PathScan> scan : scans )
+    {
+      PathScan result = _parallel ? scan.join() : scan.invoke();
+      for( int i = 0; i < result._files.size(); i++ )
       {
-        addFilesInDir( "", sourceEntry, filesByExtension );
+        String fqn = result._fqns.get( i );
+        IFile file = result._files.get( i );
+        addToExtension( fqn, file, filesByExtension );
+        addToReverseMap( file, fqn );
       }
     }
     _filesByExtension = filesByExtension;
+
+    PerfLogUtil.log( "PathCache scan " + scans.size() + " entries", before );
+  }
+
+  private PathScan scan( IDirectory sourceEntry )
+  {
+    long before = System.nanoTime();
+    PathScan scan = new PathScan();
+    if( IFileUtil.hasSourceFiles( sourceEntry ) )
+    {
+      addFilesInDir( "", sourceEntry, scan );
+    }
+    PerfLogUtil.log( "PathCache scan " + sourceEntry, before );
+    return scan;
   }
 
   @SuppressWarnings("unused")
@@ -109,7 +153,7 @@ public class PathCache
     return _reverseMap.get( file );
   }
 
-  private void addFilesInDir( String relativePath, IDirectory dir, Map<String, FqnCache<IFile>> filesByExtension )
+  private void addFilesInDir( String relativePath, IDirectory dir, PathScan scan )
   {
     if( !_module.getHost().isPathIgnored( relativePath ) )
     {
@@ -122,15 +166,15 @@ public class PathCache
           simpleName = simpleName.substring( 0, iDot );
         }
         String fqn = appendResourceNameToPath( relativePath, simpleName );
-        addToExtension( fqn, file, filesByExtension );
-        addToReverseMap( file, fqn );
+        scan._fqns.add( fqn );
+        scan._files.add( file );
       }
       for( IDirectory subdir : dir.listDirs() )
       {
         if( isValidPackage( subdir ) )
         {
           String fqn = appendResourceNameToPath( relativePath, subdir.getName() );
-          addFilesInDir( fqn, subdir, filesByExtension );
+          addFilesInDir( fqn, subdir, scan );
         }
       }
     }
@@ -207,6 +251,15 @@ public class PathCache
     _reverseMap = new ConcurrentHashMap<>();
   }
 
+  /**
+   * The files found in a single path entry, in the order they were found
+   */
+  private static class PathScan
+  {
+    private final List<String> _fqns = new ArrayList<>();
+    private final List<IFile> _files = new ArrayList<>();
+  }
+
   private class CacheClearer extends AbstractTypeSystemListener
   {
     @Override
@@ -196,16 +196,22 @@ public class JavaDirectoryImpl extends JavaResourceImpl implements IDirectory
     }
   }
 
+  /**
+   * Lists the directory on disk outside of {@link FileSystemImpl#CACHED_FILE_SYSTEM_LOCK}, the lock only guards the
+   * cached listing, so directories can be listed concurrently e.g., when scanning the source path.
+   */
   private abstract class CachingFileRetrievalStrategy implements FileRetrievalStrategy
   {
     protected List<IDirectory> _directories;
     protected List<IFile> _files;
+    private int _generation;
 
     public void clearCache()
     {
       // This should always be called with the CACHED_FILE_SYSTEM_LOCK monitor already acquired
       _directories = null;
       _files = null;
+      _generation++;
     }
 
     @Override
@@ -213,9 +219,12 @@ public class JavaDirectoryImpl extends JavaResourceImpl implements IDirectory
     {
       synchronized( FileSystemImpl.CACHED_FILE_SYSTEM_LOCK )
       {
-        refreshIfNecessary();
-        return _directories;
+        if( !isRefreshNecessary() )
+        {
+          return _directories;
+        }
       }
+      return refreshInfo()._directories;
     }
 
     @Override
@@ -223,56 +232,95 @@ public class JavaDirectoryImpl extends JavaResourceImpl implements IDirectory
     {
       synchronized( FileSystemImpl.CACHED_FILE_SYSTEM_LOCK )
       {
-        refreshIfNecessary();
-        return _files;
+        if( !isRefreshNecessary() )
+        {
+          return _files;
+        }
       }
+      return refreshInfo()._files;
     }
 
-    protected void refreshInfo()
+    private Listing refreshInfo()
     {
-      _files = new ArrayList<IFile>();
-      _directories = new ArrayList<IDirectory>();
+      int generation;
+      synchronized( FileSystemImpl.CACHED_FILE_SYSTEM_LOCK )
+      {
+        generation = _generation;
+      }
+      long refreshTimestamp = System.currentTimeMillis();
       File javaFile = toJavaFile();
-      maybeSetTimestamp( javaFile );
+      long fileTimestamp = javaFile.lastModified();
 
-      File[] files = javaFile.listFiles();
-      if( files != null )
+      List<IFile> files = new ArrayList<IFile>();
+      List<IDirectory> directories = new ArrayList<IDirectory>();
+      File[] javaFiles = javaFile.listFiles();
+      if( javaFiles != null )
       {
-        for( File f : files )
+        for( File f : javaFiles )
         {
           if( FileSystemImpl.isDirectory( f ) )
           {
-            _directories.add( getFileSystem().getIDirectory( f ) );
+            directories.add( getFileSystem().getIDirectory( f ) );
           }
           else
           {
-            _files.add( getFileSystem().getIFile( f ) );
+            files.add( getFileSystem().getIFile( f ) );
           }
         }
       }
 
-      if( _directories.isEmpty() )
+      if( directories.isEmpty() )
       {
-        _directories = Collections.emptyList();
+        directories = Collections.emptyList();
       }
       else
       {
-        ((ArrayList)_directories).trimToSize();
+        ((ArrayList)directories).trimToSize();
       }
 
-      if( _files.isEmpty() )
+      if( files.isEmpty() )
       {
-        _files = Collections.emptyList();
+        files = Collections.emptyList();
       }
       else
       {
-        ((ArrayList)_files).trimToSize();
+        ((ArrayList)files).trimToSize();
       }
+
+      synchronized( FileSystemImpl.CACHED_FILE_SYSTEM_LOCK )
+      {
+        if( generation == _generation )
+        {
+          // not cleared while listing
+          _files = files;
+          _directories = directories;
+          refreshed( fileTimestamp, refreshTimestamp );
+        }
+      }
+      return new Listing( directories, files );
     }
 
-    protected abstract void refreshIfNecessary();
+    /**
+     * Called with the CACHED_FILE_SYSTEM_LOCK monitor acquired
+     */
+    protected abstract boolean isRefreshNecessary();
+
+    /**
+     * Called with the CACHED_FILE_SYSTEM_LOCK monitor acquired after the listing is cached
+     */
+    protected abstract void refreshed( long fileTimestamp, long refreshTimestamp );
+  }
+
+  private static class Listing
+  {
+    private final List<IDirectory> _directories;
+    private final List<IFile> _files;
 
-    protected abstract void maybeSetTimestamp( File javaFile );
+    private Listing( List<IDirectory> directories, List<IFile> files )
+    {
+      _directories = directories;
+      _files = files;
+    }
   }
 
   private class TimestampBasedCachingFileRetrievalStrategy extends CachingFileRetrievalStrategy
@@ -286,33 +334,29 @@ public class JavaDirectoryImpl extends JavaResourceImpl implements IDirectory
       _lastTimestamp = -1;
     }
 
-    protected void refreshIfNecessary()
+    protected boolean isRefreshNecessary()
     {
       if( _lastTimestamp == -1 )
       {
-        refreshInfo();
+        return true;
       }
-      else
+
+      File file = toJavaFile();
+      long currentTimestamp = file.lastModified();
+      if( currentTimestamp == 0 )
       {
-        File file = toJavaFile();
-        long currentTimestamp = file.lastModified();
-        if( currentTimestamp == 0 )
-        {
-          // If the timestamp is 0, assume it's been deleted
-          _files = Collections.emptyList();
-          _directories = Collections.emptyList();
-        }
-        else if( _lastTimestamp != currentTimestamp )
-        {
-          refreshInfo();
-        }
+        // If the timestamp is 0, assume it's been deleted
+        _files = Collections.emptyList();
+        _directories = Collections.emptyList();
+        return false;
       }
+      return _lastTimestamp != currentTimestamp;
     }
 
     @Override
-    protected void maybeSetTimestamp( File javaFile )
+    protected void refreshed( long fileTimestamp, long refreshTimestamp )
     {
-      _lastTimestamp = javaFile.lastModified();
+      _lastTimestamp = fileTimestamp;
     }
   }
 
@@ -329,63 +373,48 @@ public class JavaDirectoryImpl extends JavaResourceImpl implements IDirectory
       _lastRefreshTimestamp = -1;
     }
 
-    protected void refreshIfNecessary()
+    protected boolean isRefreshNecessary()
     {
       if( _lastFileTimestamp == -1 )
       {
-        doRefreshImpl();
+        return true;
       }
-      else
+
+      File file = toJavaFile();
+      long currentTimestamp = file.lastModified();
+      if( currentTimestamp == 0 )
       {
-        File file = toJavaFile();
-        long currentTimestamp = file.lastModified();
-        if( currentTimestamp == 0 )
-        {
-          // If the timestamp is 0, assume it's been deleted
-          _files = Collections.emptyList();
-          _directories = Collections.emptyList();
-        }
-        else if( _lastFileTimestamp != currentTimestamp )
-        {
-          doRefreshImpl();
-        }
-        else
-        {
-          long refreshDelta = _lastRefreshTimestamp - currentTimestamp;
-          if( refreshDelta > -16 && refreshDelta < 16 )
-          {
-            doRefreshImpl();
-          }
-        }
+        // If the timestamp is 0, assume it's been deleted
+        _files = Collections.emptyList();
+        _directories = Collections.emptyList();
+        return false;
       }
-    }
-
-    private void doRefreshImpl()
-    {
-      _lastRefreshTimestamp = System.currentTimeMillis();
-      refreshInfo();
+      if( _lastFileTimestamp != currentTimestamp )
+      {
+        return true;
+      }
+      long refreshDelta = _lastRefreshTimestamp - currentTimestamp;
+      return refreshDelta > -16 && refreshDelta < 16;
     }
 
     @Override
-    protected void maybeSetTimestamp( File javaFile )
+    protected void refreshed( long fileTimestamp, long refreshTimestamp )
     {
-      _lastFileTimestamp = javaFile.lastModified();
+      _lastFileTimestamp = fileTimestamp;
+      _lastRefreshTimestamp = refreshTimestamp;
     }
   }
 
   private class FullyCachedFileRetrievalStrategy extends CachingFileRetrievalStrategy
   {
     @Override
-    protected void refreshIfNecessary()
+    protected boolean isRefreshNecessary()
     {
-      if( _files == null )
-      {
-        refreshInfo();
-      }
+      return _files == null;
     }
 
     @Override
-    protected void maybeSetTimestamp( File javaFile )
+    protected void refreshed( long fileTimestamp, long refreshTimestamp )
     {
       // Do nothing
     }
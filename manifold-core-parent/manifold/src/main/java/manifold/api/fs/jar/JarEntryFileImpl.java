@@ -33,6 +33,10 @@ public class JarEntryFileImpl extends JarEntryResourceImpl implements IFile
   @Override
   public InputStream openInputStream() throws IOException
   {
+    if( _entry == null && _entryName != null )
+    {
+      _entry = _jarFile.getJarFile().getJarEntry( _entryName );
+    }
     if( _entry == null )
     {
       throw new IOException();
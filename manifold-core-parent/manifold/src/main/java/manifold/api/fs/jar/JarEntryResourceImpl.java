@@ -30,6 +30,7 @@ public abstract class JarEntryResourceImpl implements IResource
 {
   private IFileSystem _fs;
   protected JarEntry _entry;
+  protected String _entryName;
   protected IJarFileDirectory _parent;
   protected JarFileDirectoryImpl _jarFile;
   protected String _name;
@@ -48,8 +49,12 @@ public abstract class JarEntryResourceImpl implements IResource
     return _fs;
   }
 
-  public void setEntry( JarEntry entry )
+  /**
+   * @param entry The jar entry, or null if the entry was loaded from a {@link JarFileIndex} and has yet to be looked up
+   */
+  public void setEntry( String entryName, JarEntry entry )
   {
+    _entryName = entryName;
     _entry = entry;
     setExists();
   }
@@ -100,11 +105,11 @@ public abstract class JarEntryResourceImpl implements IResource
     }
   }
 
-  private String getEntryName()
+  protected String getEntryName()
   {
-    if( _entry != null )
+    if( _entryName != null )
     {
-      return _entry.getName();
+      return _entryName;
     }
     else
     {
@@ -56,11 +56,30 @@ public class JarFileDirectoryImpl implements IJarFileDirectory
       try
       {
         _jarFile = new JarFile( file );
-        Enumeration<JarEntry> entries = _jarFile.entries();
-        while( entries.hasMoreElements() )
+        JarFileIndex index = JarFileIndex.instance();
+        List<String> names = index == null ? null : index.load( file );
+        if( names != null )
         {
-          JarEntry e = entries.nextElement();
-          processJarEntry( e );
+          // entries are looked up by name when opened
+          for( String name: names )
+          {
+            processJarEntry( name, null );
+          }
+        }
+        else
+        {
+          names = new ArrayList<>();
+          Enumeration<JarEntry> entries = _jarFile.entries();
+          while( entries.hasMoreElements() )
+          {
+            JarEntry e = entries.nextElement();
+            processJarEntry( e.getName(), e );
+            names.add( e.getName() );
+          }
+          if( index != null )
+          {
+            index.store( file, names );
+          }
         }
       }
       catch( IOException e )
@@ -76,9 +95,10 @@ public class JarFileDirectoryImpl implements IJarFileDirectory
     return _fileSystem;
   }
 
-  private void processJarEntry( JarEntry e )
+  private void processJarEntry( String entryName, JarEntry e )
   {
-    List<String> pathComponents = IDirectoryUtil.splitPath( e.getName() );
+    boolean isDirectory = entryName.endsWith( "/" );
+    List<String> pathComponents = IDirectoryUtil.splitPath( entryName );
     if( pathComponents.isEmpty() )
     {
       return;
@@ -86,15 +106,15 @@ public class JarFileDirectoryImpl implements IJarFileDirectory
     if( pathComponents.size() == 1 )
     {
       String name = pathComponents.get( 0 );
-      if( e.isDirectory() )
+      if( isDirectory )
       {
         JarEntryDirectoryImpl resource = getOrCreateDirectory( name );
-        resource.setEntry( e );
+        resource.setEntry( entryName, e );
       }
       else
       {
         JarEntryFileImpl resource = getOrCreateFile( name );
-        resource.setEntry( e );
+        resource.setEntry( entryName, e );
       }
     }
     else
@@ -105,15 +125,15 @@ public class JarFileDirectoryImpl implements IJarFileDirectory
         parentDirectory = parentDirectory.getOrCreateDirectory( pathComponents.get( i ) );
       }
 
-      if( e.isDirectory() )
+      if( isDirectory )
       {
         JarEntryDirectoryImpl leafDir = parentDirectory.getOrCreateDirectory( pathComponents.get( pathComponents.size() - 1 ) );
-        leafDir.setEntry( e );
+        leafDir.setEntry( entryName, e );
       }
       else
       {
         JarEntryFileImpl leafFile = parentDirectory.getOrCreateFile( pathComponents.get( pathComponents.size() - 1 ) );
-        leafFile.setEntry( e );
+        leafFile.setEntry( entryName, e );
       }
     }
   }
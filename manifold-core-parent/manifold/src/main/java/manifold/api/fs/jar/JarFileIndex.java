@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.api.fs.jar;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * A persistent index of the entry names of jar files, so {@link JarFileDirectoryImpl} does not have to enumerate the
+ * entries of a jar that has not changed since a previous run. Enable it by setting the {@code manifold.jar.index}
+ * system property to a directory.
+ * <p/>
+ * An index file is keyed by the jar's absolute path and records the jar's length and last modified time. If either
+ * no longer matches, the index is stale and the jar's entries are enumerated and indexed again.
+ */
+public class JarFileIndex
+{
+  public static final String INDEX_DIR = "manifold.jar.index";
+
+  private static final int MAGIC = 0x4D4A4931; // "MJI1"
+  private static final String EXT = ".idx";
+
+  private static final LocklessLazyVar<JarFileIndex> INSTANCE =
+    LocklessLazyVar.make( () -> {
+      String dir = System.getProperty( INDEX_DIR );
+      if( dir == null || dir.isEmpty() )
+      {
+        return null;
+      }
+      return new JarFileIndex( new File( dir ).toPath() );
+    } );
+
+  private final Path _dir;
+
+  /**
+   * @return The index configured via system properties, or null if indexing is not enabled
+   */
+  public static JarFileIndex instance()
+  {
+    return INSTANCE.get();
+  }
+
+  public JarFileIndex( Path dir )
+  {
+    _dir = dir;
+  }
+
+  /**
+   * @return The entry names of {@code jar} in the order the jar lists them, or null if the jar is not indexed or its
+   * index is stale
+   */
+  public List<String> load( File jar )
+  {
+    Path file = getPath( jar );
+    if( !Files.isRegularFile( file ) )
+    {
+      return null;
+    }
+
+    try
+    {
+      // one read, then parse from memory
+      DataInputStream in = new DataInputStream( new ByteArrayInputStream( Files.readAllBytes( file ) ) );
+      if( in.readInt() != MAGIC ||
+          !in.readUTF().equals( jar.getAbsolutePath() ) ||
+          in.readLong() != jar.length() ||
+          in.readLong() != jar.lastModified() )
+      {
+        return null;
+      }
+      int count = in.readInt();
+      List<String> names = new ArrayList<>( count );
+      for( int i = 0; i < count; i++ )
+      {
+        names.add( in.readUTF() );
+      }
+      return names;
+    }
+    catch( IOException e )
+    {
+      // truncated or replaced by another process
+      return null;
+    }
+  }
+
+  /**
+   * Stores the entry names of {@code jar}. Failures are ignored, the index is merely an optimization.
+   */
+  public void store( File jar, List<String> names )
+  {
+    Path file = getPath( jar );
+    Path tmp = null;
+    try
+    {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream( bytes );
+      out.writeInt( MAGIC );
+      out.writeUTF( jar.getAbsolutePath() );
+      out.writeLong( jar.length() );
+      out.writeLong( jar.lastModified() );
+      out.writeInt( names.size() );
+      for( String name: names )
+      {
+        out.writeUTF( name );
+      }
+      out.flush();
+
+      Files.createDirectories( _dir );
+      tmp = Files.createTempFile( _dir, file.getFileName().toString(), ".tmp" );
+      Files.write( tmp, bytes.toByteArray() );
+      try
+      {
+        Files.move( tmp, file, StandardCopyOption.ATOMIC_MOVE );
+      }
+      catch( AtomicMoveNotSupportedException e )
+      {
+        Files.move( tmp, file, StandardCopyOption.REPLACE_EXISTING );
+      }
+      tmp = null;
+    }
+    catch( IOException ignore )
+    {
+    }
+    finally
+    {
+      if( tmp != null )
+      {
+        try
+        {
+          Files.deleteIfExists( tmp );
+        }
+        catch( IOException ignore )
+        {
+        }
+      }
+    }
+  }
+
+  private Path getPath( File jar )
+  {
+    // the jar's path is also recorded in the file, a hash collision is just a miss
+    return _dir.resolve( jar.getName() + '-' + Integer.toHexString( jar.getAbsolutePath().hashCode() ) + EXT );
+  }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.host;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import javax.tools.JavaFileManager;
+import manifold.api.fs.IFile;
+import manifold.api.host.AbstractTypeSystemListener;
+import manifold.api.host.IModule;
+import manifold.api.host.RefreshRequest;
+import manifold.api.type.ContributorKind;
+import manifold.api.type.ITypeManifold;
+import manifold.api.type.ResourceFileTypeManifold;
+import manifold.util.StreamUtil;
+import manifold.util.concurrent.Cache;
+
+/**
+ * A bounded cache of the Java source type manifolds produce for a type, shared by everything that asks the module
+ * for the source: the compiler, {@code ClassSymbols}, and the runtime class loader. Limit its size with the
+ * {@code manifold.source.cache.size} system property (default is 1000 types), zero disables it.
+ * <p/>
+ * The source is keyed by the name of the type, the contributing type manifolds, and the content of the resource
+ * files they report for the type. Only types produced solely by resource file type manifolds are cached, since the
+ * source of other contributors, e.g., extension classes, depends on more than their files. Source produced with
+ * diagnostics is not cached, so diagnostics are reported every time. The cache is cleared when the type system is
+ * refreshed.
+ */
+public class GeneratedSourceCache
+{
+  public static final String CACHE_SIZE = "manifold.source.cache.size";
+
+  private static final int DEFAULT_SIZE = 1000;
+
+  private final IModule _module;
+  private final Cache<SourceKey, String> _cache;
+  @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+  private final CacheClearer _clearer;
+
+  public GeneratedSourceCache( IModule module )
+  {
+    this( module, Integer.getInteger( CACHE_SIZE, DEFAULT_SIZE ) );
+  }
+
+  public GeneratedSourceCache( IModule module, int size )
+  {
+    _module = module;
+    _cache = size > 0 ? Cache.make( "Generated Source", size, SourceKey::produce ) : null;
+    _module.getHost().addTypeSystemListenerAsWeakRef( module, _clearer = new CacheClearer() );
+  }
+
+  /**
+   * Returns the source for {@code fqn}, from the cache if possible, otherwise from {@code producer}.
+   *
+   * @param producer Produces the source and tells whether diagnostics were reported producing it
+   */
+  public String get( String fqn, JavaFileManager.Location location, Set<ITypeManifold> tms, Supplier<Produced> producer )
+  {
+    String digest = _cache == null ? null : makeDigest( fqn, location, tms );
+    if( digest == null )
+    {
+      return producer.get().getSource();
+    }
+
+    SourceKey key = new SourceKey( digest, producer );
+    String source = _cache.get( key );
+    if( key._errant )
+    {
+      // don't cache source having diagnostics
+      _cache.evict( key );
+    }
+    return source;
+  }
+
+  public int getHits()
+  {
+    return _cache == null ? 0 : _cache.getHits();
+  }
+
+  public int getMisses()
+  {
+    return _cache == null ? 0 : _cache.getMisses();
+  }
+
+  public void clear()
+  {
+    if( _cache != null )
+    {
+      _cache.clear();
+    }
+  }
+
+  @Override
+  public String toString()
+  {
+    return String.valueOf( _cache );
+  }
+
+  private String makeDigest( String fqn, JavaFileManager.Location location, Set<ITypeManifold> tms )
+  {
+    MessageDigest digest = newDigest();
+    update( digest, fqn );
+    update( digest, location == null ? "" : location.getName() );
+
+    List<ITypeManifold> sorted = tms.stream()
+      .sorted( Comparator.comparing( tm -> tm.getClass().getName() ) )
+      .collect( Collectors.toList() );
+    for( ITypeManifold tm: sorted )
+    {
+      if( !(tm instanceof ResourceFileTypeManifold) || tm.getContributorKind() == ContributorKind.Supplemental )
+      {
+        return null;
+      }
+      update( digest, tm.getClass().getName() );
+      List<IFile> files = tm.findFilesForType( fqn );
+      if( files == null || files.isEmpty() )
+      {
+        return null;
+      }
+      for( IFile file: files )
+      {
+        update( digest, file.getPath().getPathString() );
+        try( InputStream in = file.openInputStream() )
+        {
+          digest.update( StreamUtil.getContent( in ) );
+        }
+        catch( IOException e )
+        {
+          return null;
+        }
+        digest.update( (byte)0 );
+      }
+    }
+    return toHex( digest.digest() );
+  }
+
+  private static MessageDigest newDigest()
+  {
+    try
+    {
+      return MessageDigest.getInstance( "SHA-256" );
+    }
+    catch( NoSuchAlgorithmException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private static void update( MessageDigest digest, String value )
+  {
+    digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+    digest.update( (byte)0 );
+  }
+
+  private static String toHex( byte[] bytes )
+  {
+    StringBuilder sb = new StringBuilder( bytes.length * 2 );
+    for( byte b: bytes )
+    {
+      sb.append( Character.forDigit( (b >> 4) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Source produced by the type manifolds and whether they reported diagnostics producing it
+   */
+  public static class Produced
+  {
+    private final String _source;
+    private final boolean _errant;
+
+    public Produced( String source, boolean errant )
+    {
+      _source = source;
+      _errant = errant;
+    }
+
+    public String getSource()
+    {
+      return _source;
+    }
+  }
+
+  private static class SourceKey
+  {
+    private final String _digest;
+    private final Supplier<Produced> _producer;
+    private boolean _errant;
+
+    SourceKey( String digest, Supplier<Produced> producer )
+    {
+      _digest = digest;
+      _producer = producer;
+    }
+
+    private String produce()
+    {
+      Produced produced = _producer.get();
+      _errant = produced._errant;
+      return produced._source;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+      return o instanceof SourceKey && _digest.equals( ((SourceKey)o)._digest );
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _digest.hashCode();
+    }
+  }
+
+  private class CacheClearer extends AbstractTypeSystemListener
+  {
+    @Override
+    public boolean notifyEarly()
+    {
+      return true;
+    }
+
+    @Override
+    public void refreshed()
+    {
+      clear();
+    }
+
+    @Override
+    public void refreshedTypes( RefreshRequest request )
+    {
+      IModule refreshModule = request.module;
+      if( refreshModule != null && refreshModule != _module )
+      {
+        return;
+      }
+      clear();
+    }
+  }
+}
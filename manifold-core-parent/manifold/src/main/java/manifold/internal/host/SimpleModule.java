@@ -24,6 +24,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticListener;
@@ -59,6 +60,8 @@ public abstract class SimpleModule implements IModule
   private List<IDirectory> _outputPath;
   private SortedSet<ITypeManifold> _typeManifolds;
   private LocklessLazyVar<PathCache> _pathCache;
+  private LocklessLazyVar<TypeManifoldIndex> _typeManifoldIndex;
+  private LocklessLazyVar<GeneratedSourceCache> _sourceCache;
 
   public SimpleModule( IManifoldHost host, List<IDirectory> classpath, List<IDirectory> sourcePath, List<IDirectory> outputPath )
   {
@@ -74,6 +77,8 @@ public abstract class SimpleModule implements IModule
     _outputPath = outputPath;
 
     _pathCache = LocklessLazyVar.make( this::makePathCache );
+    _typeManifoldIndex = LocklessLazyVar.make( () -> new TypeManifoldIndex( this ) );
+    _sourceCache = LocklessLazyVar.make( () -> new GeneratedSourceCache( this ) );
   }
 
   private void verifyPaths( List<IDirectory> paths, String pathType )
@@ -159,11 +164,22 @@ public abstract class SimpleModule implements IModule
     return _pathCache.get();
   }
 
+  public GeneratedSourceCache getGeneratedSourceCache()
+  {
+    return _sourceCache.get();
+  }
+
   public Set<ITypeManifold> getTypeManifolds()
   {
     return _typeManifolds;
   }
 
+  @Override
+  public Set<ITypeManifold> findTypeManifoldsFor( String fqn, Predicate<ITypeManifold> predicate )
+  {
+    return _typeManifoldIndex.get().findTypeManifoldsFor( fqn, predicate );
+  }
+
   public JavaFileObject produceFile( String fqn, JavaFileManager.Location location, DiagnosticListener<JavaFileObject> errorHandler )
   {
     //noinspection unchecked
@@ -172,6 +188,21 @@ public abstract class SimpleModule implements IModule
   }
 
   private String compoundProduce( JavaFileManager.Location location, Set<ITypeManifold> sps, String fqn, DiagnosticListener<JavaFileObject> errorHandler )
+  {
+    return getGeneratedSourceCache().get( fqn, location, sps, () -> {
+      boolean[] errant = {false};
+      String source = compoundProduceImpl( location, sps, fqn, diagnostic -> {
+        errant[0] = true;
+        if( errorHandler != null )
+        {
+          errorHandler.report( diagnostic );
+        }
+      } );
+      return new GeneratedSourceCache.Produced( source, errant[0] );
+    } );
+  }
+
+  private String compoundProduceImpl( JavaFileManager.Location location, Set<ITypeManifold> sps, String fqn, DiagnosticListener<JavaFileObject> errorHandler )
   {
     ITypeManifold found = null;
     String result = "";
@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.host;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import manifold.api.host.AbstractTypeSystemListener;
+import manifold.api.host.IModule;
+import manifold.api.host.RefreshRequest;
+import manifold.api.type.ITypeManifold;
+import manifold.api.type.ResourceFileTypeManifold;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * Routes a type name to the type manifolds that can own it, so finding the type manifolds for a name calls
+ * {@link ITypeManifold#isType(String)} only on candidates instead of on every type manifold. Most names the compiler
+ * and class loader ask about, e.g., {@code java.lang.String}, are rejected by the first lookup in the index.
+ * <p/>
+ * The index is a trie of name segments built from the {@link ITypeManifold#getAllTypeNames()} of resource file type
+ * manifolds, whose types are nested in their top-level types. Other type manifolds are always candidates. The index
+ * is rebuilt after the type system is refreshed.
+ */
+public class TypeManifoldIndex
+{
+  private final IModule _module;
+  private final LocklessLazyVar<Index> _index;
+  @SuppressWarnings({"FieldCanBeLocal", "UnusedDeclaration"})
+  private final CacheClearer _clearer;
+
+  public TypeManifoldIndex( IModule module )
+  {
+    _module = module;
+    _index = LocklessLazyVar.make( this::build );
+    _module.getHost().addTypeSystemListenerAsWeakRef( module, _clearer = new CacheClearer() );
+  }
+
+  /**
+   * Same as {@link IModule#findTypeManifoldsFor(String, Predicate)}
+   */
+  public Set<ITypeManifold> findTypeManifoldsFor( String fqn, Predicate<ITypeManifold> predicate )
+  {
+    Set<ITypeManifold> tms = null;
+    for( ITypeManifold tm: _index.get().findCandidates( fqn ) )
+    {
+      if( (predicate == null || predicate.test( tm )) &&
+          tm.isType( fqn ) )
+      {
+        tms = tms == null ? new HashSet<>( 2 ) : tms;
+        tms.add( tm );
+      }
+    }
+    return tms == null ? Collections.emptySet() : tms;
+  }
+
+  private Index build()
+  {
+    Index index = new Index();
+    for( ITypeManifold tm: _module.getTypeManifolds() )
+    {
+      if( isIndexable( tm ) )
+      {
+        for( String fqn: tm.getAllTypeNames() )
+        {
+          index._root.add( fqn, tm );
+        }
+      }
+      else
+      {
+        index._unindexed.add( tm );
+      }
+    }
+    return index;
+  }
+
+  /**
+   * A type manifold can be indexed if it answers {@code isType()} from its top-level type names, which is the case
+   * for a resource file type manifold unless it overrides {@code isType()}.
+   */
+  private static boolean isIndexable( ITypeManifold tm )
+  {
+    if( !(tm instanceof ResourceFileTypeManifold) )
+    {
+      return false;
+    }
+    try
+    {
+      return tm.getClass().getMethod( "isType", String.class ).getDeclaringClass() == ResourceFileTypeManifold.class;
+    }
+    catch( NoSuchMethodException e )
+    {
+      return false;
+    }
+  }
+
+  private static class Index
+  {
+    private final Node _root = new Node();
+    private final List<ITypeManifold> _unindexed = new ArrayList<>();
+
+    private List<ITypeManifold> findCandidates( String fqn )
+    {
+      List<ITypeManifold> candidates = _unindexed;
+      String name = fqn.replace( '$', '.' );
+      Node node = _root;
+      int start = 0;
+      while( true )
+      {
+        int iDot = name.indexOf( '.', start );
+        node = node.get( iDot < 0 ? name.substring( start ) : name.substring( start, iDot ) );
+        if( node == null )
+        {
+          break;
+        }
+        if( node._owners != null )
+        {
+          // a top-level type of the owners, or an enclosing type of fqn
+          if( candidates == _unindexed )
+          {
+            candidates = new ArrayList<>( _unindexed );
+          }
+          candidates.addAll( node._owners );
+        }
+        if( iDot < 0 )
+        {
+          break;
+        }
+        start = iDot + 1;
+      }
+      return candidates;
+    }
+  }
+
+  private static class Node
+  {
+    private Map<String, Node> _children;
+    private List<ITypeManifold> _owners;
+
+    private void add( String fqn, ITypeManifold tm )
+    {
+      Node node = this;
+      int start = 0;
+      while( true )
+      {
+        int iDot = fqn.indexOf( '.', start );
+        String segment = iDot < 0 ? fqn.substring( start ) : fqn.substring( start, iDot );
+        if( node._children == null )
+        {
+          node._children = new HashMap<>();
+        }
+        node = node._children.computeIfAbsent( segment, k -> new Node() );
+        if( iDot < 0 )
+        {
+          break;
+        }
+        start = iDot + 1;
+      }
+      if( node._owners == null )
+      {
+        node._owners = new ArrayList<>( 1 );
+      }
+      if( !node._owners.contains( tm ) )
+      {
+        node._owners.add( tm );
+      }
+    }
+
+    private Node get( String segment )
+    {
+      return _children == null ? null : _children.get( segment );
+    }
+  }
+
+  private class CacheClearer extends AbstractTypeSystemListener
+  {
+    @Override
+    public boolean notifyEarly()
+    {
+      return true;
+    }
+
+    @Override
+    public void refreshed()
+    {
+      _index.clear();
+    }
+
+    @Override
+    public void refreshedTypes( RefreshRequest request )
+    {
+      IModule refreshModule = request.module;
+      if( refreshModule != null && refreshModule != _module )
+      {
+        return;
+      }
+      _index.clear();
+    }
+  }
+}
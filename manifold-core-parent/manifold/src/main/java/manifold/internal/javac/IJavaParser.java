@@ -41,6 +41,8 @@ public interface IJavaParser
 
   InMemoryClassJavaFileObject compile( String fqn, Iterable<String> options, DiagnosticCollector<JavaFileObject> errorHandler );
 
+  InMemoryClassJavaFileObject compile( String fqn, Collection<String> batch, Iterable<String> options, DiagnosticCollector<JavaFileObject> errorHandler );
+
   Pair<JavaFileObject, String> findJavaSource( String fqn, DiagnosticListener<JavaFileObject> errorHandler );
 
   void clear();
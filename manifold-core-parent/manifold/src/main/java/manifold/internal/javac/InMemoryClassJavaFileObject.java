@@ -59,6 +59,11 @@ public class InMemoryClassJavaFileObject extends SimpleJavaFileObject
     return _outputStream.toByteArray();
   }
 
+  public int size()
+  {
+    return _outputStream.size();
+  }
+
   public String getClassName()
   {
     return _className;
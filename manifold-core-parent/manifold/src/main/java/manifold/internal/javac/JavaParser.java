@@ -50,6 +50,7 @@ import manifold.api.fs.IFile;
 import manifold.api.fs.IResource;
 import manifold.api.host.IManifoldHost;
 import manifold.api.host.IModule;
+import manifold.api.type.ISelfCompiledFile;
 import manifold.util.JreUtil;
 import manifold.util.Pair;
 import manifold.util.SourcePathUtil;
@@ -278,6 +279,58 @@ public class JavaParser implements IJavaParser
     }
   }
 
+  /**
+   * Compiles specified Java class name together with a batch of other types in a single javac task.  Classes compiled
+   * for the batch are cached, therefore subsequent calls to {@link #compile(String, Iterable, DiagnosticCollector)} for
+   * them return the previously compiled class.  If the batch fails to compile, the class is compiled on its own so
+   * that errors are reported exclusively for it.
+   */
+  public InMemoryClassJavaFileObject compile( String fqn, Collection<String> batch, Iterable<String> options, DiagnosticCollector<JavaFileObject> errorHandler )
+  {
+    init();
+
+    InMemoryClassJavaFileObject compiledClass = _mfm.findCompiledFile( fqn );
+    if( compiledClass != null )
+    {
+      return compiledClass;
+    }
+
+    Pair<JavaFileObject, String> fileObj = findJavaSource( fqn, errorHandler );
+    if( fileObj == null )
+    {
+      return null;
+    }
+
+    DiagnosticCollector<JavaFileObject> batchErrorHandler = new DiagnosticCollector<>();
+    List<JavaFileObject> files = new ArrayList<>();
+    files.add( fileObj.getFirst() );
+    for( String type: batch )
+    {
+      if( _mfm.hasCompiledFile( type ) )
+      {
+        continue;
+      }
+      Pair<JavaFileObject, String> pair = findJavaSource( type, batchErrorHandler );
+      if( pair != null && !files.contains( pair.getFirst() ) &&
+          !(pair.getFirst() instanceof ISelfCompiledFile && ((ISelfCompiledFile)pair.getFirst()).isSelfCompile()) )
+      {
+        files.add( pair.getFirst() );
+      }
+    }
+
+    if( files.size() > 1 )
+    {
+      compile( files, options, batchErrorHandler );
+      compiledClass = _mfm.findCompiledFile( fileObj.getSecond() );
+      if( compiledClass != null )
+      {
+        return compiledClass;
+      }
+    }
+
+    return compile( fqn, options, errorHandler );
+  }
+
   /**
    * Compiles fresh, no caching.  Intended for use with parser feedback tooling e.g., a Java editor.
    */
@@ -833,6 +833,7 @@ public class JavacPlugin implements Plugin, TaskListener
           getHost().initialize( deriveSourcePath(), deriveClasspath(), deriveOutputPath() );
 
           // Initialize the runtime host for dynamically loading darkj classes Manifold itself uses during compilation e.g., ManClassFinder_9
+          Bootstrap.enableDynamicCompile();
           Bootstrap.init();
 
           // Override javac's ClassFinder and Resolve so that we can safely load class symbols corresponding with extension classes
@@ -24,6 +24,7 @@ import com.sun.tools.javac.util.Names;
 import com.sun.tools.javac.util.Name;
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -58,7 +59,7 @@ class ManifoldJavaFileManager extends JavacFileManagerBridge<JavaFileManager> im
 
   private final IManifoldHost _host;
   private final boolean _fromJavaC;
-  private FqnCache<InMemoryClassJavaFileObject> _classFiles;
+  private FqnCache<RetainedClassFile> _classFiles;
   private FqnCache<JavaFileObject> _generatedFiles;
   private Context _ctx;
   private int _runtimeMode;
@@ -144,9 +145,10 @@ class ManifoldJavaFileManager extends JavacFileManagerBridge<JavaFileManager> im
       {
         // only retain primary class files e.g., don't keep stubbed class files from extension classes
 
-        _classFiles.add( className, file );
+        RetainedClassFile retained = new RetainedClassFile( file );
+        _classFiles.add( className, retained );
         className = className.replace( '$', '.' );
-        _classFiles.add( className, file );
+        _classFiles.add( className, retained );
       }
       return file;
     }
@@ -171,9 +173,36 @@ class ManifoldJavaFileManager extends JavacFileManagerBridge<JavaFileManager> im
     return name != null && name.contains( "_Manifold_Temp_Main_" );
   }
 
+  /**
+   * Hands out the compiled class file for {@code fqn}. The bytes are held strongly only until the class file is handed
+   * out, thereafter they are softly reachable so the GC can reclaim them once the class is defined. Returns null if the
+   * class was not compiled or if its bytes were reclaimed, in which case the caller compiles the class again.
+   */
   public InMemoryClassJavaFileObject findCompiledFile( String fqn )
   {
-    return _classFiles.get( fqn );
+    RetainedClassFile retained = _classFiles.get( fqn );
+    if( retained == null )
+    {
+      return null;
+    }
+    InMemoryClassJavaFileObject file = retained.handOut();
+    if( file == null )
+    {
+      // reclaimed, drop the stale entry
+      _classFiles.remove( fqn );
+      _classFiles.remove( fqn.replace( '$', '.' ) );
+    }
+    return file;
+  }
+
+  /**
+   * Same as {@link #findCompiledFile(String)}, but does not count as handing out the class file e.g., for checking
+   * whether or not a class belonging to a batch is already compiled.
+   */
+  public boolean hasCompiledFile( String fqn )
+  {
+    RetainedClassFile retained = _classFiles.get( fqn );
+    return retained != null && retained.peek() != null;
   }
 
   public JavaFileObject getSourceFileForInput( Location location, String fqn, JavaFileObject.Kind kind, DiagnosticListener<JavaFileObject> errorHandler )
@@ -383,17 +412,52 @@ class ManifoldJavaFileManager extends JavacFileManagerBridge<JavaFileManager> im
   {
     HashSet<InMemoryClassJavaFileObject> files = new HashSet<>();
     _classFiles.visitDepthFirst(
-      o ->
+      retained ->
       {
-        if( o != null )
+        InMemoryClassJavaFileObject file = retained == null ? null : retained.peek();
+        if( file != null )
         {
-          files.add( o );
+          files.add( file );
         }
         return true;
       } );
     return files;
   }
 
+  /**
+   * Holds a compiled class file strongly until it is handed out to be defined, and softly afterward. Generated classes
+   * are typically defined exactly once, so there is no reason to pin their bytes on the heap for the life of the file
+   * manager, yet keeping them softly avoids recompiling if the class is requested again while memory permits.
+   */
+  private static class RetainedClassFile
+  {
+    private final SoftReference<InMemoryClassJavaFileObject> _softRef;
+    private volatile InMemoryClassJavaFileObject _strongRef;
+
+    RetainedClassFile( InMemoryClassJavaFileObject file )
+    {
+      _softRef = new SoftReference<>( file );
+      _strongRef = file;
+    }
+
+    InMemoryClassJavaFileObject handOut()
+    {
+      InMemoryClassJavaFileObject file = peek();
+      if( file != null && file.size() > 0 )
+      {
+        // only release after javac has written the class
+        _strongRef = null;
+      }
+      return file;
+    }
+
+    InMemoryClassJavaFileObject peek()
+    {
+      InMemoryClassJavaFileObject file = _strongRef;
+      return file != null ? file : _softRef.get();
+    }
+  }
+
   @Override
   public String inferBinaryName( Location location, JavaFileObject fileObj )
   {
@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.javac.templ;
+
+import com.sun.tools.javac.code.Flags;
+import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.code.Symtab;
+import com.sun.tools.javac.code.Type;
+import com.sun.tools.javac.code.TypeTag;
+import com.sun.tools.javac.jvm.Target;
+import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.tree.TreeTranslator;
+import com.sun.tools.javac.util.Context;
+import com.sun.tools.javac.util.List;
+import com.sun.tools.javac.util.Name;
+import com.sun.tools.javac.util.Names;
+import com.sun.tools.javac.util.Options;
+import java.util.ArrayList;
+import java.util.Set;
+import manifold.internal.javac.IDynamicJdk;
+import manifold.util.ReflectUtil;
+
+/**
+ * Lowers the attributed concatenation chains produced for string literal templates to a single, presized
+ * {@link StringBuilder}. Without this javac compiles the chain to a default sized builder, which for templates having
+ * longer literal segments must grow (copy) its buffer at least once.
+ * <p/>
+ * Only applies where javac would otherwise emit a {@code StringBuilder}, i.e., for targets without
+ * {@code StringConcatFactory} or when {@code -XDstringConcat=inline} is specified. Otherwise javac emits an
+ * {@code invokedynamic} to {@code StringConcatFactory} with the literal segments precomputed in the recipe, which is
+ * better left alone.
+ */
+class StringConcatLowering extends TreeTranslator
+{
+  /** Estimated length of a non-literal operand, by type */
+  private static final int BOOLEAN_LENGTH = 5;
+  private static final int CHAR_LENGTH = 1;
+  private static final int INT_LENGTH = 11;
+  private static final int LONG_LENGTH = 20;
+  private static final int FLOATING_LENGTH = 24;
+  private static final int OBJECT_LENGTH = 16;
+
+  private final Set<JCTree.JCBinary> _templateConcats;
+  private final TreeMaker _make;
+  private final Symtab _syms;
+  private final Names _names;
+
+  StringConcatLowering( Context ctx, Set<JCTree.JCBinary> templateConcats )
+  {
+    _templateConcats = templateConcats;
+    _make = TreeMaker.instance( ctx );
+    _syms = Symtab.instance( ctx );
+    _names = Names.instance( ctx );
+  }
+
+  /**
+   * @return True if javac compiles string concatenation to {@code StringBuilder} appends for the current target
+   */
+  static boolean isApplicable( Context ctx )
+  {
+    ReflectUtil.LiveMethodRef hasStringConcatFactory =
+      ReflectUtil.WithNull.method( Target.instance( ctx ), "hasStringConcatFactory" );
+    if( hasStringConcatFactory == null || !(boolean)hasStringConcatFactory.invoke() )
+    {
+      // Java 8 or targeting Java 8
+      return true;
+    }
+    return "inline".equals( Options.instance( ctx ).get( "stringConcat" ) );
+  }
+
+  @Override
+  public void visitBinary( JCTree.JCBinary tree )
+  {
+    // a visited template concatenation is no longer tracked, whether or not it is lowered
+    if( !_templateConcats.remove( tree ) || tree.type == null || tree.type.constValue() != null )
+    {
+      super.visitBinary( tree );
+      return;
+    }
+
+    java.util.List<JCTree.JCExpression> operands = new ArrayList<>();
+    flatten( tree.lhs, operands );
+    flatten( tree.rhs, operands );
+
+    int capacity = 0;
+    for( JCTree.JCExpression operand: operands )
+    {
+      capacity += estimateLength( operand );
+    }
+
+    _make.at( tree.pos );
+    Symbol.MethodSymbol ctor = findMethod( _names.init, _syms.intType );
+    JCTree.JCNewClass newBuilder = _make.NewClass( null, List.nil(), _make.QualIdent( _syms.stringBuilderType.tsym ),
+      List.of( _make.Literal( capacity ) ), null );
+    newBuilder.constructor = ctor;
+    newBuilder.constructorType = ctor.type;
+    newBuilder.type = _syms.stringBuilderType;
+
+    JCTree.JCExpression builder = newBuilder;
+    for( JCTree.JCExpression operand: operands )
+    {
+      if( isEmptyLiteral( operand ) )
+      {
+        // the empty string enforcing concatenation e.g., "$foo"
+        continue;
+      }
+      Symbol.MethodSymbol append = findMethod( _names.append, appendType( operand.type ) );
+      builder = _make.App( _make.Select( builder, append ), List.of( operand ) );
+    }
+    result = _make.App( _make.Select( builder, findMethod( _names.toString ) ) );
+  }
+
+  /**
+   * Collects the operands of the template's left-deep chain in order. Only the binaries made for the template are
+   * flattened, a binary in an embedded expression such as {@code ${a + b}} is an operand.
+   */
+  private void flatten( JCTree.JCExpression expr, java.util.List<JCTree.JCExpression> operands )
+  {
+    if( expr instanceof JCTree.JCBinary && _templateConcats.remove( expr ) && expr.type.constValue() == null )
+    {
+      JCTree.JCBinary binary = (JCTree.JCBinary)expr;
+      flatten( binary.lhs, operands );
+      flatten( binary.rhs, operands );
+    }
+    else
+    {
+      operands.add( translate( expr ) );
+    }
+  }
+
+  /**
+   * Selects the parameter type of the {@code append()} overload javac calls for an operand of type {@code type}.
+   */
+  private Type appendType( Type type )
+  {
+    Type t = type.baseType();
+    if( !t.isPrimitive() )
+    {
+      return t.tsym == _syms.stringType.tsym ? _syms.stringType : _syms.objectType;
+    }
+    if( t.hasTag( TypeTag.BYTE ) || t.hasTag( TypeTag.SHORT ) )
+    {
+      return _syms.intType;
+    }
+    return t;
+  }
+
+  private int estimateLength( JCTree.JCExpression operand )
+  {
+    Object value = operand.type.constValue();
+    if( value != null && operand.type.tsym == _syms.stringType.tsym )
+    {
+      return ((String)value).length();
+    }
+
+    switch( operand.type.getTag() )
+    {
+      case BOOLEAN:
+        return BOOLEAN_LENGTH;
+      case CHAR:
+        return CHAR_LENGTH;
+      case BYTE:
+      case SHORT:
+      case INT:
+        return INT_LENGTH;
+      case LONG:
+        return LONG_LENGTH;
+      case FLOAT:
+      case DOUBLE:
+        return FLOATING_LENGTH;
+      default:
+        return OBJECT_LENGTH;
+    }
+  }
+
+  private boolean isEmptyLiteral( JCTree.JCExpression operand )
+  {
+    return operand instanceof JCTree.JCLiteral && "".equals( ((JCTree.JCLiteral)operand).getValue() );
+  }
+
+  private Symbol.MethodSymbol findMethod( Name name, Type... paramTypes )
+  {
+    for( Symbol member: IDynamicJdk.instance().getMembersByName( (Symbol.ClassSymbol)_syms.stringBuilderType.tsym, name ) )
+    {
+      if( !(member instanceof Symbol.MethodSymbol) || (member.flags() & (Flags.BRIDGE | Flags.SYNTHETIC)) != 0 )
+      {
+        continue;
+      }
+      List<Type> params = member.type.getParameterTypes();
+      if( params.size() != paramTypes.length )
+      {
+        continue;
+      }
+      boolean match = true;
+      for( int i = 0; i < paramTypes.length && match; i++ )
+      {
+        match = params.get( i ).tsym == paramTypes[i].tsym;
+      }
+      if( match )
+      {
+        return (Symbol.MethodSymbol)member;
+      }
+    }
+    throw new IllegalStateException( "StringBuilder#" + name + " not found" );
+  }
+}
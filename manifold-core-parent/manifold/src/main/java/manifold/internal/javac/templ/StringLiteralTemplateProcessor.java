@@ -21,15 +21,25 @@ import com.sun.source.util.TaskEvent;
 import com.sun.source.util.TaskListener;
 import com.sun.tools.javac.api.BasicJavacTask;
 import com.sun.tools.javac.api.ClientCodeWrapper;
+import com.sun.tools.javac.api.JavacTrees;
+import com.sun.tools.javac.parser.JavacParser;
+import com.sun.tools.javac.parser.ParserFactory;
+import com.sun.tools.javac.parser.Tokens;
 import com.sun.tools.javac.tree.JCTree;
+import com.sun.tools.javac.tree.TreeCopier;
 import com.sun.tools.javac.tree.TreeMaker;
+import com.sun.tools.javac.tree.TreeScanner;
 import com.sun.tools.javac.tree.TreeTranslator;
 import com.sun.tools.javac.util.JCDiagnostic;
 import com.sun.tools.javac.util.Log;
 import com.sun.tools.javac.util.Names;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.IntPredicate;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticCollector;
@@ -44,10 +54,14 @@ import manifold.util.Stack;
 
 public class StringLiteralTemplateProcessor extends TreeTranslator implements ICompilerComponent, TaskListener
 {
+  private static final int EXPR_CACHE_SIZE = 512;
+
   private final TypeProcessor _tp;
   private BasicJavacTask _javacTask;
   private Stack<Boolean> _disabled;
   private ManDiagnosticHandler _manDiagnosticHandler;
+  private Map<String, JCTree.JCExpression> _exprCache;
+  private Set<JCTree.JCBinary> _templateConcats;
 
   public StringLiteralTemplateProcessor( TypeProcessor typeProcessor )
   {
@@ -60,6 +74,19 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
     _javacTask = javacTask;
     _disabled = new Stack<>();
     _disabled.push( false );
+    _exprCache = new LinkedHashMap<String, JCTree.JCExpression>( 16, 0.75f, true )
+    {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, JCTree.JCExpression> eldest )
+      {
+        return size() > EXPR_CACHE_SIZE;
+      }
+    };
+    if( StringConcatLowering.isApplicable( javacTask.getContext() ) )
+    {
+      // javac compiles concatenation to StringBuilder appends, track template concatenations to presize the builder
+      _templateConcats = Collections.newSetFromMap( new IdentityHashMap<>() );
+    }
 
     javacTask.addTaskListener( this );
   }
@@ -79,6 +106,22 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
   @Override
   public void finished( TaskEvent e )
   {
+    if( e.getKind() == TaskEvent.Kind.ANALYZE )
+    {
+      lowerConcatenation( e );
+      return;
+    }
+
+    if( e.getKind().name().equals( "COMPILATION" ) ) // Java 9+
+    {
+      if( _templateConcats != null )
+      {
+        // release concatenations in classes never lowered e.g., due to errors
+        _templateConcats.clear();
+      }
+      return;
+    }
+
     if( e.getKind() != TaskEvent.Kind.PARSE )
     {
       return;
@@ -103,6 +146,24 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
     }
   }
 
+  /**
+   * After attribution and before javac lowers the class, replace the template concatenations with presized
+   * StringBuilders. See {@link StringConcatLowering}.
+   */
+  private void lowerConcatenation( TaskEvent e )
+  {
+    if( _templateConcats == null || _templateConcats.isEmpty() || e.getTypeElement() == null )
+    {
+      return;
+    }
+
+    JCTree.JCClassDecl classDecl = JavacTrees.instance( _javacTask.getContext() ).getTree( e.getTypeElement() );
+    if( classDecl != null )
+    {
+      new StringConcatLowering( _javacTask.getContext(), _templateConcats ).translate( classDecl );
+    }
+  }
+
   @Override
   public void visitClassDef( JCTree.JCClassDecl classDef )
   {
@@ -229,6 +290,10 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
       {
         concat = maker.Binary( JCTree.Tag.PLUS, concat, exprs.remove( 0 ) );
       }
+      if( _templateConcats != null )
+      {
+        _templateConcats.add( concat );
+      }
     }
 
     result = concat == null ? result : concat;
@@ -273,11 +338,16 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
         }
         else
         {
-          DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
-          expr = _tp.getHost().getJavaParser().parseExpr( comp.getExpr(), errorHandler );
-          if( transferParseErrors( literalOffset, comp, expr, errorHandler ) )
+          expr = parseExpr( comp.getExpr(), exprPos );
+          if( expr == null )
           {
-            return Collections.emptyList();
+            // not a well-formed expression, parse it with a separate javac task to report errors
+            DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
+            expr = _tp.getHost().getJavaParser().parseExpr( comp.getExpr(), errorHandler );
+            if( transferParseErrors( literalOffset, comp, expr, errorHandler ) )
+            {
+              return Collections.emptyList();
+            }
           }
           replaceNames( expr, exprPos );
         }
@@ -295,6 +365,57 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
     return exprs;
   }
 
+  /**
+   * Parses the expression with the current compilation's parser, as opposed to creating a javac task per expression.
+   * Parsed expressions are cached by text, a copy of the cached tree is returned since trees are modified during
+   * attribution.
+   *
+   * @return The parsed expression with positions offset by {@code exprPos} or null if the text is not a well-formed
+   * expression
+   */
+  private JCTree.JCExpression parseExpr( String text, int exprPos )
+  {
+    JCTree.JCExpression parsed = _exprCache.get( text );
+    if( parsed == null )
+    {
+      Log log = Log.instance( _javacTask.getContext() );
+      ErrorCollector errors = new ErrorCollector( log );
+      try
+      {
+        JavacParser parser = ParserFactory.instance( _javacTask.getContext() ).newParser( text, false, false, false );
+        parsed = parser.parseExpression();
+        if( errors.hasErrors() || parser.token().kind != Tokens.TokenKind.EOF )
+        {
+          return null;
+        }
+      }
+      catch( Exception e )
+      {
+        return null;
+      }
+      finally
+      {
+        log.popDiagnosticHandler( errors );
+      }
+      _exprCache.put( text, parsed );
+    }
+
+    JCTree.JCExpression expr = new TreeCopier<Void>( TreeMaker.instance( _javacTask.getContext() ) ).copy( parsed );
+    new TreeScanner()
+    {
+      @Override
+      public void scan( JCTree tree )
+      {
+        if( tree != null )
+        {
+          tree.pos += exprPos;
+          super.scan( tree );
+        }
+      }
+    }.scan( expr );
+    return expr;
+  }
+
   private boolean transferParseErrors( int literalOffset, StringLiteralTemplateParser.Expr comp, JCTree.JCExpression expr, DiagnosticCollector<JavaFileObject> errorHandler )
   {
     if( expr == null || errorHandler.getDiagnostics().stream().anyMatch( e -> e.getKind() == Diagnostic.Kind.ERROR ) )
@@ -330,6 +451,33 @@ public class StringLiteralTemplateProcessor extends TreeTranslator implements IC
     expr.accept( new NameReplacer( _javacTask, offset ) );
   }
 
+  /**
+   * Collects errors from parsing an expression in place of reporting them against the file being compiled
+   */
+  private static class ErrorCollector extends Log.DiagnosticHandler
+  {
+    private boolean _errors;
+
+    private ErrorCollector( Log log )
+    {
+      install( log );
+    }
+
+    private boolean hasErrors()
+    {
+      return _errors;
+    }
+
+    @Override
+    public void report( JCDiagnostic jcDiagnostic )
+    {
+      if( jcDiagnostic.getKind() == Diagnostic.Kind.ERROR )
+      {
+        _errors = true;
+      }
+    }
+  }
+
   private static class EscapeMatcher implements IntPredicate
   {
     private final ManDiagnosticHandler _manDiagnosticHandler;
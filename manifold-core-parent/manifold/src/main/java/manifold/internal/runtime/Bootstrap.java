@@ -24,6 +24,7 @@ import java.util.Hashtable;
 import java.util.Map;
 import manifold.internal.host.RuntimeManifoldHost;
 import manifold.util.concurrent.ConcurrentWeakHashMap;
+import manifold.util.concurrent.LocklessLazyVar;
 
 /**
  * Loads Manifold <b>runtime</b> services:
@@ -40,6 +41,11 @@ public class Bootstrap
   private static final String PROTOCOL_PACKAGE = "manifold.internal.runtime.protocols";
 
   private static Boolean CAN_WRAP = Boolean.FALSE; //= null;
+  private static final LocklessLazyVar<Boolean> DYNAMIC_COMPILE = LocklessLazyVar.make( () -> {
+    PrecompiledIndex index = PrecompiledIndex.load( RuntimeManifoldHost.get().getActualClassLoader() );
+    return index == null || index.isDynamic();
+  } );
+  private static volatile boolean DYNAMIC_COMPILE_ENABLED = false;
 
   private static void setupLoaderChainWithManifoldUrl( ClassLoader loader )
   {
@@ -222,6 +228,11 @@ public class Bootstrap
       ClassLoader loader = RuntimeManifoldHost.get().getActualClassLoader();
       if( loader != null )
       {
+        if( !isDynamicCompileEnabled() )
+        {
+          // all types were compiled ahead of time, see Precompiler
+          return false;
+        }
         setupLoaderChainWithManifoldUrl( loader );
         return true;
       }
@@ -233,6 +244,20 @@ public class Bootstrap
     }
   }
 
+  private static boolean isDynamicCompileEnabled()
+  {
+    return DYNAMIC_COMPILE_ENABLED || DYNAMIC_COMPILE.get();
+  }
+
+  /**
+   * Ensures the {@code manifoldclass:} protocol is integrated regardless of {@link PrecompiledIndex}. The javac plugin
+   * calls this since Manifold needs the protocol for its own classes during compilation.
+   */
+  public static void enableDynamicCompile()
+  {
+    DYNAMIC_COMPILE_ENABLED = true;
+  }
+
   private static boolean canWrapChain()
   {
     return CAN_WRAP == null ? CAN_WRAP = canWrapChain( RuntimeManifoldHost.get().getActualClassLoader() ) : CAN_WRAP;
@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import manifold.api.fs.IFile;
+import manifold.api.fs.cache.PathCache;
+import manifold.api.host.AbstractTypeSystemListener;
+import manifold.api.host.IModule;
+import manifold.api.host.RefreshRequest;
+import manifold.api.type.ITypeManifold;
+import manifold.util.StreamUtil;
+import manifold.util.cache.FqnCache;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * A persistent, content-addressed cache of class files compiled at runtime from type manifold resources. Enable it
+ * by setting the {@code manifold.bytecode.cache} system property to a directory, optionally limiting its size in
+ * megabytes with {@code manifold.bytecode.cache.size} (default is 256).
+ * <p/>
+ * A class file is keyed by its name, the javac options used to compile it, the version of Manifold and of the
+ * contributing type manifolds, and the content of the resource files the type manifolds report for the type. Since a
+ * type may depend on other resources, for instance a JSON Schema {@code $ref} or a GraphQL query's schema, the key
+ * also covers the content of all the files in the module's path the contributing type manifolds handle. That digest
+ * is computed once per type manifold and recomputed when the type system is refreshed.
+ * <p/>
+ * Entries are written to a temporary file and atomically renamed, so concurrent processes sharing the directory
+ * never observe a partially written class file. When the directory exceeds its size limit the least recently used
+ * entries are deleted.
+ */
+public class BytecodeCache
+{
+  public static final String CACHE_DIR = "manifold.bytecode.cache";
+  public static final String CACHE_SIZE = "manifold.bytecode.cache.size";
+
+  private static final int DEFAULT_SIZE_MB = 256;
+  private static final String EXT = ".class";
+
+  private static final LocklessLazyVar<BytecodeCache> INSTANCE =
+    LocklessLazyVar.make( () -> {
+      String dir = System.getProperty( CACHE_DIR );
+      if( dir == null || dir.isEmpty() )
+      {
+        return null;
+      }
+      long maxBytes = Long.getLong( CACHE_SIZE, DEFAULT_SIZE_MB ) * 1024 * 1024;
+      return new BytecodeCache( new File( dir ).toPath(), maxBytes );
+    } );
+
+  private final Path _dir;
+  private final long _maxBytes;
+  private final AtomicLong _size;
+  private final Map<ITypeManifold, ResourcesDigest> _resourceDigests;
+
+  /**
+   * @return The cache configured via system properties, or null if caching is not enabled
+   */
+  public static BytecodeCache instance()
+  {
+    return INSTANCE.get();
+  }
+
+  public BytecodeCache( Path dir, long maxBytes )
+  {
+    _dir = dir;
+    _maxBytes = maxBytes;
+    _size = new AtomicLong( -1 );
+    _resourceDigests = new WeakHashMap<>();
+  }
+
+  public Path getDirectory()
+  {
+    return _dir;
+  }
+
+  /**
+   * Computes the cache key for a class compiled from a type manifold.
+   *
+   * @param module The module providing the type
+   * @param fqn The name of the class to be compiled
+   * @param sourceFqn The name of the type having the source for {@code fqn}, differs from {@code fqn} if it is an inner class
+   * @param options The javac options used to compile the class
+   *
+   * @return A key for the class, or null if the class can't be cached e.g., no resource files back the type
+   */
+  public String makeKey( IModule module, String fqn, String sourceFqn, Iterable<String> options )
+  {
+    Set<ITypeManifold> tms = module.findTypeManifoldsFor( sourceFqn );
+    if( tms.isEmpty() )
+    {
+      return null;
+    }
+    return makeKey( module.getPathCache(), fqn, sourceFqn, options, tms );
+  }
+
+  String makeKey( PathCache pathCache, String fqn, String sourceFqn, Iterable<String> options,
+                  Collection<ITypeManifold> tms )
+  {
+    MessageDigest digest = makeDigest();
+    update( digest, versionStamp( BytecodeCache.class ) );
+    update( digest, fqn );
+    for( String option: options )
+    {
+      update( digest, option );
+    }
+
+    boolean hasFiles = false;
+    List<ITypeManifold> sorted = tms.stream()
+      .sorted( Comparator.comparing( tm -> tm.getClass().getName() ) )
+      .collect( Collectors.toList() );
+    for( ITypeManifold tm: sorted )
+    {
+      update( digest, tm.getClass().getName() );
+      update( digest, versionStamp( tm.getClass() ) );
+      List<IFile> files = tm.findFilesForType( sourceFqn );
+      if( files == null )
+      {
+        continue;
+      }
+      for( IFile file: files )
+      {
+        if( !file.exists() )
+        {
+          return null;
+        }
+        update( digest, file.getName() );
+        byte[] content = getContent( file );
+        if( content == null )
+        {
+          return null;
+        }
+        digest.update( content );
+        hasFiles = true;
+      }
+
+      byte[] resources = getResourcesDigest( pathCache, tm );
+      if( resources == null )
+      {
+        return null;
+      }
+      digest.update( resources );
+    }
+    return hasFiles ? toHex( digest.digest() ) : null;
+  }
+
+  private byte[] getResourcesDigest( PathCache pathCache, ITypeManifold tm )
+  {
+    ResourcesDigest resources;
+    synchronized( _resourceDigests )
+    {
+      resources = _resourceDigests.get( tm );
+      if( resources == null )
+      {
+        _resourceDigests.put( tm, resources = new ResourcesDigest() );
+        IModule module = tm.getModule();
+        if( module != null )
+        {
+          module.getHost().addTypeSystemListenerAsWeakRef( module, resources );
+        }
+      }
+    }
+    return resources.get( pathCache, tm );
+  }
+
+  /**
+   * Digests the content of all the files in the path a type manifold handles, sorted by name so the digest does not
+   * depend on the order of the path scan
+   */
+  private static byte[] digestResources( PathCache pathCache, ITypeManifold tm )
+  {
+    MessageDigest digest = makeDigest();
+    Map<String, FqnCache<IFile>> extensionCaches = new TreeMap<>( pathCache.getExtensionCaches() );
+    for( Map.Entry<String, FqnCache<IFile>> entry: extensionCaches.entrySet() )
+    {
+      if( !tm.handlesFileExtension( entry.getKey() ) )
+      {
+        continue;
+      }
+      FqnCache<IFile> fileCache = entry.getValue();
+      for( String fqn: new TreeSet<>( fileCache.getFqns() ) )
+      {
+        IFile file = fileCache.get( fqn );
+        if( file == null || !tm.handlesFile( file ) )
+        {
+          continue;
+        }
+        byte[] content = getContent( file );
+        if( content == null )
+        {
+          return null;
+        }
+        update( digest, entry.getKey() );
+        update( digest, fqn );
+        digest.update( content );
+      }
+    }
+    return digest.digest();
+  }
+
+  private static byte[] getContent( IFile file )
+  {
+    try( InputStream in = file.openInputStream() )
+    {
+      return StreamUtil.getContent( in );
+    }
+    catch( IOException e )
+    {
+      return null;
+    }
+  }
+
+  /**
+   * @return The cached class file for {@code key}, or null if not cached
+   */
+  public byte[] load( String key )
+  {
+    Path file = getPath( key );
+    if( !Files.isRegularFile( file ) )
+    {
+      return null;
+    }
+
+    try
+    {
+      byte[] bytes = Files.readAllBytes( file );
+      if( !isClassFile( bytes ) )
+      {
+        Files.deleteIfExists( file );
+        return null;
+      }
+      // mark as recently used for eviction
+      //noinspection ResultOfMethodCallIgnored
+      file.toFile().setLastModified( System.currentTimeMillis() );
+      return bytes;
+    }
+    catch( IOException e )
+    {
+      // another process may have evicted it
+      return null;
+    }
+  }
+
+  /**
+   * Stores a class file. Failures are ignored, the cache is merely an optimization.
+   */
+  public void store( String key, byte[] bytes )
+  {
+    Path file = getPath( key );
+    Path tmp = null;
+    try
+    {
+      Files.createDirectories( file.getParent() );
+      tmp = Files.createTempFile( file.getParent(), key, ".tmp" );
+      Files.write( tmp, bytes );
+      try
+      {
+        Files.move( tmp, file, StandardCopyOption.ATOMIC_MOVE );
+      }
+      catch( AtomicMoveNotSupportedException e )
+      {
+        Files.move( tmp, file, StandardCopyOption.REPLACE_EXISTING );
+      }
+      tmp = null;
+    }
+    catch( IOException e )
+    {
+      return;
+    }
+    finally
+    {
+      deleteQuietly( tmp );
+    }
+
+    long size = _size.get() < 0
+                ? _size.updateAndGet( s -> computeSize() )
+                : _size.addAndGet( bytes.length );
+    if( size > _maxBytes )
+    {
+      evict();
+    }
+  }
+
+  private synchronized void evict()
+  {
+    List<Path> entries = listEntries();
+    entries.sort( Comparator.comparingLong( p -> p.toFile().lastModified() ) );
+    long size = entries.stream().mapToLong( p -> p.toFile().length() ).sum();
+    long target = _maxBytes - _maxBytes / 10;
+    for( int i = 0; i < entries.size() && size > target; i++ )
+    {
+      Path entry = entries.get( i );
+      long length = entry.toFile().length();
+      deleteQuietly( entry );
+      size -= length;
+    }
+    _size.set( size );
+  }
+
+  private long computeSize()
+  {
+    return listEntries().stream().mapToLong( p -> p.toFile().length() ).sum();
+  }
+
+  private List<Path> listEntries()
+  {
+    if( !Files.isDirectory( _dir ) )
+    {
+      return new ArrayList<>();
+    }
+    try( Stream<Path> stream = Files.walk( _dir, 2 ) )
+    {
+      return stream.filter( p -> p.getFileName().toString().endsWith( EXT ) ).collect( Collectors.toList() );
+    }
+    catch( IOException e )
+    {
+      return new ArrayList<>();
+    }
+  }
+
+  private Path getPath( String key )
+  {
+    return _dir.resolve( key.substring( 0, 2 ) ).resolve( key + EXT );
+  }
+
+  private static boolean isClassFile( byte[] bytes )
+  {
+    return bytes.length > 4 &&
+           (bytes[0] & 0xFF) == 0xCA && (bytes[1] & 0xFF) == 0xFE &&
+           (bytes[2] & 0xFF) == 0xBA && (bytes[3] & 0xFF) == 0xBE;
+  }
+
+  private static void deleteQuietly( Path path )
+  {
+    if( path == null )
+    {
+      return;
+    }
+    try
+    {
+      Files.deleteIfExists( path );
+    }
+    catch( IOException ignore )
+    {
+    }
+  }
+
+  /**
+   * The implementation version alone is not enough, snapshot builds share a version, so the length and timestamp of
+   * the class's jar file are included.
+   */
+  private static String versionStamp( Class<?> cls )
+  {
+    StringBuilder sb = new StringBuilder();
+    Package pkg = cls.getPackage();
+    if( pkg != null && pkg.getImplementationVersion() != null )
+    {
+      sb.append( pkg.getImplementationVersion() );
+    }
+    CodeSource codeSource = cls.getProtectionDomain().getCodeSource();
+    URL location = codeSource == null ? null : codeSource.getLocation();
+    if( location != null && "file".equals( location.getProtocol() ) )
+    {
+      try
+      {
+        File file = new File( location.toURI() );
+        if( file.isFile() )
+        {
+          sb.append( ':' ).append( file.length() ).append( ':' ).append( file.lastModified() );
+        }
+      }
+      catch( Exception ignore )
+      {
+      }
+    }
+    return sb.toString();
+  }
+
+  private static MessageDigest makeDigest()
+  {
+    try
+    {
+      return MessageDigest.getInstance( "SHA-256" );
+    }
+    catch( NoSuchAlgorithmException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private static void update( MessageDigest digest, String value )
+  {
+    digest.update( value.getBytes( StandardCharsets.UTF_8 ) );
+    digest.update( (byte)0 );
+  }
+
+  private static String toHex( byte[] bytes )
+  {
+    StringBuilder sb = new StringBuilder( bytes.length * 2 );
+    for( byte b: bytes )
+    {
+      sb.append( Character.forDigit( (b >> 4) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The lazily computed digest of a type manifold's resources, cleared when the type system is refreshed. Note this
+   * doesn't reference the type manifold, it is the value of a weak map keyed by the type manifold.
+   */
+  private static class ResourcesDigest extends AbstractTypeSystemListener
+  {
+    private volatile byte[] _digest;
+
+    byte[] get( PathCache pathCache, ITypeManifold tm )
+    {
+      byte[] digest = _digest;
+      if( digest == null )
+      {
+        _digest = digest = digestResources( pathCache, tm );
+      }
+      return digest;
+    }
+
+    @Override
+    public void refreshed()
+    {
+      _digest = null;
+    }
+
+    @Override
+    public void refreshedTypes( RefreshRequest request )
+    {
+      _digest = null;
+    }
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.runtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Enumeration;
+
+/**
+ * The index {@link Precompiler} writes alongside the classes it compiles ahead of time. The index lists the types
+ * compiled and whether the application was precompiled with dynamic compilation disabled, in which case
+ * {@link Bootstrap} does not integrate the {@code manifoldclass:} protocol with the class loader.
+ */
+public class PrecompiledIndex
+{
+  public static final String RESOURCE = "META-INF/manifold/precompiled.idx";
+
+  private static final String DYNAMIC_OFF = "#dynamic=false";
+
+  private final boolean _dynamic;
+
+  private PrecompiledIndex( boolean dynamic )
+  {
+    _dynamic = dynamic;
+  }
+
+  /**
+   * Loads and merges all the indexes visible to {@code loader}.
+   *
+   * @return The merged index or null if there are none
+   */
+  public static PrecompiledIndex load( ClassLoader loader )
+  {
+    try
+    {
+      boolean found = false;
+      boolean dynamic = false;
+      for( Enumeration<URL> resources = loader.getResources( RESOURCE ); resources.hasMoreElements(); )
+      {
+        found = true;
+        URL url = resources.nextElement();
+        boolean dynamicOff = false;
+        try( BufferedReader reader = new BufferedReader( new InputStreamReader( url.openStream(), StandardCharsets.UTF_8 ) ) )
+        {
+          for( String line = reader.readLine(); line != null; line = reader.readLine() )
+          {
+            if( line.trim().equals( DYNAMIC_OFF ) )
+            {
+              dynamicOff = true;
+              break;
+            }
+          }
+        }
+        // dynamic compilation stays on unless every index turns it off
+        dynamic |= !dynamicOff;
+      }
+      return found ? new PrecompiledIndex( dynamic ) : null;
+    }
+    catch( IOException e )
+    {
+      return null;
+    }
+  }
+
+  public static void write( Writer writer, Collection<String> types, boolean dynamic ) throws IOException
+  {
+    if( !dynamic )
+    {
+      writer.write( DYNAMIC_OFF );
+      writer.write( '\n' );
+    }
+    for( String type: types )
+    {
+      writer.write( type );
+      writer.write( '\n' );
+    }
+  }
+
+  /**
+   * @return False if all the indexes were written with dynamic compilation disabled
+   */
+  public boolean isDynamic()
+  {
+    return _dynamic;
+  }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.internal.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import manifold.api.fs.IDirectory;
+import manifold.api.fs.IFile;
+import manifold.api.host.IModule;
+import manifold.api.host.IRuntimeManifoldHost;
+import manifold.api.type.ContributorKind;
+import manifold.api.type.ISelfCompiledFile;
+import manifold.api.type.ITypeManifold;
+import manifold.internal.host.RuntimeManifoldHost;
+import manifold.internal.javac.InMemoryClassJavaFileObject;
+import manifold.internal.javac.JavaParser;
+import manifold.internal.runtime.protocols.ManClassesUrlConnection;
+import manifold.util.Pair;
+
+/**
+ * Compiles ahead of time all the types type manifolds project from the resources in a source path, so an application
+ * needs no javac work at runtime to load them.  The class files are written to the output directory with a
+ * {@link PrecompiledIndex} listing the compiled types.  Typically run after resources are processed e.g., with the
+ * {@code exec-maven-plugin} in the {@code process-classes} phase, so the classes are packaged into the module's jar:
+ * <pre>
+ * java -cp &lt;classpath&gt; manifold.internal.runtime.Precompiler
+ *   -sourcepath target/classes -d target/classes [-ext json,yml] [-nodynamic]
+ * </pre>
+ * The classpath must include Manifold, the type manifolds, and the module's dependencies.  Use {@code -nodynamic}
+ * only if the application never needs Manifold to compile classes at runtime, including structural interface
+ * proxies, since it tells the runtime not to integrate the {@code manifoldclass:} protocol.
+ */
+public class Precompiler
+{
+  private final List<File> _sourcePath;
+  private final File _outputDir;
+  private final Set<String> _extensions;
+  private final boolean _dynamic;
+
+  public static void main( String[] args ) throws IOException
+  {
+    List<File> sourcePath = new ArrayList<>();
+    File outputDir = null;
+    Set<String> extensions = Collections.emptySet();
+    boolean dynamic = true;
+    for( int i = 0; i < args.length; i++ )
+    {
+      switch( args[i] )
+      {
+        case "-sourcepath":
+          sourcePath.addAll( Arrays.stream( args[++i].split( File.pathSeparator ) ).map( File::new ).collect( Collectors.toList() ) );
+          break;
+        case "-d":
+          outputDir = new File( args[++i] );
+          break;
+        case "-ext":
+          extensions = new TreeSet<>( Arrays.asList( args[++i].split( "," ) ) );
+          break;
+        case "-nodynamic":
+          dynamic = false;
+          break;
+        default:
+          throw new IllegalArgumentException( "Unrecognized argument: " + args[i] );
+      }
+    }
+    if( sourcePath.isEmpty() || outputDir == null )
+    {
+      System.err.println( "Usage: Precompiler -sourcepath <path> -d <dir> [-ext <ext,...>] [-nodynamic]" );
+      System.exit( 2 );
+    }
+
+    if( !new Precompiler( sourcePath, outputDir, extensions, dynamic ).precompile() )
+    {
+      System.exit( 1 );
+    }
+  }
+
+  public Precompiler( List<File> sourcePath, File outputDir, Set<String> extensions, boolean dynamic )
+  {
+    _sourcePath = sourcePath;
+    _outputDir = outputDir;
+    _extensions = extensions;
+    _dynamic = dynamic;
+  }
+
+  /**
+   * @return True if all types compiled without errors
+   */
+  public boolean precompile() throws IOException
+  {
+    long before = System.nanoTime();
+
+    IRuntimeManifoldHost host = RuntimeManifoldHost.get();
+    host.bootstrap( _sourcePath, Collections.emptyList() );
+    IModule module = host.getSingleModule();
+    List<IDirectory> sourceDirs = _sourcePath.stream()
+      .map( file -> host.getFileSystem().getIDirectory( file ) )
+      .collect( Collectors.toList() );
+
+    Set<String> types = findTypes( module, sourceDirs );
+
+    JavaParser parser = host.getJavaParser();
+    DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
+    List<JavaFileObject> files = new ArrayList<>();
+    for( String fqn: types )
+    {
+      Pair<JavaFileObject, String> pair = parser.findJavaSource( fqn, errorHandler );
+      if( pair == null )
+      {
+        continue;
+      }
+      JavaFileObject file = pair.getFirst();
+      if( file instanceof ISelfCompiledFile && ((ISelfCompiledFile)file).isSelfCompile() )
+      {
+        writeClass( fqn, ((ISelfCompiledFile)file).compile() );
+      }
+      else
+      {
+        files.add( file );
+      }
+    }
+
+    Collection<InMemoryClassJavaFileObject> classes = files.isEmpty()
+                                                      ? Collections.emptyList()
+                                                      : parser.compile( files, ManClassesUrlConnection.COMPILE_OPTIONS, errorHandler );
+    boolean errant = false;
+    for( Diagnostic<? extends JavaFileObject> diagnostic: errorHandler.getDiagnostics() )
+    {
+      if( diagnostic.getKind() == Diagnostic.Kind.ERROR )
+      {
+        errant = true;
+        System.err.println( diagnostic );
+      }
+    }
+    if( errant )
+    {
+      return false;
+    }
+
+    for( InMemoryClassJavaFileObject cls: classes )
+    {
+      String className = cls.getClassName();
+      int iInner = className.indexOf( '$' );
+      if( types.contains( iInner < 0 ? className : className.substring( 0, iInner ) ) )
+      {
+        writeClass( className, cls.getBytes() );
+      }
+    }
+    writeIndex( types );
+
+    System.out.println( "Precompiled " + types.size() + " types in " + (System.nanoTime() - before) / 1_000_000 + "ms" );
+    return true;
+  }
+
+  /**
+   * Finds the top-level types primary type manifolds project from resources in the source path.  Types from the
+   * classpath are excluded, they belong to other modules.
+   */
+  private Set<String> findTypes( IModule module, List<IDirectory> sourceDirs )
+  {
+    Set<String> types = new TreeSet<>();
+    for( ITypeManifold tm: module.getTypeManifolds() )
+    {
+      if( tm.getContributorKind() == ContributorKind.Supplemental ||
+          !_extensions.isEmpty() && _extensions.stream().noneMatch( tm::handlesFileExtension ) )
+      {
+        continue;
+      }
+
+      for( String fqn: tm.getAllTypeNames() )
+      {
+        if( tm.isTopLevelType( fqn ) && isInSourcePath( tm.findFilesForType( fqn ), sourceDirs ) )
+        {
+          types.add( fqn );
+        }
+      }
+    }
+    return types;
+  }
+
+  private boolean isInSourcePath( List<IFile> files, List<IDirectory> sourceDirs )
+  {
+    return !files.isEmpty() &&
+           files.stream().allMatch( file -> sourceDirs.stream().anyMatch( file::isDescendantOf ) );
+  }
+
+  private void writeClass( String className, byte[] bytes ) throws IOException
+  {
+    Path file = _outputDir.toPath().resolve( className.replace( '.', File.separatorChar ) + ".class" );
+    Files.createDirectories( file.getParent() );
+    Files.write( file, bytes );
+  }
+
+  private void writeIndex( Collection<String> types ) throws IOException
+  {
+    Path file = _outputDir.toPath().resolve( PrecompiledIndex.RESOURCE );
+    Files.createDirectories( file.getParent() );
+    try( Writer writer = Files.newBufferedWriter( file, StandardCharsets.UTF_8 ) )
+    {
+      PrecompiledIndex.write( writer, types, _dynamic );
+    }
+  }
+}
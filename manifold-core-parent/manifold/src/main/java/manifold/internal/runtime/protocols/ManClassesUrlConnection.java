@@ -25,21 +25,32 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLDecoder;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import javax.tools.DiagnosticCollector;
 import javax.tools.JavaFileObject;
+import manifold.api.host.IModule;
 import manifold.api.type.ISelfCompiledFile;
 import manifold.api.type.ITypeManifold;
+import manifold.api.type.TypeName;
 import manifold.internal.host.RuntimeManifoldHost;
 import manifold.internal.javac.InMemoryClassJavaFileObject;
 import manifold.internal.javac.JavaCompileIssuesException;
 import manifold.internal.javac.StringJavaFileObject;
+import manifold.internal.runtime.BytecodeCache;
+import manifold.util.ManClassUtil;
 import manifold.util.Pair;
 import manifold.util.PerfLogUtil;
 
+
+import static manifold.api.type.ContributorKind.Primary;
+
 /**
  */
 public class ManClassesUrlConnection extends URLConnection
@@ -50,7 +61,18 @@ public class ManClassesUrlConnection extends URLConnection
     "java/", "javax/", "sun/"
   };
   private static final String META_INF_MANIFEST_MF = "META-INF/MANIFEST.MF";
+  /**
+   * The maximum number of types compiled in one javac task, a value greater than one enables batching.
+   */
+  /**
+   * The javac options for classes compiled at runtime, also used to precompile classes ahead of time and as part of
+   * the {@link BytecodeCache} key, so the bytecode matches however a class is compiled
+   */
+  public static final List<String> COMPILE_OPTIONS = Collections.unmodifiableList(
+    Arrays.asList( "-source", "8", "-g", "-nowarn", "-Xlint:none", "-proc:none", "-parameters" ) );
+  private static final int BATCH_SIZE = Integer.getInteger( "manifold.compile.batch.size", 0 );
   private static final ThreadLocal<Map<String, Supplier<String>>> _proxySupplierByFqn = ThreadLocal.withInitial( HashMap::new );
+  private static final ThreadLocal<Map<String, Supplier<byte[]>>> _bytecodeSupplierByFqn = ThreadLocal.withInitial( HashMap::new );
 
   public static Supplier<String> getProxySupplier( String fqnProxy )
   {
@@ -67,9 +89,29 @@ public class ManClassesUrlConnection extends URLConnection
     _proxySupplierByFqn.get().remove( fqnProxy );
   }
 
+  /**
+   * Like {@link #putProxySupplier(String, Supplier)}, but supplies the class file directly, no compilation involved
+   */
+  public static void putBytecodeSupplier( String fqnProxy, Supplier<byte[]> supplier )
+  {
+    _bytecodeSupplierByFqn.get().put( fqnProxy, supplier );
+  }
+
+  public static Supplier<byte[]> getBytecodeSupplier( String fqnProxy )
+  {
+    return _bytecodeSupplierByFqn.get().get( fqnProxy );
+  }
+
+  public static void removeBytecodeSupplier( String fqnProxy )
+  {
+    _bytecodeSupplierByFqn.get().remove( fqnProxy );
+  }
+
   private JavaFileObject _javaSrcFile;
   private Supplier<String> _proxySupplier;
+  private Supplier<byte[]> _bytecodeSupplier;
   private String _javaFqn;
+  private String _javaSrcFqn;
 
   private boolean _bDirectory;
   private boolean _bInvalid;
@@ -99,7 +141,7 @@ public class ManClassesUrlConnection extends URLConnection
     {
       return false;
     }
-    if( _javaSrcFile == null && _proxySupplier == null && !_bDirectory )
+    if( _javaSrcFile == null && _proxySupplier == null && _bytecodeSupplier == null && !_bDirectory )
     {
       //noinspection deprecation
       String strPath = URLDecoder.decode( getURL().getPath() );
@@ -123,7 +165,7 @@ public class ManClassesUrlConnection extends URLConnection
           _bDirectory = true;
         }
       }
-      _bInvalid = _javaSrcFile == null && _proxySupplier == null && !_bDirectory;
+      _bInvalid = _javaSrcFile == null && _proxySupplier == null && _bytecodeSupplier == null && !_bDirectory;
     }
     return !_bInvalid;
   }
@@ -150,6 +192,15 @@ public class ManClassesUrlConnection extends URLConnection
 
   private void maybeAssignType( ClassLoader loader, String strType )
   {
+    Supplier<byte[]> bytecodeSupplier = getBytecodeSupplier( strType );
+    if( bytecodeSupplier != null )
+    {
+      removeBytecodeSupplier( strType );
+      _bytecodeSupplier = bytecodeSupplier;
+      _javaFqn = strType;
+      return;
+    }
+
     Supplier<String> proxySupplier = getProxySupplier( strType );
     if( proxySupplier != null )
     {
@@ -173,6 +224,7 @@ public class ManClassesUrlConnection extends URLConnection
           if( pair != null )
           {
             _javaSrcFile = pair.getFirst();
+            _javaSrcFqn = pair.getSecond();
             _javaFqn = strType;
           }
         }
@@ -200,7 +252,7 @@ public class ManClassesUrlConnection extends URLConnection
   @Override
   public InputStream getInputStream() throws IOException
   {
-    if( _javaSrcFile != null || _proxySupplier != null )
+    if( _javaSrcFile != null || _proxySupplier != null || _bytecodeSupplier != null )
     {
       // Avoid compiling until the bytes are actually requested;
       // sun.misc.URLClassPath grabs the inputstream twice, the first time is for practice :)
@@ -234,11 +286,11 @@ public class ManClassesUrlConnection extends URLConnection
       if( _buf == null )
       {
         //System.out.println( "Compiling: " + _type.getName() );
-//        if( _bytecodeSupplier != null )
-//        {
-//          _buf = _bytecodeSupplier.get();
-//        }
-        if( _javaSrcFile != null )
+        if( _bytecodeSupplier != null )
+        {
+          _buf = _bytecodeSupplier.get();
+        }
+        else if( _javaSrcFile != null )
         {
           _buf = compileJavaClass();
         }
@@ -307,10 +359,27 @@ public class ManClassesUrlConnection extends URLConnection
         }
         else
         {
+          BytecodeCache cache = BytecodeCache.instance();
+          String key = cache == null ? null : cache.makeKey( RuntimeManifoldHost.get().getSingleModule(), _javaFqn, _javaSrcFqn, COMPILE_OPTIONS );
+          if( key != null )
+          {
+            byte[] bytes = cache.load( key );
+            if( bytes != null )
+            {
+              return bytes;
+            }
+          }
+
           DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
-          InMemoryClassJavaFileObject cls = RuntimeManifoldHost.get().getJavaParser().compile( _javaFqn, Arrays.asList( "-source", "8", "-g", "-nowarn", "-Xlint:none", "-proc:none", "-parameters" ), errorHandler );
+          InMemoryClassJavaFileObject cls = BATCH_SIZE > 1
+                                            ? RuntimeManifoldHost.get().getJavaParser().compile( _javaFqn, findBatch(), COMPILE_OPTIONS, errorHandler )
+                                            : RuntimeManifoldHost.get().getJavaParser().compile( _javaFqn, COMPILE_OPTIONS, errorHandler );
           if( cls != null )
           {
+            if( key != null )
+            {
+              cache.store( key, cls.getBytes() );
+            }
             return cls.getBytes();
           }
           throw new JavaCompileIssuesException( _javaFqn, errorHandler );
@@ -327,6 +396,28 @@ public class ManClassesUrlConnection extends URLConnection
       }
     }
 
+    /**
+     * Finds types sharing the package and type manifold[s] of the type to compile. Since these are likely to load
+     * together, compiling them in one javac task avoids attributing common dependencies over and over.
+     */
+    private List<String> findBatch()
+    {
+      IModule module = RuntimeManifoldHost.get().getSingleModule();
+      String pkg = ManClassUtil.getPackage( _javaSrcFqn );
+      Set<String> batch = new TreeSet<>();
+      for( ITypeManifold tm: module.findTypeManifoldsFor( _javaSrcFqn, tm -> tm.getContributorKind() == Primary ) )
+      {
+        for( TypeName typeName: tm.getTypeNames( pkg ) )
+        {
+          if( typeName.kind == TypeName.Kind.TYPE && !typeName.name.equals( _javaSrcFqn ) )
+          {
+            batch.add( typeName.name );
+          }
+        }
+      }
+      return batch.stream().limit( BATCH_SIZE - 1 ).collect( Collectors.toList() );
+    }
+
     private byte[] compileProxyClass( String source )
     {
       long before = System.nanoTime();
@@ -334,7 +425,7 @@ public class ManClassesUrlConnection extends URLConnection
       {
         DiagnosticCollector<JavaFileObject> errorHandler = new DiagnosticCollector<>();
         StringJavaFileObject fileObj = new StringJavaFileObject( _javaFqn, source );
-        InMemoryClassJavaFileObject cls = RuntimeManifoldHost.get().getJavaParser().compile( fileObj, _javaFqn, Arrays.asList( "-source", "8", "-g", "-nowarn", "-Xlint:none", "-proc:none", "-parameters" ), errorHandler );
+        InMemoryClassJavaFileObject cls = RuntimeManifoldHost.get().getJavaParser().compile( fileObj, _javaFqn, COMPILE_OPTIONS, errorHandler );
         if( cls != null )
         {
           return cls.getBytes();
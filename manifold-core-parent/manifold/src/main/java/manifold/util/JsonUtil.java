@@ -16,6 +16,11 @@
 
 package manifold.util;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -27,6 +32,8 @@ import javax.script.Bindings;
  */
 public class JsonUtil
 {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
   public static String makeIdentifier( String name )
   {
     String identifier = ReservedWordMapping.getIdentifierForName( name );
@@ -93,37 +100,14 @@ public class JsonUtil
    */
   public static void toJson( Map thisMap, StringBuilder sb, int indent )
   {
-    int iKey = 0;
-    if( isNewLine( sb ) )
+    try
     {
-      indent( sb, indent );
+      mapToJson( sb, indent, thisMap, isNewLine( sb ) );
     }
-    sb.append( "{\n" );
-    if( thisMap.size() > 0 )
+    catch( IOException e )
     {
-      for( Object key : thisMap.keySet() )
-      {
-        indent( sb, indent + 2 );
-        sb.append( '\"' ).append( key ).append( '\"' ).append( ": " );
-        Object value = thisMap.get( key );
-        if( value instanceof Map )
-        {
-          toJson( (Map)value, sb, indent + 2 );
-        }
-        else if( value instanceof Iterable )
-        {
-          listToJson( sb, indent + 2, (Iterable)value );
-        }
-        else
-        {
-          appendValue( sb, value );
-        }
-        appendCommaNewLine( sb, iKey < thisMap.size() - 1 );
-        iKey++;
-      }
+      throw ManExceptionUtil.unchecked( e );
     }
-    indent( sb, indent );
-    sb.append( "}" );
   }
 
   /**
@@ -151,6 +135,40 @@ public class JsonUtil
    * </lu>
    */
   public static void toJson( StringBuilder target, int margin, Object value )
+  {
+    try
+    {
+      toJson( target, margin, value, isNewLine( target ) );
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  /**
+   * Writes JSON directly to the specified {@code target} as it is produced, as opposed to building a String first.
+   * Use this to serialize large values to a {@link java.io.Writer} or to a stream, see {@link #toJson(OutputStream, Object)}.
+   * The output is the same as {@link #toJson(Object)}.
+   * <p/>
+   * Note the {@code target} is written in small pieces, if it is a {@code Writer} it should be buffered.
+   */
+  public static void toJson( Appendable target, int margin, Object value ) throws IOException
+  {
+    toJson( target, margin, value, false );
+  }
+
+  /**
+   * Writes JSON as UTF-8 directly to the specified {@code out} as it is produced. The stream is flushed, not closed.
+   */
+  public static void toJson( OutputStream out, Object value ) throws IOException
+  {
+    java.io.Writer writer = makeUtf8Writer( out );
+    toJson( writer, 0, value );
+    writer.flush();
+  }
+
+  private static void toJson( Appendable target, int margin, Object value, boolean lineStart ) throws IOException
   {
     if( value instanceof Pair )
     {
@@ -158,7 +176,7 @@ public class JsonUtil
     }
     if( value instanceof Map )
     {
-      toJson( ((Map)value), target, margin );
+      mapToJson( target, margin, (Map)value, lineStart );
     }
     else if( value instanceof Iterable )
     {
@@ -170,6 +188,41 @@ public class JsonUtil
     }
   }
 
+  private static void mapToJson( Appendable target, int indent, Map thisMap, boolean lineStart ) throws IOException
+  {
+    int iKey = 0;
+    if( lineStart )
+    {
+      indent( target, indent );
+    }
+    target.append( "{\n" );
+    if( thisMap.size() > 0 )
+    {
+      for( Object key : thisMap.keySet() )
+      {
+        indent( target, indent + 2 );
+        target.append( '\"' ).append( String.valueOf( key ) ).append( '\"' ).append( ": " );
+        Object value = thisMap.get( key );
+        if( value instanceof Map )
+        {
+          mapToJson( target, indent + 2, (Map)value, false );
+        }
+        else if( value instanceof Iterable )
+        {
+          listToJson( target, indent + 2, (Iterable)value );
+        }
+        else
+        {
+          appendValue( target, value );
+        }
+        appendCommaNewLine( target, iKey < thisMap.size() - 1 );
+        iKey++;
+      }
+    }
+    indent( target, indent );
+    target.append( "}" );
+  }
+
   private static boolean isNewLine( StringBuilder sb )
   {
     return sb.length() > 0 && sb.charAt( sb.length() - 1 ) == '\n';
@@ -177,33 +230,45 @@ public class JsonUtil
 
   public static void listToJson( StringBuilder sb, int indent, Iterable value )
   {
-    sb.append( '[' );
+    try
+    {
+      listToJson( (Appendable)sb, indent, value );
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  private static void listToJson( Appendable target, int indent, Iterable value ) throws IOException
+  {
+    target.append( '[' );
     int i = 0;
     for( Iterator iter = value.iterator(); iter.hasNext(); )
     {
       Object comp = iter.next();
       if( i == 0 )
       {
-        sb.append( "\n" );
+        target.append( "\n" );
       }
       if( comp instanceof Map )
       {
-        toJson( (Map)comp, sb, indent + 2 );
+        mapToJson( target, indent + 2, (Map)comp, true );
       }
       else if( comp instanceof Iterable )
       {
-        listToJson( sb, indent + 2, (Iterable)comp );
+        listToJson( target, indent + 2, (Iterable)comp );
       }
       else
       {
-        indent( sb, indent + 2 );
-        appendValue( sb, comp );
+        indent( target, indent + 2 );
+        appendValue( target, comp );
       }
-      appendCommaNewLine( sb, iter.hasNext() );
+      appendCommaNewLine( target, iter.hasNext() );
       i++;
     }
-    indent( sb, indent );
-    sb.append( "]" );
+    indent( target, indent );
+    target.append( "]" );
   }
 
   /**
@@ -217,32 +282,45 @@ public class JsonUtil
   }
 
 
-  private static void appendCommaNewLine( StringBuilder sb, boolean bComma )
+  private static void appendCommaNewLine( Appendable target, boolean bComma ) throws IOException
   {
     if( bComma )
     {
-      sb.append( ',' );
+      target.append( ',' );
     }
-    sb.append( "\n" );
+    target.append( "\n" );
   }
 
-  private static void indent( StringBuilder sb, int indent )
+  private static void indent( Appendable target, int indent ) throws IOException
   {
     int i = 0;
     while( i < indent )
     {
-      sb.append( ' ' );
+      target.append( ' ' );
       i++;
     }
   }
 
   public static StringBuilder appendValue( StringBuilder sb, Object comp )
+  {
+    try
+    {
+      appendValue( (Appendable)sb, comp );
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+    return sb;
+  }
+
+  private static void appendValue( Appendable target, Object comp ) throws IOException
   {
     if( comp instanceof String )
     {
-      sb.append( '\"' );
-      sb.append( ManEscapeUtil.escapeForJavaStringLiteral( (String)comp ) );
-      sb.append( '\"' );
+      target.append( '\"' );
+      appendEscaped( target, (String)comp );
+      target.append( '\"' );
     }
     else if( comp instanceof Integer ||
              comp instanceof Long ||
@@ -253,17 +331,60 @@ public class JsonUtil
              comp instanceof Byte ||
              comp instanceof Boolean )
     {
-      sb.append( comp );
+      target.append( String.valueOf( comp ) );
     }
     else if( comp == null )
     {
-      sb.append( "null" );
+      target.append( "null" );
     }
     else
     {
       throw new IllegalStateException( "Unsupported expando type: " + comp.getClass() );
     }
-    return sb;
+  }
+
+  /**
+   * Same escapes as {@link ManEscapeUtil#escapeForJavaStringLiteral(String)}, but appends runs of unescaped chars
+   * directly to the target instead of building a String per char.
+   */
+  private static void appendEscaped( Appendable target, String value ) throws IOException
+  {
+    int start = 0;
+    for( int i = 0; i < value.length(); i++ )
+    {
+      char c = value.charAt( i );
+      if( c >= ' ' && c <= '~' && c != '\"' && c != '\\' )
+      {
+        continue;
+      }
+      if( i > start )
+      {
+        target.append( value, start, i );
+      }
+      start = i + 1;
+      switch( c )
+      {
+        case '\"':
+        case '\\':
+        case '\b':
+        case '\f':
+        case '\n':
+        case '\r':
+        case '\t':
+          target.append( ManEscapeUtil.escapeForJavaStringLiteral( c ) );
+          break;
+        default:
+          target.append( "\\u" )
+            .append( HEX[(c >> 12) & 0xF] )
+            .append( HEX[(c >> 8) & 0xF] )
+            .append( HEX[(c >> 4) & 0xF] )
+            .append( HEX[c & 0xF] );
+      }
+    }
+    if( start < value.length() )
+    {
+      target.append( value, start, value.length() );
+    }
   }
 
   public static String toXml( Object jsonValue )
@@ -274,6 +395,24 @@ public class JsonUtil
   }
 
   public static void toXml( Object jsonValue, String name, StringBuilder target, int indent )
+  {
+    try
+    {
+      toXml( jsonValue, name, (Appendable)target, indent );
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  /**
+   * Writes XML directly to the specified {@code target} as it is produced, as opposed to building a String first.
+   * The output is the same as {@link #toXml(Object, String, StringBuilder, int)}.
+   * <p/>
+   * Note the {@code target} is written in small pieces, if it is a {@code Writer} it should be buffered.
+   */
+  public static void toXml( Object jsonValue, String name, Appendable target, int indent ) throws IOException
   {
     if( jsonValue instanceof Map )
     {
@@ -290,14 +429,24 @@ public class JsonUtil
   }
 
   /**
-   * Serializes this {@link Map} instance into an XML formatted StringBuilder {@code target}
+   * Writes XML as UTF-8 directly to the specified {@code out} as it is produced. The stream is flushed, not closed.
+   */
+  public static void toXml( OutputStream out, Object jsonValue, String name ) throws IOException
+  {
+    java.io.Writer writer = makeUtf8Writer( out );
+    toXml( jsonValue, name, writer, 0 );
+    writer.flush();
+  }
+
+  /**
+   * Serializes this {@link Map} instance into an XML formatted {@code target}
    * with the specified {@code indent} of spaces.
    *
    * @param name   The name of the root element to nest the Map XML
-   * @param target A {@link StringBuilder} to write the XML in
+   * @param target An {@link Appendable} to write the XML in
    * @param indent The margin of spaces to indent the XML
    */
-  private static void toXml( Map bindings, String name, StringBuilder target, int indent )
+  private static void toXml( Map bindings, String name, Appendable target, int indent ) throws IOException
   {
     indent( target, indent );
     target.append( '<' ).append( name );
@@ -334,7 +483,7 @@ public class JsonUtil
     }
   }
 
-  private static void toXml( Iterable value, String name, StringBuilder target, int indent )
+  private static void toXml( Iterable value, String name, Appendable target, int indent ) throws IOException
   {
     indent( target, indent );
     target.append( "<" ).append( name );
@@ -361,7 +510,7 @@ public class JsonUtil
         else
         {
           indent( target, indent + 4 );
-          target.append( "<li>" ).append( comp ).append( "</li>\n" );
+          target.append( "<li>" ).append( String.valueOf( comp ) ).append( "</li>\n" );
         }
       }
       indent( target, indent + 2 );
@@ -373,7 +522,7 @@ public class JsonUtil
     }
   }
 
-  private static void toXml( String value, String name, StringBuilder target, int indent )
+  private static void toXml( String value, String name, Appendable target, int indent ) throws IOException
   {
     indent( target, indent );
     target.append( '<' ).append( name ).append( ">" );
@@ -381,6 +530,15 @@ public class JsonUtil
     target.append( "</" ).append( name ).append( ">\n" );
   }
 
+  /**
+   * Makes a buffered Writer encoding UTF-8 on the fly to the specified {@code out}, for use with the streaming
+   * JSON, YAML, and XML writers.
+   */
+  public static java.io.Writer makeUtf8Writer( OutputStream out )
+  {
+    return new BufferedWriter( new OutputStreamWriter( out, StandardCharsets.UTF_8 ), 8 * 1024 );
+  }
+
   public static <E extends Map<String, Object>> Object deepCopyValue( Object value, Function<Integer, E> bindingsSupplier )
   {
     if( value instanceof Map )
@@ -0,0 +1,39 @@
+package manifold.ext;
+
+import junit.framework.TestCase;
+
+public class ClassKeyedCacheTest extends TestCase
+{
+  public void testPolymorphicToMegamorphic()
+  {
+    ClassKeyedCache<Object> cache = new ClassKeyedCache<>();
+    Class[] classes = {String.class, Integer.class, Long.class, Double.class, Float.class, Short.class};
+    Object[] values = new Object[classes.length];
+    for( int i = 0; i < classes.length; i++ )
+    {
+      assertNull( cache.get( classes[i] ) );
+      values[i] = cache.add( classes[i], new Object() );
+      assertEquals( i >= ClassKeyedCache.POLYMORPHIC_LIMIT, cache.isMegamorphic() );
+    }
+
+    // both inline and megamorphic values are found
+    for( int i = 0; i < classes.length; i++ )
+    {
+      assertSame( values[i], cache.get( classes[i] ) );
+    }
+  }
+
+  public void testFirstAddWins()
+  {
+    ClassKeyedCache<Object> cache = new ClassKeyedCache<>();
+    Class[] classes = {String.class, Integer.class, Long.class, Double.class, Float.class, Short.class};
+    for( Class cls: classes )
+    {
+      Object value = cache.add( cls, new Object() );
+      // another thread made a value too, but lost the race
+      assertSame( value, cache.add( cls, new Object() ) );
+      assertSame( value, cache.get( cls ) );
+    }
+    assertTrue( cache.isMegamorphic() );
+  }
+}
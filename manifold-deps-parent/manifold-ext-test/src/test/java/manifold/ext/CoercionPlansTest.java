@@ -0,0 +1,45 @@
+package manifold.ext;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import junit.framework.TestCase;
+
+public class CoercionPlansTest extends TestCase
+{
+  public void testPlanIsResolvedOncePerValueClass()
+  {
+    CoercionPlans plans = new CoercionPlans( int.class );
+    AtomicInteger made = new AtomicInteger();
+    Function<Object, Object> plan = plans.getPlan( Long.class, ( c, t ) -> {
+      assertSame( Long.class, c );
+      assertSame( int.class, t );
+      made.incrementAndGet();
+      return v -> ((Long)v).intValue();
+    } );
+    assertEquals( 3, plan.apply( 3L ) );
+    assertSame( plan, plans.getPlan( Long.class, ( c, t ) -> { throw new AssertionError(); } ) );
+    assertNotSame( plan, plans.getPlan( String.class, ( c, t ) -> v -> Integer.parseInt( (String)v ) ) );
+    assertEquals( 1, made.get() );
+  }
+
+  public void testCoercePerValueClass()
+  {
+    // the same target type sees different value classes
+    assertEquals( 3, RuntimeMethods.coerce( 3L, int.class ) );
+    assertEquals( 3, RuntimeMethods.coerce( "3", int.class ) );
+    assertEquals( 1, RuntimeMethods.coerce( true, int.class ) );
+    assertEquals( 3, RuntimeMethods.coerce( 3, int.class ) );
+    assertEquals( 0, RuntimeMethods.coerce( null, int.class ) );
+    assertEquals( new BigDecimal( "1.5" ), RuntimeMethods.coerce( "1.5", BigDecimal.class ) );
+    assertEquals( "1.5", RuntimeMethods.coerce( 1.5d, String.class ) );
+    assertEquals( Thread.State.NEW, RuntimeMethods.coerce( "NEW", Thread.State.class ) );
+    assertTrue( Arrays.equals( new Integer[] {1, 2}, (Integer[])RuntimeMethods.coerce( new Long[] {1L, 2L}, Integer[].class ) ) );
+
+    List list = (List)RuntimeMethods.coerce( Arrays.asList( 1L, 2L ), int.class );
+    assertEquals( 2, list.get( 1 ) );
+    assertSame( list, RuntimeMethods.coerce( list, int.class ) );
+  }
+}
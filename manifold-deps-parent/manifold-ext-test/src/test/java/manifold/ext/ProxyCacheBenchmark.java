@@ -0,0 +1,82 @@
+package manifold.ext;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Point2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.geom.RoundRectangle2D;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import manifold.ext.api.IProxyFactory;
+import manifold.ext.structural.Coordinate;
+
+/**
+ * Measures structural casts seeing one, two and many root classes, and compares the {@link ProxyCache} factory lookup
+ * against a plain hash lookup. Not a test, run {@code main()}.
+ */
+public class ProxyCacheBenchmark
+{
+  private static final int WARMUP = 5;
+  private static final int ITERATIONS = 2_000_000;
+  private static final Object[] ROOTS = {
+    new Point( 1, 2 ), new Rectangle( 1, 2, 3, 4 ), new Point2D.Double( 1, 2 ), new Point2D.Float( 1, 2 ),
+    new Rectangle2D.Double( 1, 2, 3, 4 ), new Rectangle2D.Float( 1, 2, 3, 4 ), new Ellipse2D.Double( 1, 2, 3, 4 ),
+    new RoundRectangle2D.Double( 1, 2, 3, 4, 5, 6 )};
+
+  public static void main( String[] args )
+  {
+    // the casts share the global cache for Coordinate, so run from fewest to most root classes
+    for( int rootClasses: new int[]{1, 2, ROOTS.length} )
+    {
+      run( rootClasses );
+    }
+  }
+
+  private static void run( int rootClassCount )
+  {
+    Object[] roots = Arrays.copyOf( ROOTS, rootClassCount );
+    Class[] rootClasses = Arrays.stream( roots ).map( Object::getClass ).toArray( Class[]::new );
+
+    ProxyCache cache = new ProxyCache( false );
+    ConcurrentHashMap<Class, IProxyFactory> map = new ConcurrentHashMap<>();
+    for( Class rootClass: rootClasses )
+    {
+      IProxyFactory factory = ( target, iface ) -> target;
+      cache.getFactory( rootClass, c -> factory );
+      map.put( rootClass, factory );
+    }
+
+    long cast = 0;
+    long inline = 0;
+    long hash = 0;
+    double sink = 0;
+    for( int rep = 0; rep <= WARMUP; rep++ )
+    {
+      long start = System.nanoTime();
+      for( int i = 0; i < ITERATIONS; i++ )
+      {
+        sink += ((Coordinate)RuntimeMethods.constructProxy( roots[i % rootClassCount], Coordinate.class )).getX();
+      }
+      cast = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for( int i = 0; i < ITERATIONS; i++ )
+      {
+        sink += cache.getFactory( rootClasses[i % rootClassCount], c -> { throw new AssertionError(); } ).hashCode();
+      }
+      inline = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for( int i = 0; i < ITERATIONS; i++ )
+      {
+        sink += map.get( rootClasses[i % rootClassCount] ).hashCode();
+      }
+      hash = System.nanoTime() - start;
+    }
+
+    System.out.printf( "root classes=%-2d megamorphic=%-5b cast %6.1f ns  cache lookup %6.1f ns  hash lookup %6.1f ns  (%.0f)%n",
+      rootClassCount, cache.isMegamorphic(), (double)cast / ITERATIONS, (double)inline / ITERATIONS,
+      (double)hash / ITERATIONS, sink );
+  }
+}
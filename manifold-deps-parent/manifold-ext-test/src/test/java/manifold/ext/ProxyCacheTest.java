@@ -0,0 +1,97 @@
+package manifold.ext;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Point2D;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import junit.framework.TestCase;
+import manifold.ext.api.IProxyFactory;
+import manifold.ext.structural.Coordinate;
+
+public class ProxyCacheTest extends TestCase
+{
+  public void testStructuralCastBiMorphic()
+  {
+    Point point = new Point( 1, 2 );
+    Rectangle rect = new Rectangle( 3, 4, 5, 6 );
+    Coordinate c1 = (Coordinate)RuntimeMethods.constructProxy( point, Coordinate.class );
+    Coordinate c2 = (Coordinate)RuntimeMethods.constructProxy( rect, Coordinate.class );
+    assertEquals( 1d, c1.getX() );
+    assertEquals( 4d, c2.getY() );
+    assertNotSame( c1, RuntimeMethods.constructProxy( point, Coordinate.class ) );
+  }
+
+  public void testMakerReentersMegamorphicCache()
+  {
+    ProxyCache cache = new ProxyCache( false );
+    Class[] rootClasses = {String.class, Integer.class, Long.class, Double.class, Float.class};
+    for( Class rootClass: rootClasses )
+    {
+      cache.getFactory( rootClass, c -> (IProxyFactory)( target, iface ) -> target );
+    }
+    assertTrue( cache.isMegamorphic() );
+
+    // making a factory may need another factory from the same cache
+    IProxyFactory inner = ( target, iface ) -> target;
+    IProxyFactory outer = cache.getFactory( Short.class, c -> {
+      assertSame( inner, cache.getFactory( Byte.class, c2 -> inner ) );
+      return ( target, iface ) -> target;
+    } );
+    assertSame( outer, cache.getFactory( Short.class, c -> { throw new AssertionError(); } ) );
+    assertSame( inner, cache.getFactory( Byte.class, c -> { throw new AssertionError(); } ) );
+  }
+
+  public void testProxyReuse()
+  {
+    Point2D.Double p1 = new Point2D.Double( 1, 2 );
+    Point2D.Double p2 = new Point2D.Double( 1, 2 ); // equal, but not identical
+
+    ProxyCache cache = new ProxyCache( true );
+    Object proxy = cache.getProxy( p1, r -> RuntimeMethods.constructProxy( r, Coordinate.class ) );
+    assertSame( proxy, cache.getProxy( p1, r -> { throw new AssertionError(); } ) );
+    assertNotSame( proxy, cache.getProxy( p2, r -> RuntimeMethods.constructProxy( r, Coordinate.class ) ) );
+    assertEquals( 2d, ((Coordinate)proxy).getY() );
+
+    ProxyCache noReuse = new ProxyCache( false );
+    assertNotSame( noReuse.getProxy( p1, r -> new Object() ), noReuse.getProxy( p1, r -> new Object() ) );
+  }
+
+  public void testConcurrentProxyReuseAnswersOneProxy() throws Exception
+  {
+    Point2D.Double root = new Point2D.Double( 1, 2 );
+    ProxyCache cache = new ProxyCache( true );
+    CountDownLatch making = new CountDownLatch( 2 );
+    ExecutorService executor = Executors.newFixedThreadPool( 2 );
+    try
+    {
+      // both threads make a proxy before either caches it
+      Future<Object> first = executor.submit( () -> cache.getProxy( root, r -> makeAfter( making ) ) );
+      Future<Object> second = executor.submit( () -> cache.getProxy( root, r -> makeAfter( making ) ) );
+      Object proxy = first.get( 10, TimeUnit.SECONDS );
+      assertSame( proxy, second.get( 10, TimeUnit.SECONDS ) );
+      assertSame( proxy, cache.getProxy( root, r -> { throw new AssertionError(); } ) );
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private static Object makeAfter( CountDownLatch making )
+  {
+    making.countDown();
+    try
+    {
+      assertTrue( making.await( 10, TimeUnit.SECONDS ) );
+    }
+    catch( InterruptedException e )
+    {
+      throw new RuntimeException( e );
+    }
+    return new Object();
+  }
+}
@@ -0,0 +1,61 @@
+package manifold.ext;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import junit.framework.TestCase;
+import manifold.ext.structural.Coordinate;
+
+public class ProxyClassWriterTest extends TestCase
+{
+  public void testDelegatingClass() throws Exception
+  {
+    ProxyClassWriter writer = new ProxyClassWriter( "test.Delegate", Object.class, Function.class );
+    writer.addField( ProxyClassWriter.ACC_PRIVATE | ProxyClassWriter.ACC_FINAL, "_root", Map.class );
+    writer.addMethod( ProxyClassWriter.ACC_PUBLIC, "<init>", void.class, Map.class )
+      .loadThis().invokeSpecial( Object.class, "<init>", void.class )
+      .loadThis().loadParam( 0, Map.class ).putField( "test/Delegate", "_root", Map.class )
+      .returnValue( void.class );
+    writer.addMethod( ProxyClassWriter.ACC_PUBLIC, "apply", Object.class, Object.class )
+      .loadThis().getField( "test/Delegate", "_root", Map.class )
+      .loadParam( 0, Object.class )
+      .invokeInterface( Map.class, "get", Object.class, Object.class )
+      .returnValue( Object.class );
+    byte[] bytes = writer.toByteArray();
+
+    Class<?> cls = new ClassLoader( getClass().getClassLoader() )
+    {
+      Class<?> define()
+      {
+        return defineClass( "test.Delegate", bytes, 0, bytes.length );
+      }
+    }.define();
+    Map<String, String> map = new HashMap<>();
+    map.put( "a", "b" );
+    //noinspection unchecked
+    Function<String, String> fn = (Function<String, String>)cls.getConstructor( Map.class ).newInstance( map );
+    assertEquals( "b", fn.apply( "a" ) );
+  }
+
+  public void testBytecodeStructuralProxy()
+  {
+    assertTrue( ProxyClassWriter.ENABLED );
+    assertNotNull( StructuralTypeProxyGenerator.makeBytecode( Coordinate.class, Point.class,
+      "manifold.ext.structural.Point_To_Coordinate_Test" ) );
+    Coordinate c = (Coordinate)RuntimeMethods.constructProxy( new Point( 3, 4 ), Coordinate.class );
+    assertEquals( 3d, c.getX() );
+    assertEquals( 4d, c.getY() );
+  }
+
+  public void testTooManyParametersFallsBackToSource()
+  {
+    Class<?>[] params = new Class<?>[127];
+    Arrays.fill( params, long.class );
+    assertTrue( ProxyClassWriter.fitsLocals( params ) );
+    params = Arrays.copyOf( params, 128 );
+    params[127] = int.class;
+    assertFalse( ProxyClassWriter.fitsLocals( params ) );
+  }
+}
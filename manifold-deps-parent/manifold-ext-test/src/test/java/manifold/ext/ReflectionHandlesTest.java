@@ -0,0 +1,98 @@
+package manifold.ext;
+
+import junit.framework.TestCase;
+
+/**
+ */
+public class ReflectionHandlesTest extends TestCase
+{
+  public void testInstanceField()
+  {
+    Fixture fixture = new Fixture();
+    assertEquals( "instance", ReflectionRuntimeMethods.getField_Object( fixture, "_instanceField" ) );
+    ReflectionRuntimeMethods.setField_Object( fixture, "_instanceField", "changed" );
+    assertEquals( "changed", fixture._instanceField );
+    assertEquals( "changed", ReflectionRuntimeMethods.getField_Object( fixture, "_instanceField" ) );
+  }
+
+  public void testStaticFieldThroughStaticAndInstanceAccess()
+  {
+    Fixture fixture = new Fixture();
+    // cache the static shape first, then access the same field on an instance, and vice versa
+    assertEquals( 1, ReflectionRuntimeMethods.getFieldStatic_Object( Fixture.class, "_staticField" ) );
+    assertEquals( 1, ReflectionRuntimeMethods.getField_Object( fixture, "_staticField" ) );
+
+    ReflectionRuntimeMethods.setField_Object( fixture, "_staticField", 2 );
+    assertEquals( 2, Fixture._staticField );
+    ReflectionRuntimeMethods.setFieldStatic_Object( Fixture.class, "_staticField", 3 );
+    assertEquals( 3, Fixture._staticField );
+    assertEquals( 3, ReflectionRuntimeMethods.getField_Object( fixture, "_staticField" ) );
+    assertEquals( 3, ReflectionRuntimeMethods.getFieldStatic_Object( Fixture.class, "_staticField" ) );
+  }
+
+  public void testFinalField()
+  {
+    Fixture fixture = new Fixture();
+    ReflectionRuntimeMethods.setField_Object( fixture, "_finalField", "set" );
+    assertEquals( "set", ReflectionRuntimeMethods.getField_Object( fixture, "_finalField" ) );
+  }
+
+  public void testOverloadedMethods()
+  {
+    Fixture fixture = new Fixture();
+    assertEquals( "int:1", ReflectionRuntimeMethods.invoke_Object( fixture, "over", new Class[]{int.class}, new Object[]{1} ) );
+    assertEquals( "String:a", ReflectionRuntimeMethods.invoke_Object( fixture, "over", new Class[]{String.class}, new Object[]{"a"} ) );
+    assertEquals( "none", ReflectionRuntimeMethods.invoke_Object( fixture, "over", new Class[0], new Object[0] ) );
+    assertEquals( "int:2", ReflectionRuntimeMethods.invoke_Object( fixture, "over", new Class[]{int.class}, new Object[]{2} ) );
+  }
+
+  public void testStaticMethodThroughStaticAndInstanceCall()
+  {
+    assertEquals( 5, ReflectionRuntimeMethods.invokeStatic_Object( Fixture.class, "sum", new Class[]{int.class, int.class}, new Object[]{2, 3} ) );
+    assertEquals( 7, ReflectionRuntimeMethods.invoke_Object( new Fixture(), "sum", new Class[]{int.class, int.class}, new Object[]{3, 4} ) );
+    assertEquals( 9, ReflectionRuntimeMethods.invokeStatic_Object( Fixture.class, "sum", new Class[]{int.class, int.class}, new Object[]{4, 5} ) );
+  }
+
+  public void testConstructor()
+  {
+    Fixture fixture = (Fixture)ReflectionRuntimeMethods.construct( Fixture.class, new Class[]{String.class}, new Object[]{"ctor"} );
+    assertEquals( "ctor", fixture._instanceField );
+  }
+
+  @SuppressWarnings( "unused" )
+  private static class Fixture
+  {
+    private static int _staticField = 1;
+    private String _instanceField = "instance";
+    private final String _finalField = new String( "final" );
+
+    private Fixture()
+    {
+    }
+
+    private Fixture( String value )
+    {
+      _instanceField = value;
+    }
+
+    private String over()
+    {
+      return "none";
+    }
+
+    private String over( int i )
+    {
+      return "int:" + i;
+    }
+
+    private String over( String s )
+    {
+      return "String:" + s;
+    }
+
+    private static int sum( int a, int b )
+    {
+      return a + b;
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package manifold.ext;
+
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import junit.framework.TestCase;
+import manifold.api.gen.AbstractSrcMethod;
+import manifold.api.gen.SrcAnnotationExpression;
+import manifold.api.gen.SrcClass;
+import manifold.api.gen.SrcMethod;
+import manifold.api.gen.SrcParameter;
+import manifold.api.gen.SrcType;
+import manifold.ext.api.This;
+
+/**
+ */
+public class SrcClassStubCacheTest extends TestCase
+{
+  public void testTypeVariablesAreErased()
+  {
+    SrcClass extended = new SrcClass( "abc.Box", SrcClass.Kind.Class );
+    extended.addTypeVar( new SrcType( "T" ) );
+    extended.addTypeVar( new SrcType( "N extends java.lang.Number" ) );
+    SrcMethod put = new SrcMethod( extended ).name( "put" ).addParam( "t", new SrcType( "T" ) );
+    SrcMethod add = new SrcMethod( extended ).name( "add" ).addParam( "n", new SrcType( "N[]" ) );
+    SrcMethod sort = new SrcMethod( extended ).name( "sort" ).addParam( "list", new SrcType( "java.util.List<T>" ) );
+    SrcMethod max = new SrcMethod( extended ).name( "max" ).addParam( "e", new SrcType( "E" ) );
+    max.addTypeVar( new SrcType( "E extends java.lang.Comparable<E>" ) );
+    extended.addMethod( put ).addMethod( add ).addMethod( sort ).addMethod( max );
+
+    assertEquals( "put(java.lang.Object)", SrcClassStubCache.signature( put, 0 ) );
+    assertEquals( "add(java.lang.Number[])", SrcClassStubCache.signature( add, 0 ) );
+    assertEquals( "sort(java.util.List)", SrcClassStubCache.signature( sort, 0 ) );
+    assertEquals( "max(java.lang.Comparable)", SrcClassStubCache.signature( max, 0 ) );
+
+    Map<String, AbstractSrcMethod> index = SrcClassStubCache.indexMethods( extended );
+    SrcClass extension = new SrcClass( "abc.extensions.abc.Box.MyBoxExt", SrcClass.Kind.Class );
+    assertSame( put, index.get( SrcClassStubCache.signature( extensionMethod( extension, "put", "java.lang.Object" ), 1 ) ) );
+    assertSame( add, index.get( SrcClassStubCache.signature( extensionMethod( extension, "add", "java.lang.Number[]" ), 1 ) ) );
+    assertSame( sort, index.get( SrcClassStubCache.signature( extensionMethod( extension, "sort", "java.util.List<?>" ), 1 ) ) );
+    SrcMethod putExt = extensionMethod( extension, "put", "X" );
+    putExt.addTypeVar( new SrcType( "X" ) );
+    assertSame( put, index.get( SrcClassStubCache.signature( putExt, 1 ) ) );
+    assertNull( index.get( SrcClassStubCache.signature( extensionMethod( extension, "put", "java.lang.String" ), 1 ) ) );
+    assertNull( index.get( SrcClassStubCache.signature( extensionMethod( extension, "max", "java.lang.Object" ), 1 ) ) );
+  }
+
+  public void testMethodTypeVariableHidesClassTypeVariable()
+  {
+    SrcClass extended = new SrcClass( "abc.Box", SrcClass.Kind.Class );
+    extended.addTypeVar( new SrcType( "T extends java.lang.CharSequence" ) );
+    SrcMethod m = new SrcMethod( extended ).name( "m" ).addParam( "t", new SrcType( "T" ) );
+    m.addTypeVar( new SrcType( "T" ) );
+    assertEquals( "m(java.lang.Object)", SrcClassStubCache.signature( m, 0 ) );
+  }
+
+  private static SrcMethod extensionMethod( SrcClass extension, String name, String paramType )
+  {
+    SrcMethod method = new SrcMethod( extension ).name( name ).modifiers( Modifier.PUBLIC | Modifier.STATIC );
+    method.addParam( new SrcParameter( "thiz", new SrcType( "abc.Box" ) )
+                       .addAnnotation( new SrcAnnotationExpression( This.class ) ) );
+    method.addParam( "p", new SrcType( paramType ) );
+    return method;
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import manifold.util.concurrent.ConcurrentWeakHashMap;
+
+/**
+ * Maps classes to values for call sites that almost always see the same one or two classes.  The first few classes
+ * are kept in a small array compared by identity, an inline cache of sorts.  Past {@link #POLYMORPHIC_LIMIT} classes
+ * the cache is megamorphic and the rest go to a hash map.  Classes are referenced weakly.
+ * <p/>
+ * Values are made outside the cache, making one may involve the same cache, so {@link #add} answers the value of
+ * whichever thread got there first.
+ */
+final class ClassKeyedCache<V>
+{
+  static final int POLYMORPHIC_LIMIT = 4;
+
+  private volatile Entry<V>[] _entries;
+  private volatile ConcurrentWeakHashMap<Class<?>, V> _megamorphic;
+
+  @SuppressWarnings( "unchecked" )
+  ClassKeyedCache()
+  {
+    _entries = new Entry[0];
+  }
+
+  /**
+   * @return The value cached for {@code cls}, or null if none
+   */
+  V get( Class<?> cls )
+  {
+    Entry<V>[] entries = _entries;
+    //noinspection ForLoopReplaceableByForEach
+    for( int i = 0; i < entries.length; i++ )
+    {
+      Entry<V> entry = entries[i];
+      if( entry.cls.get() == cls )
+      {
+        return entry.value;
+      }
+    }
+
+    ConcurrentWeakHashMap<Class<?>, V> megamorphic = _megamorphic;
+    return megamorphic == null ? null : megamorphic.get( cls );
+  }
+
+  /**
+   * @return The value cached for {@code cls}, which is {@code value} unless another thread got there first
+   */
+  synchronized V add( Class<?> cls, V value )
+  {
+    if( _megamorphic != null )
+    {
+      V existing = _megamorphic.putIfAbsent( cls, value );
+      return existing == null ? value : existing;
+    }
+
+    Entry<V>[] entries = _entries;
+    for( Entry<V> entry: entries )
+    {
+      if( entry.cls.get() == cls )
+      {
+        return entry.value;
+      }
+    }
+    if( entries.length < POLYMORPHIC_LIMIT )
+    {
+      entries = Arrays.copyOf( entries, entries.length + 1 );
+      entries[entries.length - 1] = new Entry<>( cls, value );
+      _entries = entries;
+    }
+    else
+    {
+      // megamorphic, the existing entries stay inline, the rest go to the map
+      ConcurrentWeakHashMap<Class<?>, V> megamorphic = new ConcurrentWeakHashMap<>();
+      megamorphic.put( cls, value );
+      _megamorphic = megamorphic;
+    }
+    return value;
+  }
+
+  boolean isMegamorphic()
+  {
+    return _megamorphic != null;
+  }
+
+  private static class Entry<V>
+  {
+    final WeakReference<Class<?>> cls;
+    final V value;
+
+    Entry( Class<?> cls, V value )
+    {
+      this.cls = new WeakReference<>( cls );
+      this.value = value;
+    }
+  }
+}
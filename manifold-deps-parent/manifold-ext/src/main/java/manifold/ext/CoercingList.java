@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * A view of a list of JSON values coercing elements to the list's component type on access, see
+ * {@link RuntimeMethods#coerce(Object, Class)}.  Getters for List properties return this view instead of a coerced
+ * copy, so repeatedly calling a getter doesn't copy the list every time.  Changes write through to the backing list as
+ * binding values.
+ */
+class CoercingList extends AbstractList<Object> implements RandomAccess
+{
+  private final List<Object> _list;
+  private final Class<?> _type;
+
+  CoercingList( List<Object> list, Class<?> type )
+  {
+    _list = list;
+    _type = type;
+  }
+
+  List<Object> getList()
+  {
+    return _list;
+  }
+
+  Class<?> getType()
+  {
+    return _type;
+  }
+
+  @Override
+  public Object get( int index )
+  {
+    return RuntimeMethods.coerce( _list.get( index ), _type );
+  }
+
+  @Override
+  public int size()
+  {
+    return _list.size();
+  }
+
+  @Override
+  public Object set( int index, Object element )
+  {
+    return RuntimeMethods.coerce( _list.set( index, RuntimeMethods.coerceToBindingValue( element ) ), _type );
+  }
+
+  @Override
+  public void add( int index, Object element )
+  {
+    _list.add( index, RuntimeMethods.coerceToBindingValue( element ) );
+  }
+
+  @Override
+  public Object remove( int index )
+  {
+    return RuntimeMethods.coerce( _list.remove( index ), _type );
+  }
+
+  @Override
+  public void clear()
+  {
+    _list.clear();
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Caches coercion plans per target type.  A plan is the coercion {@link RuntimeMethods#coerce(Object, Class)} resolves
+ * for values of a given class, so the chain of type checks and coercion providers runs once per value class as
+ * opposed to once per call.  A given property almost always sees the same value class, see {@link ClassKeyedCache}.
+ * The target type owns its plans via {@link ClassValue}.
+ */
+final class CoercionPlans
+{
+  private static final ClassValue<CoercionPlans> PLANS = new ClassValue<CoercionPlans>()
+  {
+    @Override
+    protected CoercionPlans computeValue( Class<?> type )
+    {
+      return new CoercionPlans( type );
+    }
+  };
+
+  private final Class<?> _type;
+  private final ClassKeyedCache<Function<Object, Object>> _plans;
+
+  static CoercionPlans of( Class<?> type )
+  {
+    return PLANS.get( type );
+  }
+
+  CoercionPlans( Class<?> type )
+  {
+    _type = type;
+    _plans = new ClassKeyedCache<>();
+  }
+
+  Function<Object, Object> getPlan( Class<?> valueClass,
+                                    BiFunction<Class<?>, Class<?>, Function<Object, Object>> maker )
+  {
+    Function<Object, Object> plan = _plans.get( valueClass );
+    if( plan == null )
+    {
+      plan = _plans.add( valueClass, maker.apply( valueClass, _type ) );
+    }
+    return plan;
+  }
+}
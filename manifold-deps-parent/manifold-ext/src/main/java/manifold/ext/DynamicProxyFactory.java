@@ -87,6 +87,12 @@ class DynamicProxyFactory implements IProxyFactory
       return true;
     }
 
+    if( Map.class.isAssignableFrom( rootClass ) )
+    {
+      // MapStructExt satisfies ICallHandler, no need to consult javac
+      return true;
+    }
+
     // maybe has an extension satisfying ICallHandler
     return hasCallHandlerFromExtension( rootClass );
   }
@@ -18,10 +18,14 @@ package manifold.ext;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 import manifold.api.type.ActualName;
 import manifold.ext.api.AbstractDynamicTypeProxy;
 import manifold.ext.api.ICallHandler;
+import manifold.ext.extensions.java.util.Map.MapStructExt;
 import manifold.internal.runtime.protocols.ManClassesUrlConnection;
 
 /**
@@ -43,7 +47,15 @@ class DynamicTypeProxyGenerator
   {
     DynamicTypeProxyGenerator gen = new DynamicTypeProxyGenerator();
     String fqnProxy = getNamespace( iface ) + '.' + name;
-    ManClassesUrlConnection.putProxySupplier( fqnProxy, () -> gen.generateProxy( iface, rootClass, name ).toString() );
+    byte[] bytecode = ProxyClassWriter.ENABLED ? gen.generateBytecode( iface, rootClass, fqnProxy ) : null;
+    if( bytecode != null )
+    {
+      ManClassesUrlConnection.putBytecodeSupplier( fqnProxy, () -> bytecode );
+    }
+    else
+    {
+      ManClassesUrlConnection.putProxySupplier( fqnProxy, () -> gen.generateProxy( iface, rootClass, name ).toString() );
+    }
     try
     {
       return Class.forName( fqnProxy, false, iface.getClassLoader() );
@@ -78,6 +90,126 @@ class DynamicTypeProxyGenerator
       .append( "}" );
   }
 
+  /**
+   * Generates the proxy class as bytecode, bypassing javac.  Handles root classes implementing {@link ICallHandler}
+   * nominally or structurally, and maps via {@link MapStructExt}, otherwise returns null and the proxy is compiled
+   * from source.
+   */
+  private byte[] generateBytecode( Class<?> ifaceType, Class<?> rootClass, String fqnProxy )
+  {
+    if( !ProxyClassWriter.isAccessible( ifaceType ) || !ProxyClassWriter.isAccessible( rootClass ) )
+    {
+      return null;
+    }
+    Method callMethod = findCallMethod( rootClass );
+    if( callMethod == null )
+    {
+      return null;
+    }
+
+    String owner = fqnProxy.replace( '.', '/' );
+    ProxyClassWriter writer = new ProxyClassWriter( fqnProxy, AbstractDynamicTypeProxy.class, ifaceType );
+    writer.addField( ProxyClassWriter.ACC_PRIVATE | ProxyClassWriter.ACC_FINAL, "_root", rootClass );
+    writer.addMethod( ProxyClassWriter.ACC_PUBLIC, "<init>", void.class, rootClass )
+      .loadThis().loadParam( 0, rootClass ).invokeSpecial( AbstractDynamicTypeProxy.class, "<init>", void.class, Object.class )
+      .loadThis().loadParam( 0, rootClass ).putField( owner, "_root", rootClass )
+      .returnValue( void.class );
+
+    Set<String> signatures = new HashSet<>();
+    for( Method mi : ifaceType.getMethods() )
+    {
+      if( mi.isDefault() || Modifier.isStatic( mi.getModifiers() ) ||
+          mi.getAnnotation( ExtensionMethod.class ) != null || StructuralTypeProxyGenerator.isObjectMethod( mi ) )
+      {
+        continue;
+      }
+
+      Class<?> returnType = mi.getReturnType();
+      Class<?>[] params = mi.getParameterTypes();
+      if( !ProxyClassWriter.isAccessible( returnType ) ||
+          Arrays.stream( params ).anyMatch( p -> !ProxyClassWriter.isAccessible( p ) ) ||
+          !ProxyClassWriter.fitsLocals( params ) ||
+          !signatures.add( mi.getName() + ProxyClassWriter.methodDescriptor( void.class, params ) ) )
+      {
+        return null;
+      }
+
+      ActualName anno = mi.getAnnotation( ActualName.class );
+      ProxyClassWriter.Code code = writer.addMethod( ProxyClassWriter.ACC_PUBLIC, mi.getName(), returnType, params )
+        .loadThis().getField( owner, "_root", rootClass )
+        .loadClass( ifaceType )
+        .loadString( mi.getName() )
+        .loadString( anno == null ? null : anno.value() )
+        .loadClass( returnType )
+        .loadInt( params.length ).newArray( Class.class );
+      for( int i = 0; i < params.length; i++ )
+      {
+        code.dup().loadInt( i ).loadClass( params[i] ).storeElement();
+      }
+      code.loadInt( params.length ).newArray( Object.class );
+      for( int i = 0; i < params.length; i++ )
+      {
+        code.dup().loadInt( i ).loadParam( i, params[i] );
+        if( params[i].isPrimitive() )
+        {
+          code.boxValue( params[i] );
+        }
+        code.storeElement();
+      }
+
+      if( Modifier.isStatic( callMethod.getModifiers() ) )
+      {
+        code.invokeStatic( callMethod.getDeclaringClass(), callMethod.getName(), callMethod.getReturnType(), callMethod.getParameterTypes() );
+      }
+      else
+      {
+        code.invoke( rootClass, callMethod );
+      }
+      if( returnType == void.class )
+      {
+        code.pop( callMethod.getReturnType() );
+      }
+      else
+      {
+        code.loadClass( returnType )
+          .invokeStatic( RuntimeMethods.class, "coerce", Object.class, Object.class, Class.class )
+          .castObject( returnType );
+      }
+      code.returnValue( returnType );
+    }
+    return writer.toByteArray();
+  }
+
+  /**
+   * Finds the {@code call()} method javac would bind to {@code _root.call(...)}, an instance method takes precedence
+   * over an extension method
+   */
+  private static Method findCallMethod( Class<?> rootClass )
+  {
+    Class[] paramTypes = {Class.class, String.class, String.class, Class.class, Class[].class, Object[].class};
+    try
+    {
+      Method callMethod = rootClass.getMethod( "call", paramTypes );
+      return Modifier.isStatic( callMethod.getModifiers() ) || callMethod.getReturnType() != Object.class
+             ? null
+             : callMethod;
+    }
+    catch( NoSuchMethodException ignore )
+    {
+    }
+    if( Map.class.isAssignableFrom( rootClass ) )
+    {
+      try
+      {
+        return MapStructExt.class.getMethod( "call", Map.class, Class.class, String.class, String.class, Class.class, Class[].class, Object[].class );
+      }
+      catch( NoSuchMethodException ignore )
+      {
+      }
+    }
+    return null;
+  }
+
   private static String getNamespace( Class ifaceType )
   {
     String nspace = ifaceType.getPackage().getName();
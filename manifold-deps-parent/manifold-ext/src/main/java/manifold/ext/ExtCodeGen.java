@@ -27,6 +27,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.tools.Diagnostic;
 import javax.tools.DiagnosticListener;
@@ -61,6 +62,7 @@ class ExtCodeGen
   private final Model _model;
   private final String _fqn;
   private String _existingSource;
+  private Map<String, AbstractSrcMethod> _extendedSignatures;
 
   ExtCodeGen( JavaFileManager.Location location, Model model, String topLevelFqn, String existingSource )
   {
@@ -75,6 +77,11 @@ class ExtCodeGen
     return _model.getTypeManifold().getModule();
   }
 
+  private SrcClassStubCache getStubCache()
+  {
+    return _model.getTypeManifold().getStubCache();
+  }
+
   String make( DiagnosticListener<JavaFileObject> errorHandler )
   {
     SrcClass srcExtended;
@@ -120,7 +127,7 @@ class ExtCodeGen
       {
         //## todo: if fqn (the extension class) is source file, delegate the call to makeSrcClassStub() to the host somehow
         //## todo: so that IJ can use it's virtual file, otherwise this uses the file on disk, which does not have local changes
-        SrcClass srcExtension = ClassSymbols.instance( getModule() ).makeSrcClassStub( extensionFqn, null ); // _location );
+        SrcClass srcExtension = getStubCache().getStub( extensionFqn ); // _location );
         if( srcExtension != null )
         {
           for( AbstractSrcMethod method : srcExtension.getMethods() )
@@ -300,6 +307,8 @@ class ExtCodeGen
       return;
     }
 
+//## todo: SrcClassStubCache now stubs each supertype once per compilation, but enabling the check also drops extension
+//## todo: methods that collide with (default) methods of the extended type, which is a behavior change of its own.
 //## todo: This is disabled because it involves calls to ClassSymbols#getClassSymbol() where another javac compiler task
 //## todo: is spawned which can lead to perf problems because the same graph of types is recompiled over and over.
 //## todo: Instead find a different way to get the type information e.g., ASM, dumb AST trees, etc.
@@ -393,6 +402,10 @@ class ExtCodeGen
     }
 
     extendedType.addMethod( srcMethod );
+    if( _extendedSignatures != null )
+    {
+      _extendedSignatures.putIfAbsent( SrcClassStubCache.signature( srcMethod, 0 ), srcMethod );
+    }
   }
 
   private void delegateCall( AbstractSrcMethod method, boolean isInstanceExtensionMethod, SrcMethod srcMethod )
@@ -458,51 +471,57 @@ class ExtCodeGen
 
   private AbstractSrcMethod findMethod( AbstractSrcMethod method, SrcClass extendedType )
   {
+    if( _extendedSignatures == null )
+    {
+      // the extended class is not cached because extension methods are added to it, the index tracks the additions
+      _extendedSignatures = SrcClassStubCache.indexMethods( extendedType );
+    }
+    String signature = SrcClassStubCache.signature( method, isInstanceExtensionMethod( method, extendedType ) ? 1 : 0 );
+    AbstractSrcMethod duplicate = _extendedSignatures.get( signature );
+    if( duplicate == null )
+    {
+      duplicate = findInheritedMethod( signature, extendedType );
+    }
+    return duplicate;
+  }
+
+  private AbstractSrcMethod findInheritedMethod( String signature, SrcClass srcClass )
+  {
+    SrcClassStubCache stubCache = getStubCache();
     AbstractSrcMethod duplicate = null;
-    outer:
-    for( AbstractSrcMethod m: extendedType.getMethods() )
+    if( !srcClass.isInterface() )
     {
-      if( m.getSimpleName().equals( method.getSimpleName() ) && m.getParameters().size() == method.getParameters().size()-1 )
+      SrcType superClass = srcClass.getSuperClass();
+      if( superClass != null && superClass.getName().equals( Object.class.getName() ) )
       {
-        List parameters = method.getParameters();
-        List params = m.getParameters();
-        for( int i = 1; i < parameters.size(); i++ )
-        {
-          SrcParameter param = (SrcParameter)parameters.get( i );
-          SrcParameter p = (SrcParameter)params.get( i-1 );
-          if( !param.getType().equals( p.getType() ) )
-          {
-            continue outer;
-          }
-        }
-        duplicate = m;
-        break;
+        duplicate = findMethod( signature, superClass.getName(), stubCache );
       }
     }
     if( duplicate == null )
     {
-      if( !extendedType.isInterface() )
+      //## note: we are checking interfaces even for a non-abstract class because it could be
+      //## inheriting default interface methods, which must not be shadowed by an extension.
+      for( SrcType iface: srcClass.getInterfaces() )
       {
-        SrcType superClass = extendedType.getSuperClass();
-        if( superClass != null && superClass.getName().equals( Object.class.getName() ) )
+        duplicate = findMethod( signature, iface.getName(), stubCache );
+        if( duplicate != null )
         {
-          SrcClass superSrcClass = ClassSymbols.instance( getModule() ).makeSrcClassStub( superClass.getName(), null );
-          duplicate = findMethod( method, superSrcClass );
+          break;
         }
       }
-      if( duplicate == null )
+    }
+    return duplicate;
+  }
+
+  private AbstractSrcMethod findMethod( String signature, String fqn, SrcClassStubCache stubCache )
+  {
+    AbstractSrcMethod duplicate = stubCache.findDeclaredMethod( fqn, signature );
+    if( duplicate == null )
+    {
+      SrcClass stub = stubCache.getStub( fqn );
+      if( stub != null )
       {
-        //## note: we are checking interfaces even for a non-abstract class because it could be
-        //## inheriting default interface methods, which must not be shadowed by an extension.
-        for( SrcType iface: extendedType.getInterfaces() )
-        {
-          SrcClass superIface = ClassSymbols.instance( getModule() ).makeSrcClassStub( iface.getName(), null );
-          duplicate = findMethod( method, superIface );
-          if( duplicate != null )
-          {
-            break;
-          }
-        }
+        duplicate = findInheritedMethod( signature, stub );
       }
     }
     return duplicate;
@@ -52,9 +52,17 @@ public class ExtensionManifold extends JavaTypeManifold<Model> implements ITypeP
   public static final String EXTENSIONS_PACKAGE = "extensions";
   private static final Set<String> FILE_EXTENSIONS = new HashSet<>( Arrays.asList( "java", "class" ) );
 
+  private SrcClassStubCache _stubCache;
+
   public void init( IModule module )
   {
     init( module, ( fqn, files ) -> new Model( fqn, files, this ) );
+    _stubCache = new SrcClassStubCache( module );
+  }
+
+  SrcClassStubCache getStubCache()
+  {
+    return _stubCache;
   }
 
   @Override
@@ -254,6 +262,13 @@ public class ExtensionManifold extends JavaTypeManifold<Model> implements ITypeP
 
   private class ExtensionCacheHandler extends CacheClearer
   {
+    @Override
+    public void refreshed()
+    {
+      super.refreshed();
+      _stubCache.clear();
+    }
+
     @Override
     public void refreshedTypes( RefreshRequest request )
     {
@@ -263,6 +278,9 @@ public class ExtensionManifold extends JavaTypeManifold<Model> implements ITypeP
         return;
       }
 
+      // stubs may reflect any changed type, e.g., an extension class or a supertype of an extended class
+      _stubCache.clear();
+
       super.refreshedTypes( request );
 
       if( request.file == null )
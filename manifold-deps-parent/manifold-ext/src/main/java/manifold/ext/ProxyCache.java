@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import manifold.ext.api.IProxyFactory;
+
+/**
+ * Caches the {@link IProxyFactory} for each root class cast to a structural interface.  Most structural casts see only
+ * one or two root classes, see {@link ClassKeyedCache}.
+ * <p/>
+ * Proxies are not reused by default, a structural cast creates a new proxy.  Set the {@code manifold.proxy.reuse}
+ * system property to {@code true} to preserve proxy identity: while a proxy is reachable, casting the same root object
+ * to the same interface answers the same proxy.
+ */
+final class ProxyCache
+{
+  private static final boolean REUSE = Boolean.getBoolean( "manifold.proxy.reuse" );
+
+  private static final ClassValue<ProxyCache> CACHES = new ClassValue<ProxyCache>()
+  {
+    @Override
+    protected ProxyCache computeValue( Class<?> iface )
+    {
+      return new ProxyCache( REUSE );
+    }
+  };
+
+  private final boolean _reuse;
+  private final ClassKeyedCache<IProxyFactory> _factories;
+  private volatile ProxyMap _proxies;
+
+  static ProxyCache of( Class<?> iface )
+  {
+    return CACHES.get( iface );
+  }
+
+  ProxyCache( boolean reuse )
+  {
+    _reuse = reuse;
+    _factories = new ClassKeyedCache<>();
+  }
+
+  IProxyFactory getFactory( Class rootClass, Function<Class, IProxyFactory> maker )
+  {
+    IProxyFactory factory = _factories.get( rootClass );
+    if( factory == null )
+    {
+      // make the factory outside any lock, making a proxy can involve making other proxies
+      factory = _factories.add( rootClass, maker.apply( rootClass ) );
+    }
+    return factory;
+  }
+
+  Object getProxy( Object root, Function<Object, Object> maker )
+  {
+    if( !_reuse )
+    {
+      return maker.apply( root );
+    }
+
+    ProxyMap proxies = _proxies;
+    if( proxies == null )
+    {
+      synchronized( this )
+      {
+        proxies = _proxies;
+        if( proxies == null )
+        {
+          _proxies = proxies = new ProxyMap();
+        }
+      }
+    }
+    return proxies.get( root, maker );
+  }
+
+  boolean isMegamorphic()
+  {
+    return _factories.isMegamorphic();
+  }
+
+  /**
+   * Maps root objects by identity to their proxies, both weakly.  Root objects are often Bindings, which define value
+   * equality, so a weak map keyed by {@code equals()} won't do.
+   */
+  private static class ProxyMap
+  {
+    private final ConcurrentHashMap<IdentityKey, WeakReference<Object>> _map = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> _queue = new ReferenceQueue<>();
+
+    Object get( Object root, Function<Object, Object> maker )
+    {
+      expunge();
+
+      IdentityKey lookup = new IdentityKey( root, null );
+      WeakReference<Object> ref = _map.get( lookup );
+      Object proxy = ref == null ? null : ref.get();
+      if( proxy != null )
+      {
+        return proxy;
+      }
+
+      // make the proxy outside the map's lock, if another thread got there first its proxy wins
+      Object made = maker.apply( root );
+      Object[] winner = {made};
+      _map.compute( new IdentityKey( root, _queue ), ( key, existing ) -> {
+        Object existingProxy = existing == null ? null : existing.get();
+        if( existingProxy != null )
+        {
+          winner[0] = existingProxy;
+          return existing;
+        }
+        return new WeakReference<>( made );
+      } );
+      return winner[0];
+    }
+
+    private void expunge()
+    {
+      for( Reference<?> ref = _queue.poll(); ref != null; ref = _queue.poll() )
+      {
+        //noinspection SuspiciousMethodCalls
+        _map.remove( ref );
+      }
+    }
+  }
+
+  private static class IdentityKey extends WeakReference<Object>
+  {
+    private final int _hash;
+
+    IdentityKey( Object referent, ReferenceQueue<Object> queue )
+    {
+      super( referent, queue );
+      _hash = System.identityHashCode( referent );
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return _hash;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+      if( this == o )
+      {
+        return true;
+      }
+      if( !(o instanceof IdentityKey) )
+      {
+        return false;
+      }
+      Object referent = get();
+      return referent != null && referent == ((IdentityKey)o).get();
+    }
+  }
+}
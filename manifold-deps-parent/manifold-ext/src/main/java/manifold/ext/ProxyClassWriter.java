@@ -0,0 +1,658 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import manifold.util.ManExceptionUtil;
+
+/**
+ * A minimal class file writer for structural proxies, so the proxy generators can produce bytecode directly instead of
+ * compiling Java source with javac.  Supports only what proxies need: fields, straight-line methods, and a handful of
+ * instructions.  Since the code never branches, the class file needs no stack map frames.
+ * <p/>
+ * Enabled by default, set the {@code manifold.proxy.bytecode} system property to {@code false} to always compile proxies
+ * from source.
+ */
+class ProxyClassWriter
+{
+  static final boolean ENABLED = !"false".equalsIgnoreCase( System.getProperty( "manifold.proxy.bytecode" ) );
+
+  static final int ACC_PUBLIC = 0x0001;
+  static final int ACC_PRIVATE = 0x0002;
+  static final int ACC_FINAL = 0x0010;
+  static final int ACC_SUPER = 0x0020;
+
+  private static final int JAVA_8 = 52;
+
+  private static final int CONSTANT_Utf8 = 1;
+  private static final int CONSTANT_Class = 7;
+  private static final int CONSTANT_String = 8;
+  private static final int CONSTANT_Fieldref = 9;
+  private static final int CONSTANT_Methodref = 10;
+  private static final int CONSTANT_InterfaceMethodref = 11;
+  private static final int CONSTANT_NameAndType = 12;
+
+  private final ByteArrayOutputStream _poolBytes = new ByteArrayOutputStream();
+  private final DataOutputStream _pool = new DataOutputStream( _poolBytes );
+  private final Map<String, Integer> _poolIndex = new HashMap<>();
+  private int _poolCount = 1;
+
+  private final int _thisClass;
+  private final int _superClass;
+  private final int[] _interfaces;
+  private final List<byte[]> _fields = new ArrayList<>();
+  private final List<byte[]> _methods = new ArrayList<>();
+
+  ProxyClassWriter( String name, Class<?> superClass, Class<?>... interfaces )
+  {
+    _thisClass = classRef( name.replace( '.', '/' ) );
+    _superClass = classRef( internalName( superClass ) );
+    _interfaces = new int[interfaces.length];
+    for( int i = 0; i < interfaces.length; i++ )
+    {
+      _interfaces[i] = classRef( internalName( interfaces[i] ) );
+    }
+  }
+
+  void addField( int access, String name, Class<?> type )
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try( DataOutputStream out = new DataOutputStream( bytes ) )
+    {
+      out.writeShort( access );
+      out.writeShort( utf8( name ) );
+      out.writeShort( utf8( descriptor( type ) ) );
+      out.writeShort( 0 );
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+    _fields.add( bytes.toByteArray() );
+  }
+
+  Code addMethod( int access, String name, Class<?> returnType, Class<?>... paramTypes )
+  {
+    return new Code( access, name, methodDescriptor( returnType, paramTypes ), paramTypes );
+  }
+
+  byte[] toByteArray()
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try( DataOutputStream out = new DataOutputStream( bytes ) )
+    {
+      out.writeInt( 0xCAFEBABE );
+      out.writeShort( 0 );
+      out.writeShort( JAVA_8 );
+      out.writeShort( _poolCount );
+      _pool.flush();
+      _poolBytes.writeTo( out );
+      out.writeShort( ACC_PUBLIC | ACC_SUPER );
+      out.writeShort( _thisClass );
+      out.writeShort( _superClass );
+      out.writeShort( _interfaces.length );
+      for( int iface: _interfaces )
+      {
+        out.writeShort( iface );
+      }
+      writeMembers( out, _fields );
+      writeMembers( out, _methods );
+      out.writeShort( 0 ); // attributes
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+    return bytes.toByteArray();
+  }
+
+  private void writeMembers( DataOutputStream out, List<byte[]> members ) throws IOException
+  {
+    out.writeShort( members.size() );
+    for( byte[] member: members )
+    {
+      out.write( member );
+    }
+  }
+
+  /**
+   * @return True if a proxy class defined in a loader other than {@code type}'s can reference it
+   */
+  static boolean isAccessible( Class<?> type )
+  {
+    while( type.isArray() )
+    {
+      type = type.getComponentType();
+    }
+    for( Class<?> t = type; t != null; t = t.getEnclosingClass() )
+    {
+      if( !t.isPrimitive() && !Modifier.isPublic( t.getModifiers() ) )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static String internalName( Class<?> type )
+  {
+    return type.getName().replace( '.', '/' );
+  }
+
+  static String descriptor( Class<?> type )
+  {
+    if( type.isPrimitive() )
+    {
+      if( type == void.class )
+      {
+        return "V";
+      }
+      if( type == boolean.class )
+      {
+        return "Z";
+      }
+      if( type == byte.class )
+      {
+        return "B";
+      }
+      if( type == char.class )
+      {
+        return "C";
+      }
+      if( type == short.class )
+      {
+        return "S";
+      }
+      if( type == int.class )
+      {
+        return "I";
+      }
+      if( type == long.class )
+      {
+        return "J";
+      }
+      if( type == float.class )
+      {
+        return "F";
+      }
+      return "D";
+    }
+    if( type.isArray() )
+    {
+      return internalName( type );
+    }
+    return 'L' + internalName( type ) + ';';
+  }
+
+  static String methodDescriptor( Class<?> returnType, Class<?>... paramTypes )
+  {
+    StringBuilder sb = new StringBuilder( "(" );
+    for( Class<?> paramType: paramTypes )
+    {
+      sb.append( descriptor( paramType ) );
+    }
+    return sb.append( ')' ).append( descriptor( returnType ) ).toString();
+  }
+
+  /**
+   * @return True if a method having {@code paramTypes} addresses its parameters without wide instructions, which are
+   * not supported
+   */
+  static boolean fitsLocals( Class<?>... paramTypes )
+  {
+    int slot = 1;
+    for( Class<?> paramType: paramTypes )
+    {
+      slot += slots( paramType );
+    }
+    return slot <= 255;
+  }
+
+  private static int slots( Class<?> type )
+  {
+    return type == void.class ? 0 : type == long.class || type == double.class ? 2 : 1;
+  }
+
+  private int utf8( String value )
+  {
+    return constant( "U" + value, out -> {
+      out.writeByte( CONSTANT_Utf8 );
+      out.writeUTF( value );
+    } );
+  }
+
+  private int classRef( String internalName )
+  {
+    int name = utf8( internalName );
+    return constant( "C" + internalName, out -> {
+      out.writeByte( CONSTANT_Class );
+      out.writeShort( name );
+    } );
+  }
+
+  private int string( String value )
+  {
+    int utf8 = utf8( value );
+    return constant( "S" + value, out -> {
+      out.writeByte( CONSTANT_String );
+      out.writeShort( utf8 );
+    } );
+  }
+
+  private int memberRef( int tag, String owner, String name, String descriptor )
+  {
+    int ownerIndex = classRef( owner );
+    int nameIndex = utf8( name );
+    int descIndex = utf8( descriptor );
+    int nameAndType = constant( "N" + name + ' ' + descriptor, out -> {
+      out.writeByte( CONSTANT_NameAndType );
+      out.writeShort( nameIndex );
+      out.writeShort( descIndex );
+    } );
+    return constant( tag + owner + '.' + name + descriptor, out -> {
+      out.writeByte( tag );
+      out.writeShort( ownerIndex );
+      out.writeShort( nameAndType );
+    } );
+  }
+
+  private int constant( String key, PoolEntry entry )
+  {
+    Integer index = _poolIndex.get( key );
+    if( index == null )
+    {
+      try
+      {
+        entry.write( _pool );
+      }
+      catch( IOException e )
+      {
+        throw ManExceptionUtil.unchecked( e );
+      }
+      _poolIndex.put( key, index = _poolCount++ );
+    }
+    return index;
+  }
+
+  private interface PoolEntry
+  {
+    void write( DataOutputStream out ) throws IOException;
+  }
+
+  /**
+   * Emits the straight-line code of a method, tracking the operand stack depth.
+   */
+  class Code
+  {
+    private final int _access;
+    private final int _name;
+    private final int _descriptor;
+    private final ByteArrayOutputStream _bytes = new ByteArrayOutputStream();
+    private final int[] _paramSlots;
+    private int _maxLocals;
+    private int _stack;
+    private int _maxStack;
+
+    private Code( int access, String name, String descriptor, Class<?>[] paramTypes )
+    {
+      _access = access;
+      _name = utf8( name );
+      _descriptor = utf8( descriptor );
+      _paramSlots = new int[paramTypes.length];
+      int slot = 1;
+      for( int i = 0; i < paramTypes.length; i++ )
+      {
+        _paramSlots[i] = slot;
+        slot += slots( paramTypes[i] );
+      }
+      _maxLocals = slot;
+      if( !fitsLocals( paramTypes ) )
+      {
+        // callers check fitsLocals() and generate the class from source instead
+        throw new IllegalStateException( "Too many parameters" );
+      }
+    }
+
+    Code loadThis()
+    {
+      return op( 0x2a, 1 ); // aload_0
+    }
+
+    Code loadParam( int index, Class<?> type )
+    {
+      int opcode;
+      if( !type.isPrimitive() )
+      {
+        opcode = 0x19; // aload
+      }
+      else if( type == long.class )
+      {
+        opcode = 0x16; // lload
+      }
+      else if( type == float.class )
+      {
+        opcode = 0x17; // fload
+      }
+      else if( type == double.class )
+      {
+        opcode = 0x18; // dload
+      }
+      else
+      {
+        opcode = 0x15; // iload
+      }
+      op( opcode, slots( type ) );
+      _bytes.write( _paramSlots[index] );
+      return this;
+    }
+
+    Code getField( String owner, String name, Class<?> type )
+    {
+      return memberOp( 0xb4, CONSTANT_Fieldref, owner, name, descriptor( type ), slots( type ) - 1 );
+    }
+
+    Code putField( String owner, String name, Class<?> type )
+    {
+      return memberOp( 0xb5, CONSTANT_Fieldref, owner, name, descriptor( type ), -1 - slots( type ) );
+    }
+
+    Code getStatic( Class<?> owner, String name, Class<?> type )
+    {
+      return memberOp( 0xb2, CONSTANT_Fieldref, internalName( owner ), name, descriptor( type ), slots( type ) );
+    }
+
+    Code invokeSpecial( Class<?> owner, String name, Class<?> returnType, Class<?>... paramTypes )
+    {
+      return invoke( 0xb7, CONSTANT_Methodref, owner, name, returnType, paramTypes, true );
+    }
+
+    Code invokeVirtual( Class<?> owner, String name, Class<?> returnType, Class<?>... paramTypes )
+    {
+      return invoke( 0xb6, CONSTANT_Methodref, owner, name, returnType, paramTypes, true );
+    }
+
+    Code invokeStatic( Class<?> owner, String name, Class<?> returnType, Class<?>... paramTypes )
+    {
+      return invoke( 0xb8, CONSTANT_Methodref, owner, name, returnType, paramTypes, false );
+    }
+
+    Code invokeInterface( Class<?> owner, String name, Class<?> returnType, Class<?>... paramTypes )
+    {
+      invoke( 0xb9, CONSTANT_InterfaceMethodref, owner, name, returnType, paramTypes, true );
+      int count = 1;
+      for( Class<?> paramType: paramTypes )
+      {
+        count += slots( paramType );
+      }
+      _bytes.write( count );
+      _bytes.write( 0 );
+      return this;
+    }
+
+    /**
+     * Invokes instance {@code method} on a receiver of {@code receiverType}, which qualifies the method reference as
+     * javac would, since the method's declaring class may not be accessible
+     */
+    Code invoke( Class<?> receiverType, Method method )
+    {
+      if( receiverType.isInterface() )
+      {
+        return invokeInterface( receiverType, method.getName(), method.getReturnType(), method.getParameterTypes() );
+      }
+      return invokeVirtual( receiverType, method.getName(), method.getReturnType(), method.getParameterTypes() );
+    }
+
+    Code loadClass( Class<?> type )
+    {
+      if( type.isPrimitive() )
+      {
+        return getStatic( type == void.class ? Void.class : box( type ), "TYPE", Class.class );
+      }
+      return ldc( classRef( internalName( type ) ) );
+    }
+
+    Code loadString( String value )
+    {
+      if( value == null )
+      {
+        return op( 0x01, 1 ); // aconst_null
+      }
+      return ldc( string( value ) );
+    }
+
+    Code loadInt( int value )
+    {
+      if( value >= -1 && value <= 5 )
+      {
+        return op( 0x03 + value, 1 ); // iconst_<n>
+      }
+      if( value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE )
+      {
+        op( 0x10, 1 ); // bipush
+        _bytes.write( value );
+        return this;
+      }
+      op( 0x11, 1 ); // sipush
+      writeShort( value );
+      return this;
+    }
+
+    Code newArray( Class<?> componentType )
+    {
+      // anewarray
+      return classOp( 0xbd, componentType, 0 );
+    }
+
+    Code dup()
+    {
+      return op( 0x59, 1 );
+    }
+
+    Code storeElement()
+    {
+      return op( 0x53, -3 ); // aastore
+    }
+
+    Code checkCast( Class<?> type )
+    {
+      if( type == Object.class )
+      {
+        return this;
+      }
+      return classOp( 0xc0, type, 0 );
+    }
+
+    Code boxValue( Class<?> primitive )
+    {
+      Class<?> boxed = box( primitive );
+      return invokeStatic( boxed, "valueOf", boxed, primitive );
+    }
+
+    /**
+     * Converts the Object on top of the stack to {@code type} as a Java cast would, unboxing to primitive types
+     */
+    Code castObject( Class<?> type )
+    {
+      if( !type.isPrimitive() )
+      {
+        return checkCast( type );
+      }
+      Class<?> boxed = box( type );
+      checkCast( boxed );
+      return invokeVirtual( boxed, type.getName() + "Value", type );
+    }
+
+    Code pop( Class<?> type )
+    {
+      int slots = slots( type );
+      if( slots == 0 )
+      {
+        return this;
+      }
+      return slots == 2 ? op( 0x58, -2 ) : op( 0x57, -1 ); // pop2 : pop
+    }
+
+    void returnValue( Class<?> type )
+    {
+      int opcode;
+      if( type == void.class )
+      {
+        opcode = 0xb1; // return
+      }
+      else if( !type.isPrimitive() )
+      {
+        opcode = 0xb0; // areturn
+      }
+      else if( type == long.class )
+      {
+        opcode = 0xad; // lreturn
+      }
+      else if( type == float.class )
+      {
+        opcode = 0xae; // freturn
+      }
+      else if( type == double.class )
+      {
+        opcode = 0xaf; // dreturn
+      }
+      else
+      {
+        opcode = 0xac; // ireturn
+      }
+      op( opcode, -slots( type ) );
+      end();
+    }
+
+    private void end()
+    {
+      byte[] code = _bytes.toByteArray();
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try( DataOutputStream out = new DataOutputStream( bytes ) )
+      {
+        out.writeShort( _access );
+        out.writeShort( _name );
+        out.writeShort( _descriptor );
+        out.writeShort( 1 ); // attributes
+        out.writeShort( utf8( "Code" ) );
+        out.writeInt( 12 + code.length );
+        out.writeShort( _maxStack );
+        out.writeShort( _maxLocals );
+        out.writeInt( code.length );
+        out.write( code );
+        out.writeShort( 0 ); // exception table
+        out.writeShort( 0 ); // attributes
+      }
+      catch( IOException e )
+      {
+        throw ManExceptionUtil.unchecked( e );
+      }
+      _methods.add( bytes.toByteArray() );
+    }
+
+    private Code invoke( int opcode, int tag, Class<?> owner, String name, Class<?> returnType, Class<?>[] paramTypes, boolean hasReceiver )
+    {
+      int delta = slots( returnType ) - (hasReceiver ? 1 : 0);
+      for( Class<?> paramType: paramTypes )
+      {
+        delta -= slots( paramType );
+      }
+      return memberOp( opcode, tag, internalName( owner ), name, methodDescriptor( returnType, paramTypes ), delta );
+    }
+
+    private Code memberOp( int opcode, int tag, String owner, String name, String descriptor, int delta )
+    {
+      int index = memberRef( tag, owner, name, descriptor );
+      op( opcode, delta );
+      writeShort( index );
+      return this;
+    }
+
+    private Code classOp( int opcode, Class<?> type, int delta )
+    {
+      int index = classRef( internalName( type ) );
+      op( opcode, delta );
+      writeShort( index );
+      return this;
+    }
+
+    private Code ldc( int index )
+    {
+      op( 0x13, 1 ); // ldc_w
+      writeShort( index );
+      return this;
+    }
+
+    private Code op( int opcode, int delta )
+    {
+      _bytes.write( opcode );
+      _stack += delta;
+      _maxStack = Math.max( _maxStack, _stack );
+      return this;
+    }
+
+    private void writeShort( int value )
+    {
+      _bytes.write( (value >> 8) & 0xff );
+      _bytes.write( value & 0xff );
+    }
+  }
+
+  private static Class<?> box( Class<?> type )
+  {
+    if( type == boolean.class )
+    {
+      return Boolean.class;
+    }
+    if( type == byte.class )
+    {
+      return Byte.class;
+    }
+    if( type == char.class )
+    {
+      return Character.class;
+    }
+    if( type == short.class )
+    {
+      return Short.class;
+    }
+    if( type == int.class )
+    {
+      return Integer.class;
+    }
+    if( type == long.class )
+    {
+      return Long.class;
+    }
+    if( type == float.class )
+    {
+      return Float.class;
+    }
+    if( type == double.class )
+    {
+      return Double.class;
+    }
+    throw new IllegalStateException();
+  }
+}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.ext;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import manifold.util.ManExceptionUtil;
+import manifold.util.ReflectUtil;
+
+/**
+ * Caches {@link MethodHandle}s for members accessed via {@link ReflectionRuntimeMethods} e.g., from {@code @Jailbreak}
+ * call sites.  Members are resolved once per class via {@link ReflectUtil}, thereafter a call is a hash lookup by name,
+ * an identity comparison of parameter types, and a direct handle invocation.
+ */
+final class ReflectionHandles
+{
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final Class[] NO_PARAMS = new Class[0];
+
+  private static final ClassValue<ReflectionHandles> HANDLES = new ClassValue<ReflectionHandles>()
+  {
+    @Override
+    protected ReflectionHandles computeValue( Class<?> type )
+    {
+      return new ReflectionHandles( type );
+    }
+  };
+
+  private final Class<?> _cls;
+  // handles for instance and static call sites have different shapes, hence separate maps
+  private final ConcurrentHashMap<String, Invoker[]> _methods;
+  private final ConcurrentHashMap<String, Invoker[]> _staticMethods;
+  private final ConcurrentHashMap<String, MethodHandle> _getters;
+  private final ConcurrentHashMap<String, MethodHandle> _staticGetters;
+  private final ConcurrentHashMap<String, MethodHandle> _setters;
+  private final ConcurrentHashMap<String, MethodHandle> _staticSetters;
+  private volatile Invoker[] _constructors;
+
+  static ReflectionHandles of( Class<?> cls )
+  {
+    return HANDLES.get( cls );
+  }
+
+  private ReflectionHandles( Class<?> cls )
+  {
+    _cls = cls;
+    _methods = new ConcurrentHashMap<>();
+    _staticMethods = new ConcurrentHashMap<>();
+    _getters = new ConcurrentHashMap<>();
+    _staticGetters = new ConcurrentHashMap<>();
+    _setters = new ConcurrentHashMap<>();
+    _staticSetters = new ConcurrentHashMap<>();
+    _constructors = new Invoker[0];
+  }
+
+  Object invoke( Object receiver, String name, Class[] paramTypes, Object[] args )
+  {
+    try
+    {
+      return (Object)findMethod( name, paramTypes, false ).handle.invokeExact( receiver, args );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  Object invokeStatic( String name, Class[] paramTypes, Object[] args )
+  {
+    try
+    {
+      return (Object)findMethod( name, paramTypes, true ).handle.invokeExact( args );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  Object construct( Class[] paramTypes, Object[] args )
+  {
+    try
+    {
+      return (Object)findConstructor( paramTypes ).handle.invokeExact( args );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  Object getField( Object receiver, String name )
+  {
+    try
+    {
+      return (Object)_getters.computeIfAbsent( name, n -> makeGetter( n, false ) ).invokeExact( receiver );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  Object getFieldStatic( String name )
+  {
+    try
+    {
+      return (Object)_staticGetters.computeIfAbsent( name, n -> makeGetter( n, true ) ).invokeExact();
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  void setField( Object receiver, String name, Object value )
+  {
+    try
+    {
+      _setters.computeIfAbsent( name, n -> makeSetter( n, false ) ).invokeExact( receiver, value );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  void setFieldStatic( String name, Object value )
+  {
+    try
+    {
+      _staticSetters.computeIfAbsent( name, n -> makeSetter( n, true ) ).invokeExact( value );
+    }
+    catch( Throwable t )
+    {
+      throw ManExceptionUtil.unchecked( t );
+    }
+  }
+
+  private Invoker findMethod( String name, Class[] paramTypes, boolean isStatic )
+  {
+    paramTypes = paramTypes == null ? NO_PARAMS : paramTypes;
+    ConcurrentHashMap<String, Invoker[]> methods = isStatic ? _staticMethods : _methods;
+    Invoker[] invokers = methods.get( name );
+    Invoker invoker = find( invokers, paramTypes );
+    if( invoker != null )
+    {
+      return invoker;
+    }
+
+    ReflectUtil.MethodRef ref = ReflectUtil.method( _cls, name, paramTypes );
+    if( ref == null )
+    {
+      throw new RuntimeException( "Method '" + name + "' not found" );
+    }
+    try
+    {
+      MethodHandle handle = LOOKUP.unreflect( ref.getMethod() ).asFixedArity();
+      int paramCount = paramTypes.length;
+      if( !isStatic && Modifier.isStatic( ref.getMethod().getModifiers() ) )
+      {
+        // static method called on an instance, ignore the receiver
+        handle = MethodHandles.dropArguments( handle, 0, Object.class );
+      }
+      handle = isStatic
+               ? handle.asType( MethodType.genericMethodType( paramCount ) )
+               : handle.asType( MethodType.genericMethodType( paramCount + 1 ) );
+      handle = handle.asSpreader( Object[].class, paramCount );
+      invoker = new Invoker( paramTypes, handle );
+    }
+    catch( IllegalAccessException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+    methods.merge( name, new Invoker[]{invoker}, ReflectionHandles::append );
+    return invoker;
+  }
+
+  private Invoker findConstructor( Class[] paramTypes )
+  {
+    paramTypes = paramTypes == null ? NO_PARAMS : paramTypes;
+    Invoker invoker = find( _constructors, paramTypes );
+    if( invoker != null )
+    {
+      return invoker;
+    }
+
+    ReflectUtil.ConstructorRef ref = ReflectUtil.constructor( _cls, paramTypes );
+    if( ref == null )
+    {
+      throw new RuntimeException( "Constructor not found for: " + _cls.getName() );
+    }
+    try
+    {
+      MethodHandle handle = LOOKUP.unreflectConstructor( ref.getConstructor() ).asFixedArity()
+        .asType( MethodType.genericMethodType( paramTypes.length ) )
+        .asSpreader( Object[].class, paramTypes.length );
+      invoker = new Invoker( paramTypes, handle );
+    }
+    catch( IllegalAccessException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+    synchronized( this )
+    {
+      _constructors = append( _constructors, new Invoker[]{invoker} );
+    }
+    return invoker;
+  }
+
+  private MethodHandle makeGetter( String name, boolean isStatic )
+  {
+    Field field = findField( name ).getField();
+    try
+    {
+      MethodHandle handle = LOOKUP.unreflectGetter( field );
+      if( !isStatic && Modifier.isStatic( field.getModifiers() ) )
+      {
+        // static field accessed on an instance, ignore the receiver
+        handle = MethodHandles.dropArguments( handle, 0, Object.class );
+      }
+      return isStatic
+             ? handle.asType( MethodType.methodType( Object.class ) )
+             : handle.asType( MethodType.methodType( Object.class, Object.class ) );
+    }
+    catch( IllegalAccessException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  private MethodHandle makeSetter( String name, boolean isStatic )
+  {
+    ReflectUtil.FieldRef ref = findField( name );
+    Field field = ref.getField();
+    try
+    {
+      if( Modifier.isFinal( field.getModifiers() ) )
+      {
+        // method handles can't write final fields, ReflectUtil has the means
+        return isStatic
+               ? LOOKUP.findVirtual( ReflectUtil.FieldRef.class, "setStatic", MethodType.methodType( void.class, Object.class ) ).bindTo( ref )
+               : LOOKUP.findVirtual( ReflectUtil.FieldRef.class, "set", MethodType.methodType( void.class, Object.class, Object.class ) ).bindTo( ref );
+      }
+
+      MethodHandle handle = LOOKUP.unreflectSetter( field );
+      if( !isStatic && Modifier.isStatic( field.getModifiers() ) )
+      {
+        // static field accessed on an instance, ignore the receiver
+        handle = MethodHandles.dropArguments( handle, 0, Object.class );
+      }
+      return isStatic
+             ? handle.asType( MethodType.methodType( void.class, Object.class ) )
+             : handle.asType( MethodType.methodType( void.class, Object.class, Object.class ) );
+    }
+    catch( NoSuchMethodException | IllegalAccessException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  private ReflectUtil.FieldRef findField( String name )
+  {
+    ReflectUtil.FieldRef ref = ReflectUtil.field( _cls, name );
+    if( ref == null )
+    {
+      throw new RuntimeException( "Field '" + name + "' not found" );
+    }
+    return ref;
+  }
+
+  private static Invoker find( Invoker[] invokers, Class[] paramTypes )
+  {
+    if( invokers != null )
+    {
+      for( Invoker invoker: invokers )
+      {
+        if( Arrays.equals( invoker.paramTypes, paramTypes ) )
+        {
+          return invoker;
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Invoker[] append( Invoker[] invokers, Invoker[] more )
+  {
+    Invoker[] result = Arrays.copyOf( invokers, invokers.length + more.length );
+    System.arraycopy( more, 0, result, invokers.length, more.length );
+    return result;
+  }
+
+  private static class Invoker
+  {
+    final Class[] paramTypes;
+    final MethodHandle handle;
+
+    Invoker( Class[] paramTypes, MethodHandle handle )
+    {
+      this.paramTypes = paramTypes.clone();
+      this.handle = handle;
+    }
+  }
+}
@@ -16,14 +16,16 @@
 
 package manifold.ext;
 
-import manifold.util.ReflectUtil;
-
+/**
+ * Runtime support for reflective member access generated by the compiler e.g., for {@code @Jailbreak}.
+ * Members are invoked through {@link java.lang.invoke.MethodHandle}s cached per class.
+ */
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class ReflectionRuntimeMethods
 {
   public static Object invoke_Object( Object receiver, String name, Class[] paramTypes, Object[] args )
   {
-    return ReflectUtil.method( receiver, name, paramTypes ).invoke( args );
+    return ReflectionHandles.of( receiver.getClass() ).invoke( receiver, name, paramTypes, args );
   }
 
   public static boolean invoke_boolean( Object receiver, String name, Class[] paramTypes, Object[] args )
@@ -68,8 +70,7 @@ public class ReflectionRuntimeMethods
 
   public static Object invokeStatic_Object( Class cls, String name, Class[] paramTypes, Object[] args )
   {
-    //noinspection ConstantConditions
-    return ReflectUtil.method( cls, name, paramTypes ).invokeStatic( args );
+    return ReflectionHandles.of( cls ).invokeStatic( name, paramTypes, args );
   }
 
   public static boolean invokeStatic_boolean( Class cls, String name, Class[] paramTypes, Object[] args )
@@ -114,7 +115,7 @@ public class ReflectionRuntimeMethods
 
   public static Object getField_Object( Object receiver, String name )
   {
-    return ReflectUtil.field( receiver, name ).get();
+    return ReflectionHandles.of( receiver.getClass() ).getField( receiver, name );
   }
 
   public static boolean getField_boolean( Object receiver, String name )
@@ -159,8 +160,7 @@ public class ReflectionRuntimeMethods
 
   public static Object getFieldStatic_Object( Class receiver, String name )
   {
-    //noinspection ConstantConditions
-    return ReflectUtil.field( receiver, name ).getStatic();
+    return ReflectionHandles.of( receiver ).getFieldStatic( name );
   }
 
   public static boolean getFieldStatic_boolean( Class receiver, String name )
@@ -206,7 +206,7 @@ public class ReflectionRuntimeMethods
   @SuppressWarnings("UnusedReturnValue")
   public static Object setField_Object( Object receiver, String name, Object value )
   {
-    ReflectUtil.field( receiver, name ).set( value );
+    ReflectionHandles.of( receiver.getClass() ).setField( receiver, name, value );
     return value;
   }
 
@@ -261,8 +261,7 @@ public class ReflectionRuntimeMethods
   @SuppressWarnings("UnusedReturnValue")
   public static Object setFieldStatic_Object( Class receiver, String name, Object value )
   {
-    //noinspection ConstantConditions
-    ReflectUtil.field( receiver, name ).setStatic( value );
+    ReflectionHandles.of( receiver ).setFieldStatic( name, value );
     return value;
   }
 
@@ -316,7 +315,6 @@ public class ReflectionRuntimeMethods
 
   public static Object construct( Class type, Class[] paramTypes, Object[] args )
   {
-    //noinspection ConstantConditions
-    return ReflectUtil.constructor( type, paramTypes ).newInstance( args );
+    return ReflectionHandles.of( type ).construct( paramTypes, args );
   }
 }
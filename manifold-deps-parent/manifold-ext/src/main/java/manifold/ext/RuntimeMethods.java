@@ -28,7 +28,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.script.Bindings;
@@ -46,7 +45,6 @@ import manifold.util.concurrent.LocklessLazyVar;
 
 public class RuntimeMethods
 {
-  private static Map<Class, Map<Class, IProxyFactory<?,?>>> PROXY_CACHE = new ConcurrentHashMap<>();
   private static final Map<Object, Set<Class>> ID_MAP = new ConcurrentWeakHashMap<>();
   private static final LocklessLazyVar<Set<IProxyFactory>> _registeredProxyFactories =
     LocklessLazyVar.make( () -> {
@@ -58,7 +56,7 @@ public class RuntimeMethods
   @SuppressWarnings({"UnusedDeclaration", "WeakerAccess"})
   public static Object constructProxy( Object root, Class iface )
   {
-    // return findCachedProxy( root, iface ); // this is only beneficial when structural invocation happens in a loop, otherwise too costly
+    // proxy factories are cached per interface, see ProxyCache regarding proxy reuse
     return createNewProxy( root, iface );
   }
 
@@ -134,91 +132,127 @@ public class RuntimeMethods
       return null;
     }
 
+    return CoercionPlans.of( type ).getPlan( value.getClass(), RuntimeMethods::makeCoercionPlan ).apply( value );
+  }
+
+  /**
+   * Resolves the coercion of values of {@code valueClass} to {@code type}, see {@link CoercionPlans}.
+   */
+  private static Function<Object, Object> makeCoercionPlan( Class<?> valueClass, Class<?> type )
+  {
     if( IBindingsBacked.class.isAssignableFrom( type ) )
     {
-      return value;
+      return Function.identity();
     }
 
-    if( value instanceof List )
+    if( List.class.isAssignableFrom( valueClass ) )
     {
-      Class<?> finalType = type;
+      // coerce elements on access, as opposed to copying the list on every call
       //noinspection unchecked
-      return ((List)value).stream()
-      .map( e -> coerce( e, finalType ) )
-      .collect( Collectors.toList() );
-    }
-
-    if( type.isPrimitive() )
-    {
-      type = box( type );
-    }
-
-    Class<?> valueClass = value.getClass();
-    if( valueClass == type || type.isAssignableFrom( valueClass ) )
-    {
-      return value;
-    }
-
-    Object result = callCoercionProviders( value, type );
-    if( result != ICallHandler.UNHANDLED )
-    {
-      return result;
+      return value -> value instanceof CoercingList && ((CoercingList)value).getType() == type
+                      ? value
+                      : new CoercingList( (List<Object>)value, type );
+    }
+
+    Class<?> boxedType = type.isPrimitive() ? box( type ) : type;
+    if( boxedType.isAssignableFrom( valueClass ) )
+    {
+      return Function.identity();
+    }
+
+    Function<Object, Object> fallback = makeDefaultCoercion( valueClass, boxedType );
+    ICoercionProvider[] providers = CoercionProviders.get().stream()
+      .filter( provider -> provider.handles( valueClass, boxedType ) )
+      .toArray( ICoercionProvider[]::new );
+    switch( providers.length )
+    {
+      case 0:
+        return fallback;
+      case 1:
+        ICoercionProvider provider = providers[0];
+        return value -> {
+          Object coercedValue = provider.coerce( value, boxedType );
+          return coercedValue != ICallHandler.UNHANDLED ? coercedValue : fallback.apply( value );
+        };
+      default:
+        return value -> {
+          for( ICoercionProvider coercer: providers )
+          {
+            Object coercedValue = coercer.coerce( value, boxedType );
+            if( coercedValue != ICallHandler.UNHANDLED )
+            {
+              return coercedValue;
+            }
+          }
+          return fallback.apply( value );
+        };
     }
+  }
 
-    Object boxedValue = coerceBoxed( value, type );
-    if( boxedValue != null )
+  /**
+   * The coercion applying when no {@link ICoercionProvider} handles a value
+   */
+  private static Function<Object, Object> makeDefaultCoercion( Class<?> valueClass, Class<?> type )
+  {
+    Function<Object, Object> boxedCoercion = makeBoxedCoercion( type );
+    if( boxedCoercion != null )
     {
-      return boxedValue;
+      return boxedCoercion;
     }
 
     if( type == BigInteger.class )
     {
-      if( value instanceof Number )
-      {
-        return BigInteger.valueOf( ((Number)value).longValue() );
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? BigInteger.ONE : BigInteger.ZERO;
-      }
-      return new BigInteger( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return BigInteger.valueOf( ((Number)value).longValue() );
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? BigInteger.ONE : BigInteger.ZERO;
+        }
+        return new BigInteger( value.toString() );
+      };
     }
 
     if( type == BigDecimal.class )
     {
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? BigDecimal.ONE : BigDecimal.ZERO;
-      }
-      return new BigDecimal( value.toString() );
+      return value -> {
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? BigDecimal.ONE : BigDecimal.ZERO;
+        }
+        return new BigDecimal( value.toString() );
+      };
     }
 
     if( type == String.class )
     {
-      return String.valueOf( value );
+      return String::valueOf;
     }
 
     if( type.isEnum() )
     {
-      String name = String.valueOf( value );
       //noinspection unchecked
-      return Enum.valueOf( (Class<Enum>)type, name );
+      return value -> Enum.valueOf( (Class<Enum>)type, String.valueOf( value ) );
     }
 
     if( type.isArray() && valueClass.isArray() )
     {
-      int length = Array.getLength( value );
       Class<?> componentType = type.getComponentType();
-      Object array = Array.newInstance( componentType, length );
-      for( int i = 0; i < length; i++ )
-      {
-        Array.set( array, i, coerce( Array.get( value, i ), componentType ) );
-      }
-      return array;
+      return value -> {
+        int length = Array.getLength( value );
+        Object array = Array.newInstance( componentType, length );
+        for( int i = 0; i < length; i++ )
+        {
+          Array.set( array, i, coerce( Array.get( value, i ), componentType ) );
+        }
+        return array;
+      };
     }
 
     // let the ClassCastException happen
-    return value;
+    return Function.identity();
   }
 
   private static Object defaultPrimitiveValue( Class<?> type )
@@ -259,120 +293,123 @@ public class RuntimeMethods
     throw new IllegalArgumentException( "Unsupported primitive type: " + type.getSimpleName() );
   }
 
-  private static Object coerceBoxed( Object value, Class<?> type )
+  private static Function<Object, Object> makeBoxedCoercion( Class<?> type )
   {
     if( type == Boolean.class || type == boolean.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).intValue() != 0;
-      }
-      return Boolean.parseBoolean( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).intValue() != 0;
+        }
+        return Boolean.parseBoolean( value.toString() );
+      };
     }
 
     if( type == Byte.class || type == byte.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).byteValue() != 0;
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? (byte)1 : (byte)0;
-      }
-      return Byte.parseByte( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).byteValue() != 0;
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? (byte)1 : (byte)0;
+        }
+        return Byte.parseByte( value.toString() );
+      };
     }
 
     if( type == Character.class || type == char.class )
     {
-      if( value instanceof Number )
-      {
-        return (char)((Number)value).intValue();
-      }
-      String s = value.toString();
-      return s.isEmpty() ? (char)0 : s.charAt( 0 );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return (char)((Number)value).intValue();
+        }
+        String s = value.toString();
+        return s.isEmpty() ? (char)0 : s.charAt( 0 );
+      };
     }
 
     if( type == Short.class || type == short.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).shortValue();
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? (short)1 : (short)0;
-      }
-      return Short.parseShort( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).shortValue();
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? (short)1 : (short)0;
+        }
+        return Short.parseShort( value.toString() );
+      };
     }
 
     if( type == Integer.class || type == int.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).intValue();
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? 1 : 0;
-      }
-      return Integer.parseInt( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).intValue();
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? 1 : 0;
+        }
+        return Integer.parseInt( value.toString() );
+      };
     }
 
     if( type == Long.class || type == long.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).longValue();
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? 1L : 0L;
-      }
-      return Long.parseLong( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).longValue();
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? 1L : 0L;
+        }
+        return Long.parseLong( value.toString() );
+      };
     }
 
     if( type == Float.class || type == float.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).floatValue();
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? 1f : 0f;
-      }
-      return Float.parseFloat( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).floatValue();
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? 1f : 0f;
+        }
+        return Float.parseFloat( value.toString() );
+      };
     }
 
     if( type == Double.class || type == double.class )
     {
-      if( value instanceof Number )
-      {
-        return ((Number)value).doubleValue();
-      }
-      if( value instanceof Boolean )
-      {
-        return ((Boolean)value) ? 1d : 0d;
-      }
-      return Double.parseDouble( value.toString() );
+      return value -> {
+        if( value instanceof Number )
+        {
+          return ((Number)value).doubleValue();
+        }
+        if( value instanceof Boolean )
+        {
+          return ((Boolean)value) ? 1d : 0d;
+        }
+        return Double.parseDouble( value.toString() );
+      };
     }
     return null;
   }
 
-  private static Object callCoercionProviders( Object value, Class<?> type )
-  {
-    for( ICoercionProvider coercer: CoercionProviders.get() )
-    {
-      Object coercedValue = coercer.coerce( value, type );
-      if( coercedValue != ICallHandler.UNHANDLED )
-      {
-        return coercedValue;
-      }
-    }
-    return ICallHandler.UNHANDLED;
-  }
-
   private static Class<?> box( Class<?> type )
   {
     if( type == boolean.class )
@@ -451,24 +488,15 @@ public class RuntimeMethods
       return root;
     }
 
-    Map<Class, IProxyFactory<?,?>> proxyByClass = PROXY_CACHE.get( iface );
-    if( proxyByClass == null )
-    {
-      PROXY_CACHE.put( iface, proxyByClass = new ConcurrentHashMap<>() );
-    }
-    IProxyFactory proxyFactory = proxyByClass.get( rootClass );
-    if( proxyFactory == null )
-    {
-      proxyFactory = createProxy( iface, rootClass );
-      proxyByClass.put( rootClass, proxyFactory );
-    }
+    ProxyCache cache = ProxyCache.of( iface );
+    IProxyFactory proxyFactory = cache.getFactory( rootClass, c -> createProxy( iface, c ) );
     try
     {
       // in Java 9+ in modular mode the proxy class belongs to the owner's module,
       // therefore we need to make it accessible from the manifold module before
       // calling newInstance()
       //noinspection unchecked
-      return proxyFactory.proxy( root, iface );
+      return cache.getProxy( root, r -> proxyFactory.proxy( r, iface ) );
     }
     catch( Exception e )
     {
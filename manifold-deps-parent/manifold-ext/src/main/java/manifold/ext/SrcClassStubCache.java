@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.ext;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import manifold.api.gen.AbstractSrcClass;
+import manifold.api.gen.AbstractSrcMethod;
+import manifold.api.gen.SrcClass;
+import manifold.api.gen.SrcParameter;
+import manifold.api.gen.SrcType;
+import manifold.api.host.IModule;
+import manifold.internal.javac.ClassSymbols;
+
+/**
+ * Caches {@link SrcClass} stubs for types referenced while generating extended classes, such as extension classes and
+ * the supertypes of extended classes. Making a stub involves javac, so the same types e.g., {@code Object},
+ * {@code Iterable}, should not be stubbed over and over. Also indexes the methods of each stub by signature so that
+ * duplicate checks are lookups instead of pairwise parameter comparisons.
+ * <p/>
+ * Stubs handed out from this cache are shared and must not be modified. The cache is cleared whenever types refresh.
+ */
+class SrcClassStubCache
+{
+  private final IModule _module;
+  private final Map<String, SrcClass> _stubs;
+  private final Map<String, Map<String, AbstractSrcMethod>> _signatures;
+
+  SrcClassStubCache( IModule module )
+  {
+    _module = module;
+    _stubs = new ConcurrentHashMap<>();
+    _signatures = new ConcurrentHashMap<>();
+  }
+
+  SrcClass getStub( String fqn )
+  {
+    SrcClass stub = _stubs.get( fqn );
+    if( stub == null )
+    {
+      stub = ClassSymbols.instance( _module ).makeSrcClassStub( fqn, null );
+      if( stub != null )
+      {
+        SrcClass existing = _stubs.putIfAbsent( fqn, stub );
+        stub = existing == null ? stub : existing;
+      }
+    }
+    return stub;
+  }
+
+  /**
+   * @return The method declared in the stub of {@code fqn} having {@code signature}, or null if there is no such method
+   */
+  AbstractSrcMethod findDeclaredMethod( String fqn, String signature )
+  {
+    Map<String, AbstractSrcMethod> signatures = _signatures.get( fqn );
+    if( signatures == null )
+    {
+      SrcClass stub = getStub( fqn );
+      signatures = stub == null ? Collections.emptyMap() : indexMethods( stub );
+      _signatures.put( fqn, signatures );
+    }
+    return signatures.get( signature );
+  }
+
+  void clear()
+  {
+    _stubs.clear();
+    _signatures.clear();
+  }
+
+  static Map<String, AbstractSrcMethod> indexMethods( SrcClass srcClass )
+  {
+    Map<String, AbstractSrcMethod> signatures = new HashMap<>();
+    for( AbstractSrcMethod m: srcClass.getMethods() )
+    {
+      // first declared wins, same as a linear search
+      signatures.putIfAbsent( signature( m, 0 ), m );
+    }
+    return signatures;
+  }
+
+  /**
+   * Makes a key from the method name and the erased types of the parameters starting at {@code start}. For instance,
+   * {@code start} is 1 to exclude the {@code @This} parameter of an extension method. Type variables of the method and
+   * of its declaring class erase to their first bound, so {@code m(T)} and {@code m(Object)} have the same key.
+   */
+  static String signature( AbstractSrcMethod<?> method, int start )
+  {
+    Map<String, SrcType> typeVars = new HashMap<>();
+    if( method.getOwner() instanceof AbstractSrcClass )
+    {
+      for( SrcType typeVar: ((AbstractSrcClass<?>)method.getOwner()).getTypeVariables() )
+      {
+        typeVars.put( typeVar.getName(), typeVar );
+      }
+    }
+    for( SrcType typeVar: method.getTypeVariables() )
+    {
+      // a method's type variable hides a class type variable of the same name
+      typeVars.put( typeVar.getName(), typeVar );
+    }
+
+    StringBuilder sb = new StringBuilder( method.getSimpleName() ).append( '(' );
+    List<SrcParameter> params = method.getParameters();
+    for( int i = start; i < params.size(); i++ )
+    {
+      if( i > start )
+      {
+        sb.append( ',' );
+      }
+      SrcType type = params.get( i ).getType();
+      sb.append( erasure( type, typeVars, new HashSet<>() ) );
+      for( int dims = type.getArrayDims(); dims > 0; dims-- )
+      {
+        sb.append( "[]" );
+      }
+    }
+    return sb.append( ')' ).toString();
+  }
+
+  private static String erasure( SrcType type, Map<String, SrcType> typeVars, Set<String> visited )
+  {
+    String name = type.getFqName();
+    SrcType typeVar = typeVars.get( name );
+    if( typeVar == null || !visited.add( name ) )
+    {
+      return name;
+    }
+    List<SrcType> bounds = typeVar.getBounds();
+    return bounds.isEmpty() ? Object.class.getName() : erasure( bounds.get( 0 ), typeVars, visited );
+  }
+}
@@ -24,6 +24,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Parameter;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 import javax.lang.model.type.NoType;
 import manifold.ext.api.Structural;
 import manifold.internal.host.RuntimeManifoldHost;
@@ -55,7 +57,15 @@ class StructuralTypeProxyGenerator
   {
     StructuralTypeProxyGenerator gen = new StructuralTypeProxyGenerator( iface, rootClass, name );
     String fqnProxy = getNamespace( iface ) + '.' + name;
-    ManClassesUrlConnection.putProxySupplier( fqnProxy, () -> gen.generateProxy().toString() );
+    byte[] bytecode = ProxyClassWriter.ENABLED ? gen.generateBytecode( fqnProxy ) : null;
+    if( bytecode != null )
+    {
+      ManClassesUrlConnection.putBytecodeSupplier( fqnProxy, () -> bytecode );
+    }
+    else
+    {
+      ManClassesUrlConnection.putProxySupplier( fqnProxy, () -> gen.generateProxy().toString() );
+    }
     try
     {
       return Class.forName( fqnProxy, false, iface.getClassLoader() );
@@ -89,6 +99,109 @@ class StructuralTypeProxyGenerator
       .append( "}" );
   }
 
+  /**
+   * @return The proxy class file for {@code iface} and {@code rootClass}, or null if the proxy must be compiled from
+   * source
+   */
+  static byte[] makeBytecode( Class<?> iface, Class<?> rootClass, String fqnProxy )
+  {
+    String name = fqnProxy.substring( fqnProxy.lastIndexOf( '.' ) + 1 );
+    return new StructuralTypeProxyGenerator( iface, rootClass, name ).generateBytecode( fqnProxy );
+  }
+
+  /**
+   * Generates the proxy class as bytecode, bypassing javac.  Handles proxies where each interface method has a public
+   * counterpart on the root class with the same parameter types, otherwise returns null and the proxy is compiled from
+   * source, where javac resolves calls to fields, extension methods, and methods requiring conversions.
+   */
+  private byte[] generateBytecode( String fqnProxy )
+  {
+    if( !ProxyClassWriter.isAccessible( _iface ) || !ProxyClassWriter.isAccessible( _rootClass ) )
+    {
+      return null;
+    }
+
+    String owner = fqnProxy.replace( '.', '/' );
+    ProxyClassWriter writer = new ProxyClassWriter( fqnProxy, Object.class, _iface );
+    writer.addField( ProxyClassWriter.ACC_PRIVATE | ProxyClassWriter.ACC_FINAL, "_root", _rootClass );
+    writer.addMethod( ProxyClassWriter.ACC_PUBLIC, "<init>", void.class, _rootClass )
+      .loadThis().invokeSpecial( Object.class, "<init>", void.class )
+      .loadThis().loadParam( 0, _rootClass ).putField( owner, "_root", _rootClass )
+      .returnValue( void.class );
+
+    Set<String> signatures = new HashSet<>();
+    for( Method mi : _iface.getMethods() )
+    {
+      if( Modifier.isStatic( mi.getModifiers() ) || mi.isBridge() || mi.isSynthetic() ||
+          mi.getAnnotation( ExtensionMethod.class ) != null || isObjectMethod( mi ) )
+      {
+        continue;
+      }
+
+      Class<?> returnType = mi.getReturnType();
+      Class<?>[] params = mi.getParameterTypes();
+      Method rootMethod = findRootMethod( mi );
+      if( rootMethod == null || !ProxyClassWriter.isAccessible( returnType ) ||
+          Arrays.stream( params ).anyMatch( p -> !ProxyClassWriter.isAccessible( p ) ) ||
+          !ProxyClassWriter.fitsLocals( params ) )
+      {
+        return null;
+      }
+      if( !signatures.add( mi.getName() + ProxyClassWriter.methodDescriptor( void.class, params ) ) )
+      {
+        // inherited from more than one interface, javac sorts out the return type
+        return null;
+      }
+
+      ProxyClassWriter.Code code = writer.addMethod( ProxyClassWriter.ACC_PUBLIC, mi.getName(), returnType, params )
+        .loadThis().getField( owner, "_root", _rootClass );
+      for( int i = 0; i < params.length; i++ )
+      {
+        code.loadParam( i, params[i] );
+      }
+      code.invoke( _rootClass, rootMethod );
+      if( returnType == void.class )
+      {
+        code.pop( rootMethod.getReturnType() );
+      }
+      else if( !returnType.isPrimitive() )
+      {
+        code.loadClass( returnType )
+          .invokeStatic( RuntimeMethods.class, "coerce", Object.class, Object.class, Class.class )
+          .checkCast( returnType );
+      }
+      code.returnValue( returnType );
+    }
+    return writer.toByteArray();
+  }
+
+  private Method findRootMethod( Method mi )
+  {
+    Method rootMethod;
+    try
+    {
+      rootMethod = _rootClass.getMethod( mi.getName(), mi.getParameterTypes() );
+    }
+    catch( NoSuchMethodException e )
+    {
+      return null;
+    }
+    if( Modifier.isStatic( rootMethod.getModifiers() ) )
+    {
+      return null;
+    }
+
+    Class<?> returnType = mi.getReturnType();
+    Class<?> rootReturnType = rootMethod.getReturnType();
+    if( returnType == void.class || returnType == rootReturnType ||
+        !returnType.isPrimitive() && !rootReturnType.isPrimitive() )
+    {
+      return rootMethod;
+    }
+    // javac handles boxing and widening
+    return null;
+  }
+
   private static String getNamespace( Class ifaceType )
   {
     String nspace = ifaceType.getPackage().getName();
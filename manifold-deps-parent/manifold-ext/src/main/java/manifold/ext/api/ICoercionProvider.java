@@ -36,6 +36,21 @@ public interface ICoercionProvider
    */
   Object coerce( Object value, Class<?> type );
 
+  /**
+   * Whether this provider may coerce values of {@code valueClass} to {@code type}. The runtime resolves a coercion
+   * plan once per value class and type, only providers answering {@code true} here are called to coerce values of
+   * {@code valueClass} to {@code type}. The default answers {@code true}, override it to answer {@code false} for
+   * coercions this provider never handles.
+   * @param valueClass The class of values to coerce.
+   * @param type The type to convert to, never a primitive type.
+   * @return {@code false} if {@link #coerce(Object, Class)} always returns {@link ICallHandler#UNHANDLED} for values of
+   * {@code valueClass} and {@code type}.
+   */
+  default boolean handles( Class<?> valueClass, Class<?> type )
+  {
+    return true;
+  }
+
   /**
    * Coerce {@code value} parameter to a value suitable for a {@link javax.script.Bindings} e.g., a JSON bindings.
    * It is imperative that this method coerces only between the JSON types and Java types it explicitly
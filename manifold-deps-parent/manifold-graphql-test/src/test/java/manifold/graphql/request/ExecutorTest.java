@@ -0,0 +1,329 @@
+package manifold.graphql.request;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import javax.script.Bindings;
+import manifold.api.json.Json;
+import manifold.ext.DataBindings;
+import manifold.util.JsonUtil;
+import manifold.util.StreamUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+public class ExecutorTest
+{
+  private static final String QUERY = "query Movies {movies {id title}}";
+
+  private HttpServer _server;
+  private ExecutorService _serverExecutor;
+  private List<Object> _requests;
+  private Set<String> _registered;
+  private String _urlBase;
+
+  @Before
+  public void setUp() throws IOException
+  {
+    _requests = Collections.synchronizedList( new ArrayList<>() );
+    _registered = ConcurrentHashMap.newKeySet();
+    _server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+    _server.createContext( "/persisted", exchange -> handle( exchange, true ) );
+    _server.createContext( "/unsupported", exchange -> handle( exchange, false ) );
+    _server.createContext( "/fail", exchange -> respond( exchange, 500, "{\"error\": \"fail\"}" ) );
+    _server.createContext( "/notbatched", exchange -> {
+      _requests.add( readBody( exchange ) );
+      respond( exchange, 200, "{\"data\": {}}" );
+    } );
+    _serverExecutor = Executors.newFixedThreadPool( 8 );
+    _server.setExecutor( _serverExecutor );
+    _server.start();
+    _urlBase = "http://localhost:" + _server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown()
+  {
+    _server.stop( 0 );
+    _serverExecutor.shutdownNow();
+  }
+
+  /**
+   * Answers a single operation or a JSON array of operations. The data of a result echoes the query text and the
+   * variables of the operation.
+   */
+  private void handle( HttpExchange exchange, boolean persistedQueries ) throws IOException
+  {
+    Object body = readBody( exchange );
+    _requests.add( body );
+    Object response;
+    if( body instanceof List )
+    {
+      List<Object> results = new ArrayList<>();
+      for( Object operation: (List)body )
+      {
+        results.add( execute( (Bindings)operation, persistedQueries ) );
+      }
+      response = results;
+    }
+    else
+    {
+      response = execute( (Bindings)body, persistedQueries );
+    }
+    respond( exchange, 200, JsonUtil.toJson( response ) );
+  }
+
+  private Bindings execute( Bindings operation, boolean persistedQueries )
+  {
+    String query = (String)operation.get( "query" );
+    String hash = getHash( operation );
+    if( query == null )
+    {
+      if( !persistedQueries )
+      {
+        return error( "PersistedQueryNotSupported", "PERSISTED_QUERY_NOT_SUPPORTED" );
+      }
+      if( !_registered.contains( hash ) )
+      {
+        return error( "PersistedQueryNotFound", "PERSISTED_QUERY_NOT_FOUND" );
+      }
+      query = QUERY;
+    }
+    else if( hash != null && persistedQueries && hash.equals( PersistedQuery.hash( query ) ) )
+    {
+      _registered.add( hash );
+    }
+
+    DataBindings data = new DataBindings();
+    data.put( "query", query );
+    data.put( "variables", operation.get( "variables" ) );
+    DataBindings result = new DataBindings();
+    result.put( "data", data );
+    return result;
+  }
+
+  private static Bindings error( String message, String code )
+  {
+    DataBindings extensions = new DataBindings();
+    extensions.put( "code", code );
+    DataBindings error = new DataBindings();
+    error.put( "message", message );
+    error.put( "extensions", extensions );
+    DataBindings result = new DataBindings();
+    result.put( "errors", Collections.singletonList( error ) );
+    return result;
+  }
+
+  private static String getHash( Object operation )
+  {
+    Object extensions = ((Map)operation).get( "extensions" );
+    if( extensions == null )
+    {
+      return null;
+    }
+    return (String)((Map)((Map)extensions).get( "persistedQuery" )).get( "sha256Hash" );
+  }
+
+  private static Object readBody( HttpExchange exchange ) throws IOException
+  {
+    try( InputStream in = exchange.getRequestBody() )
+    {
+      return Json.fromJson( StreamUtil.getContent( StreamUtil.getInputStreamReader( in ) ) );
+    }
+  }
+
+  private static void respond( HttpExchange exchange, int status, String body ) throws IOException
+  {
+    byte[] bytes = body.getBytes( StandardCharsets.UTF_8 );
+    exchange.getResponseHeaders().add( "Content-Type", "application/json" );
+    exchange.sendResponseHeaders( status, bytes.length );
+    try( OutputStream out = exchange.getResponseBody() )
+    {
+      out.write( bytes );
+    }
+  }
+
+  private Executor<Bindings> executor( String path, int id )
+  {
+    DataBindings variables = new DataBindings();
+    variables.put( "id", id );
+    return new Executor<>( _urlBase + path, null, QUERY, variables );
+  }
+
+  @Test
+  public void testPersistedQuerySendsHashOnly()
+  {
+    _registered.add( PersistedQuery.hash( QUERY ) );
+    Bindings data = executor( "/persisted", 1 ).withPersistedQueries( true ).post();
+    assertEquals( QUERY, data.get( "query" ) );
+
+    assertEquals( 1, _requests.size() );
+    Map request = (Map)_requests.get( 0 );
+    assertNull( request.get( "query" ) );
+    assertEquals( PersistedQuery.hash( QUERY ), getHash( request ) );
+    assertEquals( 1, ((Map)request.get( "variables" )).get( "id" ) );
+  }
+
+  @Test
+  public void testPersistedQueryNotFoundSendsFullQuery()
+  {
+    Bindings data = executor( "/persisted", 1 ).withPersistedQueries( true ).post();
+    assertEquals( QUERY, data.get( "query" ) );
+
+    // the hash is not known, the query is sent again with its text so the server registers it
+    assertEquals( 2, _requests.size() );
+    assertNull( ((Map)_requests.get( 0 )).get( "query" ) );
+    assertEquals( QUERY, ((Map)_requests.get( 1 )).get( "query" ) );
+    assertEquals( PersistedQuery.hash( QUERY ), getHash( _requests.get( 1 ) ) );
+
+    // now registered, the hash alone is enough
+    data = executor( "/persisted", 2 ).withPersistedQueries( true ).postAsync().join();
+    assertEquals( 2, ((Map)data.get( "variables" )).get( "id" ) );
+    assertEquals( 3, _requests.size() );
+    assertNull( ((Map)_requests.get( 2 )).get( "query" ) );
+  }
+
+  @Test
+  public void testPersistedQueryNotSupportedSendsFullQuery()
+  {
+    Bindings data = executor( "/unsupported", 1 ).withPersistedQueries( true ).postAsync().join();
+    assertEquals( QUERY, data.get( "query" ) );
+
+    assertEquals( 2, _requests.size() );
+    assertNull( ((Map)_requests.get( 0 )).get( "query" ) );
+    assertEquals( QUERY, ((Map)_requests.get( 1 )).get( "query" ) );
+    assertNull( getHash( _requests.get( 1 ) ) );
+
+    // the url does not support persisted queries, the full query is sent directly
+    data = executor( "/unsupported", 2 ).withPersistedQueries( true ).post();
+    assertEquals( QUERY, data.get( "query" ) );
+    assertEquals( 3, _requests.size() );
+    assertEquals( QUERY, ((Map)_requests.get( 2 )).get( "query" ) );
+  }
+
+  @Test
+  public void testBatchingSplitsAndDemultiplexes()
+  {
+    int count = OperationBatcher.MAX_BATCH_SIZE * 2 + 3;
+    List<CompletableFuture<Bindings>> results = new ArrayList<>();
+    for( int i = 0; i < count; i++ )
+    {
+      results.add( executor( "/persisted", i ).withBatching( 1000 ).postAsync() );
+    }
+    for( int i = 0; i < count; i++ )
+    {
+      // each operation receives its own result
+      assertEquals( i, ((Map)results.get( i ).join().get( "variables" )).get( "id" ) );
+    }
+
+    List<Integer> sizes = new ArrayList<>();
+    for( Object request: _requests )
+    {
+      sizes.add( ((List)request).size() );
+    }
+    Collections.sort( sizes );
+    assertEquals( 3, sizes.size() );
+    assertEquals( 3, (int)sizes.get( 0 ) );
+    assertEquals( OperationBatcher.MAX_BATCH_SIZE, (int)sizes.get( 1 ) );
+    assertEquals( OperationBatcher.MAX_BATCH_SIZE, (int)sizes.get( 2 ) );
+  }
+
+  @Test
+  public void testBatchedPersistedQueryNotFoundSendsFullQuery()
+  {
+    List<CompletableFuture<Bindings>> results = new ArrayList<>();
+    for( int i = 0; i < 3; i++ )
+    {
+      results.add( executor( "/persisted", i ).withPersistedQueries( true ).withBatching( 200 ).postAsync() );
+    }
+    for( int i = 0; i < 3; i++ )
+    {
+      assertEquals( i, ((Map)results.get( i ).join().get( "variables" )).get( "id" ) );
+    }
+
+    // a batch of hashes, then a batch of the full queries
+    assertEquals( 2, _requests.size() );
+    for( Object operation: (List)_requests.get( 0 ) )
+    {
+      assertNull( ((Map)operation).get( "query" ) );
+    }
+    for( Object operation: (List)_requests.get( 1 ) )
+    {
+      assertEquals( QUERY, ((Map)operation).get( "query" ) );
+    }
+  }
+
+  @Test
+  public void testPostAsyncPropagatesErrors()
+  {
+    try
+    {
+      executor( "/fail", 1 ).postAsync().join();
+      fail();
+    }
+    catch( CompletionException e )
+    {
+      assertTrue( e.getMessage(), e.getMessage().contains( "500" ) );
+    }
+
+    try
+    {
+      executor( "/fail", 1 ).withBatching( 10 ).postAsync().join();
+      fail();
+    }
+    catch( CompletionException e )
+    {
+      assertTrue( e.getMessage(), e.getMessage().contains( "500" ) );
+    }
+
+    // post() unwraps the failure of a batch
+    try
+    {
+      executor( "/fail", 1 ).withBatching( 10 ).post();
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      assertFalse( e instanceof CompletionException );
+      assertTrue( e.getMessage(), e.getMessage().contains( "500" ) );
+    }
+  }
+
+  @Test
+  public void testBatchRequiresArrayResponse()
+  {
+    CompletableFuture<Bindings> first = executor( "/notbatched", 1 ).withBatching( 200 ).postAsync();
+    CompletableFuture<Bindings> second = executor( "/notbatched", 2 ).withBatching( 200 ).postAsync();
+    for( CompletableFuture<Bindings> result: Arrays.asList( first, second ) )
+    {
+      try
+      {
+        result.join();
+        fail();
+      }
+      catch( CompletionException e )
+      {
+        assertTrue( e.getCause() instanceof IllegalStateException );
+      }
+    }
+    assertEquals( 1, _requests.size() );
+  }
+}
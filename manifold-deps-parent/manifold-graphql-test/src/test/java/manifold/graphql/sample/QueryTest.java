@@ -6,6 +6,7 @@ import java.util.List;
 import manifold.api.templ.DisableStringLiteralTemplates;
 import manifold.ext.api.Jailbreak;
 import manifold.graphql.request.Executor;
+import manifold.graphql.request.PersistedQuery;
 import org.junit.Test;
 
 
@@ -54,6 +55,8 @@ public class QueryTest
     String query = request._reqArgs.getQuery();
     String expected = "query MovieQuery($title:String,$genre:Genre,$releaseDate:Date,$actors:[ActorInput!]) {movies(title:$title,genre:$genre,releaseDate:$releaseDate,actors:$actors) {id title genre releaseDate starring {typename:__typename ... on Actor {id name} ... on Animal {kind}} cast {id name type actor {id name}}}}";
     assertEquals( expected.replaceAll( "\\s+", "" ), query.replaceAll( "\\s+", "" ) );
+    // the hash of the query is computed at compile-time for persisted queries
+    assertEquals( PersistedQuery.hash( query ), request._queryHash );
   }
 
   @Test
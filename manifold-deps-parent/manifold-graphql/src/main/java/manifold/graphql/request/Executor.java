@@ -16,8 +16,16 @@
 
 package manifold.graphql.request;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.script.Bindings;
 import manifold.api.json.Requester;
+import manifold.util.ManExceptionUtil;
 
 /**
  * Based on:
@@ -40,19 +48,47 @@ import manifold.api.json.Requester;
  * $ curl -XPOST http://localhost:8080/graphql -H 'Content-Type: application/graphql' -d 'mutation M { newTodo: createTodo(text: "This is a mutation example") { text done } }'
  * using POST + Content-Type: application/json
  * $ curl -XPOST http://localhost:8080/graphql -H 'Content-Type: application/json' -d '{"query": "mutation M { newTodo: createTodo(text: \"This is a mutation example\") { text done } }"}'
- * 
+ * <p/>
+ * Use {@link #withPersistedQueries(boolean)} to send the hash of the query instead of the full text, see
+ * {@link PersistedQuery}. Use {@link #withBatching(int)} to send operations issued within a short window together
+ * in a single request.
+ *
  * @param <T>
  */
 public class Executor<T>
 {
+  private static final long PERSISTED_QUERIES_RETRY =
+    Long.getLong( "manifold.graphql.persisted.queries.retry", 600 ) * 1000;
+  /** url -> time in millis when persisted queries are tried again */
+  private static final Map<String, Long> PERSISTED_QUERIES_UNSUPPORTED = new ConcurrentHashMap<>();
+
+  private final String _url;
+  private final String _queryHash;
   private final GqlRequestBody _reqArgs;
+  private final Map<String, String> _headers; // distinguishes batches
   private Requester<Bindings> _requester;
+  private int _timeout;
+  private boolean _persistedQueries;
+  private int _batchWindow;
 
   public Executor( String url, String operation, String query, Bindings variables )
   {
+    this( url, operation, query, null, variables );
+  }
+
+  /**
+   * @param queryHash The SHA-256 hash of {@code query}, see {@link PersistedQuery#hash(String)}. If null, the hash is
+   *                  computed if and when persisted queries are used.
+   */
+  public Executor( String url, String operation, String query, String queryHash, Bindings variables )
+  {
+    _url = url;
+    _queryHash = queryHash;
     _requester = new Requester<>( url );
     _requester.withHeader( "Content-Type", "application/json" );
+    _headers = new TreeMap<>();
     _reqArgs = GqlRequestBody.create( query, variables );
+    _persistedQueries = Boolean.getBoolean( "manifold.graphql.persisted.queries" );
   }
 
   /**
@@ -62,6 +98,7 @@ public class Executor<T>
   public Executor<T> withHeader( String name, String value )
   {
     _requester.withHeader( name, value );
+    _headers.put( name, value );
     return this;
   }
 
@@ -71,8 +108,9 @@ public class Executor<T>
   @SuppressWarnings("unused")
   public Executor<T> withBasicAuthorization( String username, String password )
   {
-    _requester.withBasicAuthorization( username, password );
-    return this;
+    String authorization = Base64.getEncoder()
+      .encodeToString( (username + ':' + password).getBytes( StandardCharsets.UTF_8 ) );
+    return withHeader( "Authorization", "Basic " + authorization );
   }
 
   /**
@@ -102,6 +140,33 @@ public class Executor<T>
   public Executor<T> withTimeout( int timeout )
   {
     _requester.withTimeout( timeout );
+    _timeout = timeout;
+    return this;
+  }
+
+  /**
+   * If {@code persistedQueries} is true, send the SHA-256 hash of the query instead of the full query text. If the
+   * server does not recognize the hash, the request is sent again with the full text so the server can register it.
+   * If the server does not support persisted queries at all, subsequent requests to the url send the full text for
+   * the number of seconds given by the {@code manifold.graphql.persisted.queries.retry} system property, ten minutes
+   * by default. The default setting is given by the {@code manifold.graphql.persisted.queries} system property.
+   */
+  @SuppressWarnings("unused")
+  public Executor<T> withPersistedQueries( boolean persistedQueries )
+  {
+    _persistedQueries = persistedQueries;
+    return this;
+  }
+
+  /**
+   * Send POST requests issued within {@code window} milliseconds of each other, to the same url with the same
+   * settings, together as a single batched request. The server must accept a JSON array of operations. A value of
+   * zero disables batching, this is the default setting.
+   */
+  @SuppressWarnings("unused")
+  public Executor<T> withBatching( int window )
+  {
+    _batchWindow = window;
     return this;
   }
 
@@ -109,7 +174,7 @@ public class Executor<T>
    */
   public T post()
   {
-    return (T)((Bindings)_requester.postOne( _reqArgs.getBindings() )).get( "data" );
+    return post( Requester.Format.Json );
   }
 
   /**
@@ -122,14 +187,57 @@ public class Executor<T>
    */
   public T post( Requester.Format format )
   {
-    return (T)((Bindings)_requester.postOne( "", _reqArgs.getBindings(), format )).get( "data" );
+    if( isBatching( format ) )
+    {
+      try
+      {
+        return postAsync( format ).join();
+      }
+      catch( CompletionException e )
+      {
+        throw ManExceptionUtil.unchecked( e.getCause() );
+      }
+    }
+    return getData( send( true, format ) );
+  }
+
+  /**
+   * Same as {@link #post()}, but does not block the calling thread.
+   */
+  public CompletableFuture<T> postAsync()
+  {
+    return postAsync( Requester.Format.Json );
+  }
+
+  /**
+   * Same as {@link #post(Requester.Format)}, but does not block the calling thread.
+   */
+  public CompletableFuture<T> postAsync( Requester.Format format )
+  {
+    boolean persisted = isPersistedQuery();
+    Bindings body = persisted ? PersistedQuery.makeBody( null, getQueryHash(), _reqArgs.getVariables() ) : _reqArgs.getBindings();
+    if( isBatching( format ) )
+    {
+      return OperationBatcher.enqueue( _url + _headers + _timeout, _requester, _batchWindow, body,
+        response -> persisted ? getFallbackBody( response ) : null )
+        .thenApply( this::getData );
+    }
+
+    return _requester.<Bindings>postOneAsync( "", body, format )
+      .thenCompose( response -> {
+        Bindings fallback = persisted ? getFallbackBody( response ) : null;
+        return fallback == null
+               ? CompletableFuture.completedFuture( response )
+               : _requester.<Bindings>postOneAsync( "", fallback, format );
+      } )
+      .thenApply( this::getData );
   }
 
   /**
    */
   public T get()
   {
-    return (T)((Bindings)_requester.getOne( _reqArgs.getBindings() )).get( "data" );
+    return get( Requester.Format.Json );
   }
 
   /**
@@ -142,6 +250,79 @@ public class Executor<T>
    */
   public T get( Requester.Format format )
   {
-    return (T)((Bindings)_requester.getOne( "", _reqArgs.getBindings(), format )).get( "data" );
+    return getData( send( false, format ) );
+  }
+
+  private Bindings send( boolean post, Requester.Format format )
+  {
+    if( !isPersistedQuery() )
+    {
+      return request( post, format, _reqArgs.getBindings() );
+    }
+
+    Bindings response = request( post, format, PersistedQuery.makeBody( null, getQueryHash(), _reqArgs.getVariables() ) );
+    Bindings fallback = getFallbackBody( response );
+    return fallback == null ? response : request( post, format, fallback );
+  }
+
+  private Bindings request( boolean post, Requester.Format format, Bindings body )
+  {
+    return post
+           ? (Bindings)_requester.postOne( "", body, format )
+           : _requester.getOne( "", body, format );
+  }
+
+  /**
+   * @return The body to send again if the server did not accept the persisted query, otherwise null
+   */
+  private Bindings getFallbackBody( Bindings response )
+  {
+    switch( PersistedQuery.getError( response ) )
+    {
+      case NotFound:
+        // send the query text along with the hash so the server registers it
+        return PersistedQuery.makeBody( _reqArgs.getQuery(), getQueryHash(), _reqArgs.getVariables() );
+      case NotSupported:
+        PERSISTED_QUERIES_UNSUPPORTED.put( _url, System.currentTimeMillis() + PERSISTED_QUERIES_RETRY );
+        return _reqArgs.getBindings();
+      default:
+        return null;
+    }
+  }
+
+  private boolean isPersistedQuery()
+  {
+    if( !_persistedQueries )
+    {
+      return false;
+    }
+    Long retryAt = PERSISTED_QUERIES_UNSUPPORTED.get( _url );
+    if( retryAt == null )
+    {
+      return true;
+    }
+    if( System.currentTimeMillis() < retryAt )
+    {
+      return false;
+    }
+    // the server may have been upgraded, try again
+    PERSISTED_QUERIES_UNSUPPORTED.remove( _url, retryAt );
+    return true;
+  }
+
+  private boolean isBatching( Requester.Format format )
+  {
+    return _batchWindow > 0 && format == Requester.Format.Json;
+  }
+
+  private String getQueryHash()
+  {
+    return _queryHash == null ? PersistedQuery.hash( _reqArgs.getQuery() ) : _queryHash;
+  }
+
+  private T getData( Bindings response )
+  {
+    //noinspection unchecked
+    return (T)response.get( "data" );
   }
 }
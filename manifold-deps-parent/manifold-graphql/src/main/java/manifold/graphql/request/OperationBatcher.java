@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.graphql.request;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import javax.script.Bindings;
+import manifold.api.json.Requester;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * Coalesces GraphQL operations issued within a short window into a single HTTP request. The request body is a JSON
+ * array of operations and the server responds with a JSON array of results in the same order. Operations are grouped
+ * by a key reflecting the url and request settings so only compatible operations share a request.
+ */
+class OperationBatcher
+{
+  static final int MAX_BATCH_SIZE = Integer.getInteger( "manifold.graphql.batch.size", 50 );
+  private static final Map<String, List<Operation>> PENDING = new HashMap<>();
+  private static final LocklessLazyVar<ScheduledExecutorService> SCHEDULER = LocklessLazyVar.make( () ->
+    Executors.newSingleThreadScheduledExecutor( r -> {
+      Thread thread = new Thread( r, "manifold-graphql-batch" );
+      thread.setDaemon( true );
+      return thread;
+    } ) );
+
+  /**
+   * @param key       Operations having the same key are sent together
+   * @param requester Sends the batch, the requester of the first operation in a batch is used
+   * @param window    The time in milliseconds to wait for more operations before sending the batch
+   * @param body      The request body of the operation
+   * @param fallback  Given the result of the operation, produces a body to send again or null if the result is final
+   *
+   * @return The result of the operation
+   */
+  static CompletableFuture<Bindings> enqueue( String key, Requester<Bindings> requester, int window,
+                                              Bindings body, Function<Bindings, Bindings> fallback )
+  {
+    Operation operation = new Operation( body, fallback, new CompletableFuture<>() );
+    List<Operation> batch;
+    boolean full;
+    boolean schedule;
+    synchronized( PENDING )
+    {
+      batch = PENDING.get( key );
+      schedule = batch == null;
+      if( schedule )
+      {
+        batch = new ArrayList<>();
+        PENDING.put( key, batch );
+      }
+      batch.add( operation );
+      full = batch.size() >= MAX_BATCH_SIZE;
+      if( full )
+      {
+        PENDING.remove( key );
+      }
+    }
+
+    if( full )
+    {
+      send( requester, batch );
+    }
+    else if( schedule )
+    {
+      List<Operation> scheduled = batch;
+      SCHEDULER.get().schedule( () -> {
+        boolean pending;
+        synchronized( PENDING )
+        {
+          pending = PENDING.remove( key, scheduled );
+        }
+        if( pending )
+        {
+          send( requester, scheduled );
+        }
+      }, window, TimeUnit.MILLISECONDS );
+    }
+    return operation._result;
+  }
+
+  private static void send( Requester<Bindings> requester, List<Operation> batch )
+  {
+    List<Bindings> bodies = new ArrayList<>( batch.size() );
+    for( Operation operation: batch )
+    {
+      bodies.add( operation._body );
+    }
+
+    requester.<Object>postManyAsync( "", bodies, Requester.Format.Json ).whenComplete( ( response, t ) -> {
+      if( t == null && !(response instanceof List && ((List)response).size() == batch.size()) )
+      {
+        t = new IllegalStateException( "Expected a batched response of " + batch.size() + " results, but received: " +
+                                       response );
+      }
+      if( t != null )
+      {
+        for( Operation operation: batch )
+        {
+          operation._result.completeExceptionally( t );
+        }
+        return;
+      }
+
+      List<Operation> resend = new ArrayList<>();
+      List results = (List)response;
+      for( int i = 0; i < batch.size(); i++ )
+      {
+        Operation operation = batch.get( i );
+        try
+        {
+          Bindings result = (Bindings)results.get( i );
+          Bindings body = operation._fallback.apply( result );
+          if( body == null )
+          {
+            operation._result.complete( result );
+          }
+          else
+          {
+            resend.add( new Operation( body, r -> null, operation._result ) );
+          }
+        }
+        catch( RuntimeException e )
+        {
+          operation._result.completeExceptionally( e );
+        }
+      }
+      if( !resend.isEmpty() )
+      {
+        send( requester, resend );
+      }
+    } );
+  }
+
+  private static class Operation
+  {
+    private final Bindings _body;
+    private final Function<Bindings, Bindings> _fallback;
+    private final CompletableFuture<Bindings> _result;
+
+    private Operation( Bindings body, Function<Bindings, Bindings> fallback, CompletableFuture<Bindings> result )
+    {
+      _body = body;
+      _fallback = fallback;
+      _result = result;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.graphql.request;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import javax.script.Bindings;
+import manifold.ext.DataBindings;
+
+/**
+ * Support for automatic persisted queries. Instead of the full query text a request carries the SHA-256 hash of the
+ * query in its {@code extensions}:
+ * <pre>
+ *   {"variables": {...}, "extensions": {"persistedQuery": {"version": 1, "sha256Hash": "..."}}}
+ * </pre>
+ * If the server does not know the hash it responds with a {@code PersistedQueryNotFound} error, in which case the
+ * request is sent again with both the query text and the hash so the server can register the query for subsequent
+ * requests.
+ */
+public final class PersistedQuery
+{
+  public enum Error
+  {
+    None, NotFound, NotSupported
+  }
+
+  private PersistedQuery()
+  {
+  }
+
+  /**
+   * @return The lowercase hex SHA-256 hash of {@code query} as expected by the persisted query protocol
+   */
+  public static String hash( String query )
+  {
+    MessageDigest digest;
+    try
+    {
+      digest = MessageDigest.getInstance( "SHA-256" );
+    }
+    catch( NoSuchAlgorithmException e )
+    {
+      throw new RuntimeException( e );
+    }
+    byte[] bytes = digest.digest( query.getBytes( StandardCharsets.UTF_8 ) );
+    StringBuilder sb = new StringBuilder( bytes.length * 2 );
+    for( byte b: bytes )
+    {
+      sb.append( Character.forDigit( (b >> 4) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @param query The query text or null to send the hash only
+   * @param hash  The hash of the query text
+   */
+  static Bindings makeBody( String query, String hash, Object variables )
+  {
+    DataBindings persistedQuery = new DataBindings();
+    persistedQuery.put( "version", 1 );
+    persistedQuery.put( "sha256Hash", hash );
+    DataBindings extensions = new DataBindings();
+    extensions.put( "persistedQuery", persistedQuery );
+
+    DataBindings body = new DataBindings();
+    if( query != null )
+    {
+      body.put( "query", query );
+    }
+    body.put( "variables", variables );
+    body.put( "extensions", extensions );
+    return body;
+  }
+
+  /**
+   * @return The persisted query error in the {@code errors} of {@code response}, if any
+   */
+  static Error getError( Object response )
+  {
+    Object errors = response instanceof Map ? ((Map)response).get( "errors" ) : null;
+    if( !(errors instanceof List) )
+    {
+      return Error.None;
+    }
+    for( Object error: (List)errors )
+    {
+      if( !(error instanceof Map) )
+      {
+        continue;
+      }
+      Object code = ((Map)error).get( "extensions" ) instanceof Map
+                    ? ((Map)((Map)error).get( "extensions" )).get( "code" )
+                    : null;
+      Object message = ((Map)error).get( "message" );
+      if( "PERSISTED_QUERY_NOT_FOUND".equals( code ) || "PersistedQueryNotFound".equals( message ) )
+      {
+        return Error.NotFound;
+      }
+      if( "PERSISTED_QUERY_NOT_SUPPORTED".equals( code ) || "PersistedQueryNotSupported".equals( message ) )
+      {
+        return Error.NotSupported;
+      }
+    }
+    return Error.None;
+  }
+}
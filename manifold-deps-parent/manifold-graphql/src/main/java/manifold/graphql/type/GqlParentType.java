@@ -94,6 +94,7 @@ import manifold.ext.api.IBindingType;
 import manifold.ext.api.IProxyFactory;
 import manifold.ext.api.Structural;
 import manifold.graphql.request.Executor;
+import manifold.graphql.request.PersistedQuery;
 import manifold.util.ManEscapeUtil;
 import manifold.util.ManStringUtil;
 import manifold.util.Pair;
@@ -313,15 +314,18 @@ class GqlParentType
 
   private void addRequestMethod( SrcLinkedClass srcClass, OperationDefinition operation )
   {
+    String queryText = AstPrinter.printAstCompact( operation );
     //noinspection unused
-    String query = ManEscapeUtil.escapeForJavaStringLiteral( AstPrinter.printAstCompact( operation ) );
+    String query = ManEscapeUtil.escapeForJavaStringLiteral( queryText );
+    //noinspection unused
+    String queryHash = PersistedQuery.hash( queryText );
     srcClass.addMethod( new SrcMethod()
       .addAnnotation( new SrcAnnotationExpression( DisableStringLiteralTemplates.class.getSimpleName() ) )
       .modifiers( Flags.DEFAULT )
       .name( "request" )
       .addParam( "url", String.class )
       .returns( new SrcType( "Executor<Result>" ) )
-      .body( "return new Executor<Result>(url, \"${operation.getOperation().name().toLowerCase()}\", \"$query\", getBindings());"
+      .body( "return new Executor<Result>(url, \"${operation.getOperation().name().toLowerCase()}\", \"$query\", \"$queryHash\", getBindings());"
       ) );
   }
 
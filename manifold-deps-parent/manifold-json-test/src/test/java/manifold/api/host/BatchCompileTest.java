@@ -0,0 +1,45 @@
+package manifold.api.host;
+
+import java.util.Arrays;
+import java.util.List;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaFileObject;
+import junit.framework.TestCase;
+import manifold.internal.host.RuntimeManifoldHost;
+import manifold.internal.javac.InMemoryClassJavaFileObject;
+import manifold.internal.javac.JavaParser;
+import manifold.internal.runtime.Bootstrap;
+
+/**
+ */
+public class BatchCompileTest extends TestCase
+{
+  private static final List<String> OPTIONS = Arrays.asList( "-source", "8", "-g", "-nowarn", "-Xlint:none", "-proc:none", "-parameters" );
+
+  public void testBatchCompilesSiblings()
+  {
+    Bootstrap.init();
+    JavaParser parser = RuntimeManifoldHost.get().getJavaParser();
+
+    DiagnosticCollector<JavaFileObject> errors = new DiagnosticCollector<>();
+    InMemoryClassJavaFileObject product = parser.compile( "abc.Product", Arrays.asList( "abc.Contact", "abc.Tree" ), OPTIONS, errors );
+    assertNotNull( product );
+    assertTrue( errors.getDiagnostics().isEmpty() );
+
+    // siblings compiled with the batch are cached
+    InMemoryClassJavaFileObject contact = parser.compile( "abc.Contact", Arrays.asList( "abc.Tree" ), OPTIONS, errors );
+    assertNotNull( contact );
+    assertSame( contact, parser.compile( "abc.Contact", OPTIONS, errors ) );
+    assertNotNull( parser.compile( "abc.Tree", OPTIONS, errors ) );
+    assertTrue( errors.getDiagnostics().isEmpty() );
+  }
+
+  public void testBatchWithUnknownType()
+  {
+    Bootstrap.init();
+    JavaParser parser = RuntimeManifoldHost.get().getJavaParser();
+
+    DiagnosticCollector<JavaFileObject> errors = new DiagnosticCollector<>();
+    assertNotNull( parser.compile( "abc.Person", Arrays.asList( "abc.DoesNotExist" ), OPTIONS, errors ) );
+  }
+}
@@ -0,0 +1,53 @@
+package manifold.api.host;
+
+import abc.Person;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import junit.framework.TestCase;
+import manifold.api.json.Json;
+
+public class JsonStreamTest extends TestCase
+{
+  public void testStreamArray()
+  {
+    String json = "[{\"Name\": \"Scott\", \"Age\": 40}, {\"Name\": \"Carson\", \"Age\": 12}, {\"Name\": \"Kai\", \"Age\": 9}]";
+    try( Stream<Person> people = Person.load().streamJson( json ) )
+    {
+      List<String> names = people
+        .filter( p -> p.getAge() > 10 )
+        .map( p -> p.getName() )
+        .collect( Collectors.toList() );
+      assertEquals( Arrays.asList( "Scott", "Carson" ), names );
+    }
+  }
+
+  public void testStreamNdjsonFile() throws Exception
+  {
+    File file = File.createTempFile( "people", ".ndjson" );
+    file.deleteOnExit();
+    Files.write( file.toPath(), "{\"Name\": \"Scott\"}\n{\"Name\": \"Carson\"}\n".getBytes( StandardCharsets.UTF_8 ) );
+    try( Stream<Person> people = Person.load().streamJsonFile( file ) )
+    {
+      Iterator<Person> iterator = people.iterator();
+      assertEquals( "Scott", iterator.next().getName() );
+      assertEquals( "Carson", iterator.next().getName() );
+      assertFalse( iterator.hasNext() );
+    }
+  }
+
+  public void testStreamValues()
+  {
+    assertEquals( Arrays.asList( 1, "two", null, Arrays.asList( 3 ) ),
+      Json.streamJson( new StringReader( "[1, \"two\", null, [3]]" ) ).collect( Collectors.toList() ) );
+    assertEquals( Arrays.asList( 1, 2, 3 ),
+      Json.streamJson( new StringReader( "[1, 2] 3" ) ).collect( Collectors.toList() ) );
+    assertEquals( 0, Json.streamJson( new StringReader( "[]" ) ).count() );
+  }
+}
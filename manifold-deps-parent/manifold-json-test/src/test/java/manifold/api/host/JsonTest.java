@@ -729,4 +729,14 @@ public class JsonTest extends TestCase
       "}",
       good.write().toJson() );
   }
+
+  public void testListPropertyIsView()
+  {
+    PrimitiveLists lists = PrimitiveLists.create( "id", 1.0, 1 );
+    lists.setArray_integers( Arrays.asList( 1, 2, 3 ) );
+    List<Integer> integers = lists.getArray_integers();
+    integers.set( 0, 5 );
+    assertEquals( Arrays.asList( 5, 2, 3 ), lists.getArray_integers() );
+    assertEquals( Arrays.asList( 5, 2, 3 ), lists.getBindings().get( "array_integers" ) );
+  }
 }
@@ -0,0 +1,41 @@
+package manifold.api.host;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.TestCase;
+import manifold.internal.runtime.Bootstrap;
+import manifold.internal.runtime.PrecompiledIndex;
+import manifold.internal.runtime.Precompiler;
+
+/**
+ */
+public class PrecompilerTest extends TestCase
+{
+  public void testPrecompileJson() throws Exception
+  {
+    Bootstrap.init();
+    File resources = new File( getClass().getResource( "/abc/Person.json" ).toURI() ).getParentFile().getParentFile();
+    Path output = Files.createTempDirectory( "precompiled" );
+
+    Precompiler precompiler = new Precompiler( Collections.singletonList( resources ), output.toFile(), Collections.singleton( "json" ), false );
+    assertTrue( precompiler.precompile() );
+
+    assertTrue( Files.isRegularFile( output.resolve( "abc/Person.class" ) ) );
+    assertTrue( Files.isRegularFile( output.resolve( "abc/sub/SubTest1.class" ) ) );
+
+    List<String> index = readIndex( output );
+    assertEquals( "#dynamic=false", index.get( 0 ) );
+    assertTrue( index.contains( "abc.Person" ) );
+    assertTrue( index.contains( "abc.sub.SubTest1" ) );
+  }
+
+  private List<String> readIndex( Path output ) throws IOException
+  {
+    return Files.readAllLines( output.resolve( PrecompiledIndex.RESOURCE ), StandardCharsets.UTF_8 );
+  }
+}
@@ -0,0 +1,135 @@
+package manifold.api.host;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import junit.framework.TestCase;
+import manifold.api.json.DefaultParser;
+import manifold.api.json.Json;
+import manifold.api.json.JsonEvent;
+import manifold.api.json.JsonReader;
+import manifold.api.json.StreamingParser;
+import manifold.util.StreamUtil;
+
+public class StreamingParserTest extends TestCase
+{
+  public void testEvents() throws ScriptException
+  {
+    JsonReader reader = new JsonReader( new StringReader( "{\"a\": [1, 2.5, 'x'], \"b\": {}, \"c\": [true, false, null]}" ) );
+    List<JsonEvent> events = new ArrayList<>();
+    for( JsonEvent event = reader.next(); event != JsonEvent.EOF; event = reader.next() )
+    {
+      events.add( event );
+    }
+    assertEquals( Arrays.asList(
+      JsonEvent.START_OBJECT,
+      JsonEvent.NAME, JsonEvent.START_ARRAY, JsonEvent.INTEGER, JsonEvent.DOUBLE, JsonEvent.STRING, JsonEvent.END_ARRAY,
+      JsonEvent.NAME, JsonEvent.START_OBJECT, JsonEvent.END_OBJECT,
+      JsonEvent.NAME, JsonEvent.START_ARRAY, JsonEvent.TRUE, JsonEvent.FALSE, JsonEvent.NULL, JsonEvent.END_ARRAY,
+      JsonEvent.END_OBJECT ), events );
+  }
+
+  public void testSameAsDefaultParser() throws Exception
+  {
+    for( String file: Arrays.asList( "Person.json", "Contact.json", "HasBigNumbers.json", "MixedArray.json", "Tree.json" ) )
+    {
+      String json = StreamUtil.getContent( StreamUtil.getInputStreamReader( getClass().getResourceAsStream( "/abc/" + file ) ) );
+      for( boolean big: new boolean[]{false, true} )
+      {
+        assertEquals( file, DefaultParser.instance().parseJson( json, big, false ),
+          StreamingParser.instance().parseJson( json, big, false ) );
+      }
+    }
+  }
+
+  public void testNumbers() throws ScriptException
+  {
+    List list = (List)StreamingParser.instance().parseJson( "[0, -1, 2147483647, 2147483648, 1.5e3, -0.25]", false, false );
+    assertEquals( Arrays.asList( 0, -1, Integer.MAX_VALUE, 2147483648L, 1500d, -0.25d ), list );
+
+    list = (List)StreamingParser.instance().parseJson( "[12345678901234567890, 1.10]", true, false );
+    assertEquals( Arrays.asList( new BigInteger( "12345678901234567890" ), new BigDecimal( "1.10" ) ), list );
+  }
+
+  public void testStrings() throws ScriptException
+  {
+    StringBuilder sb = new StringBuilder();
+    for( int i = 0; i < 10000; i++ )
+    {
+      sb.append( (char)('a' + i % 26) );
+    }
+    String json = "[\"" + sb + "\\n\\u00e9\\\"\", \"a\\/b\"]";
+    assertEquals( Arrays.asList( sb + "\né\"", "a/b" ), StreamingParser.instance().parseJson( json, false, false ) );
+  }
+
+  public void testSharedNames() throws ScriptException
+  {
+    List list = (List)StreamingParser.instance().parseJson( "[{\"name\": 1}, {\"name\": 2}]", false, false );
+    String name1 = ((Bindings)list.get( 0 )).keySet().iterator().next();
+    String name2 = ((Bindings)list.get( 1 )).keySet().iterator().next();
+    assertSame( name1, name2 );
+  }
+
+  public void testMultipleTopLevelValues() throws ScriptException
+  {
+    ByteBuffer bytes = ByteBuffer.wrap( "{\"a\": 1}\n{\"a\": 2}\n".getBytes( StandardCharsets.UTF_8 ) );
+    JsonReader reader = new JsonReader( bytes, false );
+    List<Object> values = new ArrayList<>();
+    while( reader.next() != JsonEvent.EOF )
+    {
+      values.add( reader.readValue() );
+    }
+    assertEquals( 2, values.size() );
+    assertEquals( 2, ((Bindings)values.get( 1 )).get( "a" ) );
+  }
+
+  public void testSkipValue() throws ScriptException
+  {
+    JsonReader reader = new JsonReader( new StringReader( "[{\"a\": [1, {\"b\": 2}]}, 3]" ) );
+    assertEquals( JsonEvent.START_ARRAY, reader.next() );
+    assertEquals( JsonEvent.START_OBJECT, reader.next() );
+    reader.skipValue();
+    assertEquals( JsonEvent.INTEGER, reader.next() );
+    assertEquals( 3, reader.getNumber() );
+    assertEquals( JsonEvent.END_ARRAY, reader.next() );
+  }
+
+  public void testErrors()
+  {
+    for( String json: Arrays.asList( "{\"a\" 1}", "[1 2]", "{\"a\": tru}", "[1,", "", "{a: 1}", "-x" ) )
+    {
+      try
+      {
+        StreamingParser.instance().parseJson( json, false, false );
+        fail( json );
+      }
+      catch( ScriptException e )
+      {
+        assertTrue( e.getMessage(), e.getMessage().startsWith( "[" ) );
+      }
+    }
+  }
+
+  public void testSelectParser()
+  {
+    String parser = Json.getParserName();
+    Json.setParserName( StreamingParser.class.getName() );
+    try
+    {
+      Bindings bindings = (Bindings)Json.fromJson( new StringReader( "{\"a\": [1, 2]}" ) );
+      assertEquals( Arrays.asList( 1, 2 ), bindings.get( "a" ) );
+      assertEquals( bindings, Json.fromJson( "{\"a\": [1, 2]}" ) );
+    }
+    finally
+    {
+      Json.setParserName( parser );
+    }
+  }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.host;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+import manifold.api.json.Writer;
+import manifold.ext.DataBindings;
+import manifold.util.JsonUtil;
+
+/**
+ */
+public class StreamingWriterTest extends TestCase
+{
+  public void testStreamedJsonMatchesString() throws IOException
+  {
+    DataBindings bindings = makeBindings( 50 );
+    String json = JsonUtil.toJson( bindings );
+
+    StringWriter writer = new StringWriter();
+    new Writer( bindings ).toJson( writer );
+    assertEquals( json, writer.toString() );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new Writer( bindings ).toJson( out );
+    assertEquals( json, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+
+  public void testStreamedXmlMatchesString()
+  {
+    DataBindings bindings = makeBindings( 50 );
+    String xml = JsonUtil.toXml( bindings );
+
+    StringWriter writer = new StringWriter();
+    new Writer( bindings ).toXml( writer );
+    assertEquals( xml, writer.toString() );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new Writer( bindings ).toXml( out );
+    assertEquals( xml, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+
+  public void testStreamedYamlMatchesString()
+  {
+    DataBindings bindings = makeBindings( 50 );
+    String yaml = new Writer( bindings ).toYaml();
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new Writer( bindings ).toYaml( out );
+    assertEquals( yaml, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+
+  public void testEscapesMatchStringLiteralEscapes()
+  {
+    DataBindings bindings = new DataBindings();
+    bindings.put( "text", "tab\there \"quoted\" back\\slash\nnew line \u00e9t\u00e9 \u2603" );
+    assertEquals( "{\n  \"text\": \"tab\\there \\\"quoted\\\" back\\\\slash\\nnew line \\u00e9t\\u00e9 \\u2603\"\n}",
+      JsonUtil.toJson( bindings ) );
+  }
+
+  /**
+   * Streams a payload large enough to flush the output buffer many times, with multi-byte characters straddling
+   * buffer boundaries.
+   */
+  public void testLargeStreamedJsonMatchesString() throws IOException
+  {
+    DataBindings bindings = makeBindings( 20_000 );
+    ((DataBindings)((List)bindings.get( "people" )).get( 7 )).put( "name", "\u00e9t\u00e9 \u2603 \ud83d\ude00" );
+    String json = JsonUtil.toJson( bindings );
+
+    StringBuilder sb = new StringBuilder();
+    JsonUtil.toJson( sb, 0, bindings );
+    assertEquals( json, sb.toString() );
+
+    StringWriter writer = new StringWriter();
+    JsonUtil.toJson( (Appendable)writer, 0, bindings );
+    assertEquals( json, writer.toString() );
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    JsonUtil.toJson( out, bindings );
+    assertEquals( json, new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+
+  private DataBindings makeBindings( int count )
+  {
+    List<Object> people = new ArrayList<>();
+    for( int i = 0; i < count; i++ )
+    {
+      DataBindings person = new DataBindings();
+      person.put( "name", "Person " + i );
+      person.put( "age", i % 90 );
+      person.put( "member", i % 2 == 0 );
+      person.put( "note", "line one\nline \"two\"" );
+      DataBindings address = new DataBindings();
+      address.put( "street", i + " Main St" );
+      address.put( "city", "Springfield" );
+      person.put( "address", address );
+      people.add( person );
+    }
+    DataBindings bindings = new DataBindings();
+    bindings.put( "people", people );
+    return bindings;
+  }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.json;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.script.Bindings;
+import junit.framework.TestCase;
+import manifold.util.StreamUtil;
+
+/**
+ */
+public class RequesterTest extends TestCase
+{
+  private HttpServer _server;
+  private ExecutorService _serverExecutor;
+  private AtomicInteger _flakyCount;
+  private AtomicInteger _versionedCount;
+  private String _urlBase;
+
+  @Override
+  protected void setUp() throws Exception
+  {
+    _server = HttpServer.create( new InetSocketAddress( "localhost", 0 ), 0 );
+    _server.createContext( "/users", this::handleUsers );
+    _server.createContext( "/fail", exchange -> respond( exchange, 500, "{\"error\": \"fail\"}" ) );
+    _server.createContext( "/slow", exchange -> {
+      try
+      {
+        Thread.sleep( 2000 );
+      }
+      catch( InterruptedException ignore )
+      {
+      }
+      respond( exchange, 200, "{}" );
+    } );
+    _flakyCount = new AtomicInteger();
+    _server.createContext( "/flaky", exchange -> {
+      int count = _flakyCount.incrementAndGet();
+      respond( exchange, count <= 2 ? 503 : 200, "{\"count\": " + count + "}" );
+    } );
+    _versionedCount = new AtomicInteger();
+    _server.createContext( "/versioned", exchange -> {
+      _versionedCount.incrementAndGet();
+      exchange.getResponseHeaders().add( "ETag", "\"v1\"" );
+      if( "\"v1\"".equals( exchange.getRequestHeaders().getFirst( "If-None-Match" ) ) )
+      {
+        exchange.sendResponseHeaders( 304, -1 );
+        exchange.close();
+      }
+      else
+      {
+        respond( exchange, 200, "{\"version\": 1}" );
+      }
+    } );
+    _server.createContext( "/accept", exchange -> {
+      String accept = exchange.getRequestHeaders().getFirst( "Accept" );
+      String id = exchange.getRequestHeaders().getFirst( "X-Id" );
+      respond( exchange, 200, "{\"accept\": \"" + accept + "\", \"id\": \"" + id + "\"}" );
+    } );
+    _server.createContext( "/fresh", exchange -> {
+      exchange.getResponseHeaders().add( "Cache-Control", "max-age=60" );
+      respond( exchange, 200, "{\"fresh\": true}" );
+    } );
+    _serverExecutor = Executors.newFixedThreadPool( 16 );
+    _server.setExecutor( _serverExecutor );
+    _server.start();
+    _urlBase = "http://localhost:" + _server.getAddress().getPort();
+  }
+
+  @Override
+  protected void tearDown()
+  {
+    _server.stop( 0 );
+    _serverExecutor.shutdownNow();
+  }
+
+  private void handleUsers( HttpExchange exchange ) throws IOException
+  {
+    String path = exchange.getRequestURI().getPath();
+    switch( exchange.getRequestMethod() )
+    {
+      case "GET":
+        if( path.equals( "/users" ) )
+        {
+          respond( exchange, 200, "[{\"id\": 1}, {\"id\": 2}, {\"id\": 3}]" );
+        }
+        else
+        {
+          respond( exchange, 200, "{\"id\": " + path.substring( "/users/".length() ) + "}" );
+        }
+        break;
+      case "POST":
+        String body;
+        try( InputStream in = exchange.getRequestBody() )
+        {
+          body = StreamUtil.getContent( StreamUtil.getInputStreamReader( in ) );
+        }
+        respond( exchange, 200, body );
+        break;
+      default:
+        respond( exchange, 405, "" );
+    }
+  }
+
+  private static void respond( HttpExchange exchange, int status, String body ) throws IOException
+  {
+    byte[] bytes = body.getBytes( StandardCharsets.UTF_8 );
+    exchange.getResponseHeaders().add( "Content-Type", "application/json" );
+    exchange.sendResponseHeaders( status, bytes.length == 0 ? -1 : bytes.length );
+    try( OutputStream out = exchange.getResponseBody() )
+    {
+      out.write( bytes );
+    }
+  }
+
+  public void testGetOne()
+  {
+    Bindings user = new Requester<Bindings>( _urlBase + "/users" ).getOne( "/42" );
+    assertEquals( 42, user.get( "id" ) );
+  }
+
+  public void testStreamMany()
+  {
+    try( Stream<Bindings> users = new Requester<Bindings>( _urlBase + "/users" ).streamMany( "" ) )
+    {
+      assertEquals( 6, users.mapToInt( user -> (Integer)user.get( "id" ) ).sum() );
+    }
+  }
+
+  public void testFormatHeaderIsPerRequest()
+  {
+    Requester<Object> req = new Requester<>( _urlBase + "/accept" ).withHeader( "X-Id", "42" );
+    assertEquals( "application/json", ((Bindings)req.getOne( "", null, Requester.Format.Json )).get( "accept" ) );
+    // the Accept header of the previous request does not leak into the shared headers
+    assertTextAccept( req.getOne( "", null, Requester.Format.Text ) );
+
+    ExecutorService executor = Executors.newFixedThreadPool( 8 );
+    try
+    {
+      req.withExecutor( executor );
+      List<CompletableFuture<Object>> futures = new ArrayList<>();
+      for( int i = 0; i < 100; i++ )
+      {
+        futures.add( req.getOneAsync( "", null, i % 2 == 0 ? Requester.Format.Json : Requester.Format.Text ) );
+      }
+      for( int i = 0; i < 100; i++ )
+      {
+        Object result = futures.get( i ).join();
+        if( i % 2 == 0 )
+        {
+          assertEquals( "application/json", ((Bindings)result).get( "accept" ) );
+          assertEquals( "42", ((Bindings)result).get( "id" ) );
+        }
+        else
+        {
+          assertTextAccept( result );
+        }
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  private static void assertTextAccept( Object result )
+  {
+    // a Text request leaves Accept to the transport, but keeps the other headers
+    String text = (String)result;
+    assertFalse( text, text.contains( "application/json" ) );
+    assertTrue( text, text.contains( "\"id\": \"42\"" ) );
+  }
+
+  public void testAsyncFanOut()
+  {
+    ExecutorService executor = Executors.newFixedThreadPool( 8 );
+    try
+    {
+      Requester<Bindings> req = new Requester<Bindings>( _urlBase + "/users" ).withExecutor( executor );
+      List<CompletableFuture<Bindings>> futures = new ArrayList<>();
+      for( int i = 0; i < 200; i++ )
+      {
+        futures.add( req.getOneAsync( "/" + i ) );
+      }
+      CompletableFuture.allOf( futures.toArray( new CompletableFuture[0] ) ).join();
+      List<Object> ids = futures.stream().map( f -> f.join().get( "id" ) ).collect( Collectors.toList() );
+      for( int i = 0; i < 200; i++ )
+      {
+        assertEquals( i, ids.get( i ) );
+      }
+    }
+    finally
+    {
+      executor.shutdownNow();
+    }
+  }
+
+  public void testPostOneAsync()
+  {
+    Bindings payload = new manifold.ext.DataBindings();
+    payload.put( "name", "Scott" );
+    Bindings echo = new Requester<Bindings>( _urlBase + "/users" ).<Bindings>postOneAsync( "", payload ).join();
+    assertEquals( "Scott", echo.get( "name" ) );
+  }
+
+  public void testErrorStatus()
+  {
+    Requester<Bindings> req = new Requester<>( _urlBase + "/fail" );
+    try
+    {
+      req.getOne();
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      assertTrue( e.getMessage(), e.getMessage().contains( "500" ) );
+    }
+
+    try
+    {
+      req.getOneAsync( "" ).join();
+      fail();
+    }
+    catch( CompletionException e )
+    {
+      assertTrue( e.getMessage(), e.getMessage().contains( "500" ) );
+    }
+  }
+
+  public void testCustomTransport()
+  {
+    AtomicInteger sent = new AtomicInteger();
+    UrlConnectionTransport delegate = new UrlConnectionTransport();
+    Requester<Bindings> req = new Requester<Bindings>( _urlBase + "/users" )
+      .withTransport( request -> {
+        sent.incrementAndGet();
+        assertEquals( "application/json", request.getHeaders().get( "Accept" ) );
+        return delegate.send( request );
+      } );
+    req.getOne( "/1" );
+    req.getOneAsync( "/2" ).join();
+    assertEquals( 2, sent.get() );
+  }
+
+  public void testReadTimeout()
+  {
+    try
+    {
+      new Requester<Bindings>( _urlBase + "/slow" ).withReadTimeout( 200 ).getOne();
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      assertTrue( e.getCause() instanceof SocketTimeoutException );
+    }
+  }
+
+  public void testRetriesIdempotentRequests()
+  {
+    Requester<Bindings> req = new Requester<Bindings>( _urlBase + "/flaky" ).withRetries( 3, 10 );
+    assertEquals( 3, req.getOne().get( "count" ) );
+
+    _flakyCount.set( 0 );
+    assertEquals( 3, req.getOneAsync( "" ).join().get( "count" ) );
+  }
+
+  public void testDoesNotRetryPost()
+  {
+    Requester<Bindings> req = new Requester<Bindings>( _urlBase + "/flaky" ).withRetries( 3, 10 );
+    try
+    {
+      req.postOne( new manifold.ext.DataBindings() );
+      fail();
+    }
+    catch( RuntimeException e )
+    {
+      assertEquals( 1, _flakyCount.get() );
+    }
+  }
+
+  public void testResponseCache()
+  {
+    HttpResponseCache cache = new HttpResponseCache();
+    Requester<Bindings> req = new Requester<Bindings>( _urlBase ).withResponseCache( cache );
+    for( int i = 0; i < 5; i++ )
+    {
+      assertEquals( 1, req.getOne( "/versioned" ).get( "version" ) );
+      assertEquals( true, req.getOne( "/fresh" ).get( "fresh" ) );
+    }
+    // every versioned request reaches the server, all but the first are answered 304
+    assertEquals( 5, _versionedCount.get() );
+    assertEquals( 4, cache.getRevalidations() );
+    // only the first fresh request reaches the server
+    assertEquals( 4, cache.getHits() );
+    assertEquals( 10, cache.getRequests() );
+    assertEquals( 0.8, cache.getHitRate(), 0.0001 );
+  }
+}
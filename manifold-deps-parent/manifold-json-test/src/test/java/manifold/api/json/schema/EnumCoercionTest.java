@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.json.schema;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import junit.framework.TestCase;
+import manifold.ext.RuntimeMethods;
+import manifold.ext.api.IBindingType;
+
+/**
+ */
+public class EnumCoercionTest extends TestCase
+{
+  public void testStringValues()
+  {
+    assertSame( Mixed.Alpha, RuntimeMethods.coerce( "alpha", Mixed.class ) );
+    assertSame( Mixed.Beta, RuntimeMethods.coerce( "beta", Mixed.class ) );
+  }
+
+  public void testNumericValuesNormalize()
+  {
+    assertSame( Mixed.One, RuntimeMethods.coerce( 1, Mixed.class ) );
+    assertSame( Mixed.One, RuntimeMethods.coerce( 1L, Mixed.class ) );
+    assertSame( Mixed.One, RuntimeMethods.coerce( 1.0, Mixed.class ) );
+    assertSame( Mixed.One, RuntimeMethods.coerce( new BigDecimal( "1.00" ), Mixed.class ) );
+    assertSame( Mixed.One, RuntimeMethods.coerce( "1", Mixed.class ) );
+    assertSame( Mixed.Half, RuntimeMethods.coerce( 0.5f, Mixed.class ) );
+    assertSame( Mixed.Half, RuntimeMethods.coerce( "0.5", Mixed.class ) );
+  }
+
+  public void testBooleanValues()
+  {
+    assertSame( Mixed.Yes, RuntimeMethods.coerce( true, Mixed.class ) );
+    assertSame( Mixed.Yes, RuntimeMethods.coerce( "true", Mixed.class ) );
+  }
+
+  public void testLargeIntegralValuesAreExact()
+  {
+    // both values are above 2^53, as doubles they are equal
+    assertSame( Big.Odd, RuntimeMethods.coerce( 9007199254740993L, Big.class ) );
+    assertSame( Big.Even, RuntimeMethods.coerce( 9007199254740992L, Big.class ) );
+    assertSame( Big.Odd, RuntimeMethods.coerce( new BigInteger( "9007199254740993" ), Big.class ) );
+    assertSame( Big.Odd, RuntimeMethods.coerce( new BigDecimal( "9007199254740993.00" ), Big.class ) );
+    assertSame( Big.Odd, RuntimeMethods.coerce( "9007199254740993", Big.class ) );
+  }
+
+  public void testExactMatchTakesPrecedence()
+  {
+    assertSame( TextFirst.Number, RuntimeMethods.coerce( 1, TextFirst.class ) );
+    assertSame( TextFirst.Text, RuntimeMethods.coerce( "1", TextFirst.class ) );
+    assertSame( NumberFirst.Number, RuntimeMethods.coerce( 1, NumberFirst.class ) );
+    assertSame( NumberFirst.Text, RuntimeMethods.coerce( "1", NumberFirst.class ) );
+  }
+
+  public enum Mixed implements IBindingType
+  {
+    Alpha( "alpha" ), Beta( "beta" ), One( 1 ), Half( 0.5 ), Yes( true );
+
+    private final Object _value;
+
+    Mixed( Object value )
+    {
+      _value = value;
+    }
+
+    @Override
+    public Object toBindingValue()
+    {
+      return _value;
+    }
+  }
+
+  public enum Big implements IBindingType
+  {
+    Even( 9007199254740992L ), Odd( 9007199254740993L );
+
+    private final long _value;
+
+    Big( long value )
+    {
+      _value = value;
+    }
+
+    @Override
+    public Object toBindingValue()
+    {
+      return _value;
+    }
+  }
+
+  public enum TextFirst implements IBindingType
+  {
+    Text( "1" ), Number( 1 );
+
+    private final Object _value;
+
+    TextFirst( Object value )
+    {
+      _value = value;
+    }
+
+    @Override
+    public Object toBindingValue()
+    {
+      return _value;
+    }
+  }
+
+  public enum NumberFirst implements IBindingType
+  {
+    Number( 1 ), Text( "1" );
+
+    private final Object _value;
+
+    NumberFirst( Object value )
+    {
+      _value = value;
+    }
+
+    @Override
+    public Object toBindingValue()
+    {
+      return _value;
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package manifold.internal.host;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.TestCase;
+import manifold.api.host.IModule;
+import manifold.api.type.ITypeManifold;
+import manifold.internal.runtime.Bootstrap;
+
+/**
+ */
+public class GeneratedSourceCacheTest extends TestCase
+{
+  public void testCachesProducedSource()
+  {
+    Bootstrap.init();
+    IModule module = RuntimeManifoldHost.get().getSingleModule();
+    GeneratedSourceCache cache = new GeneratedSourceCache( module, 10 );
+    Set<ITypeManifold> tms = module.findTypeManifoldsFor( "abc.Product" );
+
+    AtomicInteger produced = new AtomicInteger();
+    assertEquals( "source", cache.get( "abc.Product", null, tms, () -> {
+      produced.incrementAndGet();
+      return new GeneratedSourceCache.Produced( "source", false );
+    } ) );
+    assertEquals( "source", cache.get( "abc.Product", null, tms, () -> {
+      produced.incrementAndGet();
+      return new GeneratedSourceCache.Produced( "other", false );
+    } ) );
+    assertEquals( 1, produced.get() );
+    assertEquals( 1, cache.getHits() );
+    assertEquals( 1, cache.getMisses() );
+  }
+
+  public void testSourceWithDiagnosticsIsNotCached()
+  {
+    Bootstrap.init();
+    IModule module = RuntimeManifoldHost.get().getSingleModule();
+    GeneratedSourceCache cache = new GeneratedSourceCache( module, 10 );
+    Set<ITypeManifold> tms = module.findTypeManifoldsFor( "abc.Contact" );
+
+    assertEquals( "errant", cache.get( "abc.Contact", null, tms, () -> new GeneratedSourceCache.Produced( "errant", true ) ) );
+    assertEquals( "fixed", cache.get( "abc.Contact", null, tms, () -> new GeneratedSourceCache.Produced( "fixed", false ) ) );
+  }
+}
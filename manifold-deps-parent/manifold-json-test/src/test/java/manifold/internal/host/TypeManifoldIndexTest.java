@@ -0,0 +1,40 @@
+package manifold.internal.host;
+
+import java.util.HashSet;
+import java.util.Set;
+import junit.framework.TestCase;
+import manifold.api.host.IModule;
+import manifold.api.type.ITypeManifold;
+import manifold.internal.runtime.Bootstrap;
+
+/**
+ */
+public class TypeManifoldIndexTest extends TestCase
+{
+  public void testMatchesIsType()
+  {
+    Bootstrap.init();
+    IModule module = RuntimeManifoldHost.get().getSingleModule();
+
+    for( String fqn: new String[]{"abc.Product", "abc.Product.dimensions", "abc.Product$dimensions", "abc.Nope",
+                                  "abc", "java.lang.String"} )
+    {
+      assertEquals( fqn, findByIsType( module, fqn ), module.findTypeManifoldsFor( fqn ) );
+    }
+    assertFalse( module.findTypeManifoldsFor( "abc.Product" ).isEmpty() );
+    assertTrue( module.findTypeManifoldsFor( "java.lang.String" ).isEmpty() );
+  }
+
+  private static Set<ITypeManifold> findByIsType( IModule module, String fqn )
+  {
+    Set<ITypeManifold> tms = new HashSet<>();
+    for( ITypeManifold tm: module.getTypeManifolds() )
+    {
+      if( tm.isType( fqn ) )
+      {
+        tms.add( tm );
+      }
+    }
+    return tms;
+  }
+}
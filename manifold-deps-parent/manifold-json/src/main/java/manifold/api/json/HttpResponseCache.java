@@ -0,0 +1,370 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import manifold.util.JsonUtil;
+import manifold.util.ManExceptionUtil;
+import manifold.util.StreamUtil;
+
+/**
+ * An in-process cache of GET responses for use with {@link Requester#withResponseCache(HttpResponseCache)}. A cache
+ * instance may be shared between requesters.
+ * <p/>
+ * Responses are keyed by URL and request headers. A response is cached if it has an {@code ETag} or
+ * {@code Last-Modified} validator or a {@code Cache-Control: max-age}, and is not {@code no-store}. While fresh according
+ * to {@code max-age} a cached response is served without a request, afterward it is revalidated with a conditional
+ * GET ({@code If-None-Match} / {@code If-Modified-Since}) and served again if the server answers 304 Not Modified.
+ * <p/>
+ * The number of responses kept is bounded, least recently used responses are dropped first.
+ */
+public class HttpResponseCache
+{
+  private final Map<String, Entry> _entries;
+
+  //statistics
+  private final AtomicInteger _requests = new AtomicInteger();
+  private final AtomicInteger _hits = new AtomicInteger();
+  private final AtomicInteger _revalidations = new AtomicInteger();
+
+  /**
+   * A cache keeping the number of responses specified with the {@code manifold.json.response.cache.size} system
+   * property, default is 500.
+   */
+  public HttpResponseCache()
+  {
+    this( Integer.getInteger( "manifold.json.response.cache.size", 500 ) );
+  }
+
+  public HttpResponseCache( int maxEntries )
+  {
+    _entries = new LinkedHashMap<String, Entry>( 16, 0.75f, true )
+    {
+      @Override
+      protected boolean removeEldestEntry( Map.Entry<String, Entry> eldest )
+      {
+        return size() > maxEntries;
+      }
+    };
+  }
+
+  /**
+   * Sends the {@code request} with {@code transport}, unless a fresh response is cached.
+   */
+  public IHttpTransport.Response send( IHttpTransport transport, IHttpTransport.Request request ) throws IOException
+  {
+    if( !isCacheable( request ) )
+    {
+      return transport.send( request );
+    }
+
+    _requests.incrementAndGet();
+    String key = makeKey( request );
+    Entry entry = get( key );
+    if( entry != null && entry.isFresh() )
+    {
+      _hits.incrementAndGet();
+      return entry.toResponse();
+    }
+    return handleResponse( key, entry, transport.send( entry == null ? request : entry.makeConditional( request ) ) );
+  }
+
+  /**
+   * Sends the {@code request} asynchronously with {@code transport}, unless a fresh response is cached.
+   */
+  public CompletableFuture<IHttpTransport.Response> sendAsync( IHttpTransport transport, IHttpTransport.Request request, Executor executor )
+  {
+    if( !isCacheable( request ) )
+    {
+      return transport.sendAsync( request, executor );
+    }
+
+    _requests.incrementAndGet();
+    String key = makeKey( request );
+    Entry entry = get( key );
+    if( entry != null && entry.isFresh() )
+    {
+      _hits.incrementAndGet();
+      return CompletableFuture.completedFuture( entry.toResponse() );
+    }
+    return transport.sendAsync( entry == null ? request : entry.makeConditional( request ), executor )
+      .thenApply( response -> {
+        try
+        {
+          return handleResponse( key, entry, response );
+        }
+        catch( IOException e )
+        {
+          throw ManExceptionUtil.unchecked( e );
+        }
+      } );
+  }
+
+  private IHttpTransport.Response handleResponse( String key, Entry entry, IHttpTransport.Response response ) throws IOException
+  {
+    int status = response.getStatus();
+    if( status == 304 && entry != null )
+    {
+      response.close();
+      Entry revalidated = entry.revalidate( response );
+      put( key, revalidated );
+      _revalidations.incrementAndGet();
+      return revalidated.toResponse();
+    }
+
+    if( status != 200 )
+    {
+      return response;
+    }
+
+    CacheControl cacheControl = new CacheControl( response.getHeader( "Cache-Control" ) );
+    String eTag = response.getHeader( "ETag" );
+    String lastModified = response.getHeader( "Last-Modified" );
+    if( cacheControl._noStore || (eTag == null && lastModified == null && cacheControl.expiresAt() == 0) )
+    {
+      // nothing to reuse, stream the response as usual
+      return response;
+    }
+
+    byte[] body;
+    try( IHttpTransport.Response r = response )
+    {
+      body = StreamUtil.getContent( r.getBody() );
+    }
+    Entry newEntry = new Entry( body, response.getHeader( "Content-Type" ), eTag, lastModified, cacheControl.expiresAt() );
+    put( key, newEntry );
+    return newEntry.toResponse();
+  }
+
+  private boolean isCacheable( IHttpTransport.Request request )
+  {
+    return request.getMethod().equals( "GET" );
+  }
+
+  private String makeKey( IHttpTransport.Request request )
+  {
+    StringBuilder key = new StringBuilder( request.getUrl().toString() );
+    if( request.getJsonValue() != null )
+    {
+      // GET arguments are added to the URL by the transport
+      key.append( '\n' ).append( JsonUtil.toJson( request.getJsonValue() ) );
+    }
+    new TreeMap<>( request.getHeaders() ).forEach( ( name, value ) -> key.append( '\n' ).append( name ).append( ": " ).append( value ) );
+    return key.toString();
+  }
+
+  private Entry get( String key )
+  {
+    synchronized( _entries )
+    {
+      return _entries.get( key );
+    }
+  }
+
+  private void put( String key, Entry entry )
+  {
+    synchronized( _entries )
+    {
+      _entries.put( key, entry );
+    }
+  }
+
+  public void clear()
+  {
+    synchronized( _entries )
+    {
+      _entries.clear();
+    }
+  }
+
+  /**
+   * @return The number of GET requests made through this cache
+   */
+  public int getRequests()
+  {
+    return _requests.get();
+  }
+
+  /**
+   * @return The number of fresh responses served without making a request
+   */
+  public int getHits()
+  {
+    return _hits.get();
+  }
+
+  /**
+   * @return The number of cached responses served after the server answered 304 Not Modified to a conditional GET
+   */
+  public int getRevalidations()
+  {
+    return _revalidations.get();
+  }
+
+  /**
+   * @return The fraction of GET requests served from cached responses, fresh or revalidated
+   */
+  public double getHitRate()
+  {
+    int requests = getRequests();
+    return requests == 0 ? 0.0 : (double)(getHits() + getRevalidations()) / requests;
+  }
+
+  @Override
+  public String toString()
+  {
+    return "HttpResponseCache(requests: " + getRequests() + ", hits: " + getHits() +
+           ", revalidations: " + getRevalidations() + ", hit rate: " + getHitRate() + ")";
+  }
+
+  private static class CacheControl
+  {
+    private boolean _noStore;
+    private boolean _noCache;
+    private long _maxAge;
+
+    CacheControl( String value )
+    {
+      if( value == null )
+      {
+        return;
+      }
+      for( String directive: value.split( "," ) )
+      {
+        directive = directive.trim().toLowerCase();
+        if( directive.equals( "no-store" ) )
+        {
+          _noStore = true;
+        }
+        else if( directive.equals( "no-cache" ) )
+        {
+          // cache, but always revalidate
+          _noCache = true;
+        }
+        else if( directive.startsWith( "max-age=" ) )
+        {
+          try
+          {
+            _maxAge = Long.parseLong( directive.substring( "max-age=".length() ).trim() );
+          }
+          catch( NumberFormatException ignore )
+          {
+          }
+        }
+      }
+    }
+
+    long expiresAt()
+    {
+      return !_noCache && _maxAge > 0 ? System.currentTimeMillis() + _maxAge * 1000 : 0;
+    }
+  }
+
+  private static class Entry
+  {
+    private final byte[] _body;
+    private final String _contentType;
+    private final String _eTag;
+    private final String _lastModified;
+    private final long _expiresAt;
+
+    Entry( byte[] body, String contentType, String eTag, String lastModified, long expiresAt )
+    {
+      _body = body;
+      _contentType = contentType;
+      _eTag = eTag;
+      _lastModified = lastModified;
+      _expiresAt = expiresAt;
+    }
+
+    boolean isFresh()
+    {
+      return System.currentTimeMillis() < _expiresAt;
+    }
+
+    IHttpTransport.Request makeConditional( IHttpTransport.Request request )
+    {
+      if( _eTag != null )
+      {
+        request = request.withHeader( "If-None-Match", _eTag );
+      }
+      if( _lastModified != null )
+      {
+        request = request.withHeader( "If-Modified-Since", _lastModified );
+      }
+      return request;
+    }
+
+    Entry revalidate( IHttpTransport.Response notModified )
+    {
+      // a 304 response may update the validators and freshness
+      String eTag = notModified.getHeader( "ETag" );
+      String lastModified = notModified.getHeader( "Last-Modified" );
+      return new Entry( _body, _contentType,
+        eTag == null ? _eTag : eTag,
+        lastModified == null ? _lastModified : lastModified,
+        new CacheControl( notModified.getHeader( "Cache-Control" ) ).expiresAt() );
+    }
+
+    IHttpTransport.Response toResponse()
+    {
+      return new IHttpTransport.Response()
+      {
+        @Override
+        public int getStatus()
+        {
+          return 200;
+        }
+
+        @Override
+        public String getHeader( String name )
+        {
+          switch( name.toLowerCase() )
+          {
+            case "content-type":
+              return _contentType;
+            case "etag":
+              return _eTag;
+            case "last-modified":
+              return _lastModified;
+          }
+          return null;
+        }
+
+        @Override
+        public InputStream getBody()
+        {
+          return new ByteArrayInputStream( _body );
+        }
+
+        @Override
+        public void close()
+        {
+        }
+      };
+    }
+  }
+}
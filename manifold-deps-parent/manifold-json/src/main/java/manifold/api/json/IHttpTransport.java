@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import manifold.util.ManExceptionUtil;
+
+/**
+ * The transport {@link Requester} uses to exchange HTTP messages. The default transport is {@link UrlConnectionTransport},
+ * provide a different one with {@link Requester#withTransport(IHttpTransport)} e.g., to use a non-blocking client.
+ */
+public interface IHttpTransport
+{
+  /**
+   * Sends the {@code request} and returns the response as soon as its status and headers are available. The response
+   * body is read directly from {@link Response#getBody()}, the caller must close the response.
+   */
+  Response send( Request request ) throws IOException;
+
+  /**
+   * Sends the {@code request} without blocking the calling thread. By default this calls {@link #send(Request)} using
+   * the {@code executor}, a transport that is non-blocking by nature should override this method.
+   */
+  default CompletableFuture<Response> sendAsync( Request request, Executor executor )
+  {
+    return CompletableFuture.supplyAsync( () -> {
+      try
+      {
+        return send( request );
+      }
+      catch( IOException e )
+      {
+        throw ManExceptionUtil.unchecked( e );
+      }
+    }, executor );
+  }
+
+  /**
+   * An HTTP request sending an optional JSON value, either as JSON encoded URL arguments for GET and DELETE or as the
+   * message body for other methods.
+   */
+  final class Request
+  {
+    private final String _method;
+    private final URL _url;
+    private final Map<String, String> _headers;
+    private final Object _jsonValue;
+    private final int _connectTimeout;
+    private final int _readTimeout;
+
+    public Request( String method, URL url, Map<String, String> headers, Object jsonValue, int connectTimeout )
+    {
+      this( method, url, headers, jsonValue, connectTimeout, 0 );
+    }
+
+    public Request( String method, URL url, Map<String, String> headers, Object jsonValue, int connectTimeout, int readTimeout )
+    {
+      _method = method;
+      _url = url;
+      _headers = Collections.unmodifiableMap( new LinkedHashMap<>( headers ) );
+      _jsonValue = jsonValue;
+      _connectTimeout = connectTimeout;
+      _readTimeout = readTimeout;
+    }
+
+    /**
+     * @return A copy of this request having the additional header {@code name : value}
+     */
+    public Request withHeader( String name, String value )
+    {
+      Map<String, String> headers = new LinkedHashMap<>( _headers );
+      headers.put( name, value );
+      return new Request( _method, _url, headers, _jsonValue, _connectTimeout, _readTimeout );
+    }
+
+    public String getMethod()
+    {
+      return _method;
+    }
+
+    public URL getUrl()
+    {
+      return _url;
+    }
+
+    public Map<String, String> getHeaders()
+    {
+      return _headers;
+    }
+
+    public Object getJsonValue()
+    {
+      return _jsonValue;
+    }
+
+    /**
+     * @return The connection timeout in milliseconds, zero is an infinite timeout, a negative value indicates default
+     */
+    public int getConnectTimeout()
+    {
+      return _connectTimeout;
+    }
+
+    /**
+     * @return The read timeout in milliseconds, zero is an infinite timeout
+     */
+    public int getReadTimeout()
+    {
+      return _readTimeout;
+    }
+
+    /**
+     * @return True if the JSON value is sent as URL arguments as opposed to the message body
+     */
+    public boolean hasUrlArguments()
+    {
+      return _method.equals( "GET" ) || _method.equals( "DELETE" );
+    }
+  }
+
+  /**
+   * An HTTP response. Closing the response releases its connection, a pooling transport may reuse the connection.
+   */
+  interface Response extends Closeable
+  {
+    int getStatus();
+
+    /**
+     * @return The value of the header {@code name}, case-insensitive, or null if the response does not have the header
+     */
+    String getHeader( String name );
+
+    /**
+     * @return The response body or, if the status is an error, the error body. Never null.
+     */
+    InputStream getBody() throws IOException;
+  }
+}
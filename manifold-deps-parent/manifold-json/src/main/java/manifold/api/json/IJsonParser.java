@@ -16,7 +16,10 @@
 
 package manifold.api.json;
 
+import java.io.IOException;
+import java.io.Reader;
 import javax.script.ScriptException;
+import manifold.util.StreamUtil;
 
 /**
  */
@@ -36,6 +39,24 @@ public interface IJsonParser
    */
   Object parseJson( String jsonText, boolean withBigNumbers, boolean withTokens ) throws ScriptException;
 
+  /**
+   * Parse Json text from a reader.  The default implementation reads the text into a String, parsers that can read
+   * directly from the reader should override this.
+   *
+   * @see #parseJson(String, boolean, boolean)
+   */
+  default Object parseJson( Reader jsonText, boolean withBigNumbers, boolean withTokens ) throws ScriptException
+  {
+    try
+    {
+      return parseJson( StreamUtil.getContent( jsonText ), withBigNumbers, withTokens );
+    }
+    catch( IOException e )
+    {
+      throw new ScriptException( e );
+    }
+  }
+
   static IJsonParser getDefaultParser()
   {
     return DefaultParser.instance();
@@ -17,8 +17,10 @@
 package manifold.api.json;
 
 
+import java.io.Reader;
 import java.net.URL;
 import java.util.List;
+import java.util.stream.Stream;
 import javax.script.Bindings;
 import javax.script.ScriptException;
 import manifold.api.host.IManifoldHost;
@@ -96,6 +98,49 @@ public class Json
     }
   }
 
+  /**
+   * Parse JSON from a reader as a javax.script.Bindings instance.  The reader is not closed.
+   *
+   * @param json A reader over standard JSON formatted text
+   *
+   * @return A JSON value (primitive/boxed type, String, List of JSON values, or Bindings of String/JSON value)
+   * @see StreamingParser
+   */
+  public static Object fromJson( Reader json )
+  {
+    return fromJson( json, false );
+  }
+  public static Object fromJson( Reader json, boolean withBigNumbers )
+  {
+    try
+    {
+      return PARSER.get().parseJson( json, withBigNumbers, false );
+    }
+    catch( ScriptException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  /**
+   * Stream the values of a JSON document one at a time.  If the document is an array, its elements are streamed,
+   * otherwise consecutive top-level values are streamed e.g., from newline delimited JSON.  Only the current value is
+   * held in memory.  Closing the stream closes the reader.
+   *
+   * @param json A reader over standard JSON formatted text
+   *
+   * @return A stream of JSON values (primitive/boxed type, String, List of JSON values, or Bindings of String/JSON value)
+   * @see JsonReader
+   */
+  public static Stream<Object> streamJson( Reader json )
+  {
+    return streamJson( json, false );
+  }
+  public static Stream<Object> streamJson( Reader json, boolean withBigNumbers )
+  {
+    return JsonValueIterator.stream( new JsonReader( json, withBigNumbers ) );
+  }
+
   /**
    * Makes a tree of structure types reflecting the Bindings.
    * <p/>
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.api.json;
+
+/**
+ * The events {@link JsonReader} produces while pulling through a JSON document
+ */
+public enum JsonEvent
+{
+  START_OBJECT,
+  END_OBJECT,
+  START_ARRAY,
+  END_ARRAY,
+  /** A member name, see {@link JsonReader#getString()} */
+  NAME,
+  /** A string value, see {@link JsonReader#getString()} */
+  STRING,
+  /** An integer value, see {@link JsonReader#getNumber()} */
+  INTEGER,
+  /** A decimal value, see {@link JsonReader#getNumber()} */
+  DOUBLE,
+  TRUE,
+  FALSE,
+  NULL,
+  /** The end of input */
+  EOF
+}
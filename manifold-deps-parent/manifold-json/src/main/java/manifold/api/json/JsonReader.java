@@ -0,0 +1,729 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.api.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import javax.script.Bindings;
+import javax.script.ScriptException;
+import manifold.ext.DataBindings;
+
+/**
+ * A pull parser reading JSON directly from a {@link Reader}, {@link InputStream}, or {@link ByteBuffer}.  Call
+ * {@link #next()} to advance to the next {@link JsonEvent}, or {@link #readValue()} to build the value starting at the
+ * current event as {@link Bindings}, {@link List}, and simple values like {@link Json#fromJson(String)} does.
+ * <p/>
+ * The reader scans a fixed char buffer, allocates nothing for punctuation, and shares the String instances of
+ * repeated member names.  It accepts the same syntax as {@link DefaultParser} including single-quoted strings, and
+ * reads any number of consecutive top-level values e.g., newline delimited JSON.
+ */
+public final class JsonReader implements Closeable
+{
+  private static final int BUFFER_SIZE = 8192;
+  private static final int NAMES_SIZE = 512; // power of two
+  private static final int MAX_NAME_LENGTH = 32;
+
+  // container states
+  private static final byte TOP = 0;
+  private static final byte ARRAY_FIRST = 1;
+  private static final byte ARRAY_NEXT = 2;
+  private static final byte OBJECT_FIRST = 3;
+  private static final byte OBJECT_VALUE = 4;
+  private static final byte OBJECT_NEXT = 5;
+
+  private final Reader _source;
+  private final boolean _withBigNumbers;
+  private final char[] _buf;
+  private int _pos;
+  private int _limit;
+  private long _bufOffset;
+  private int _line;
+  private long _lineStart;
+
+  private byte[] _stack;
+  private int _depth;
+
+  private JsonEvent _event;
+  private String _string;
+  private char[] _text;
+  private int _textLength;
+  private final String[] _names;
+
+  public JsonReader( Reader source )
+  {
+    this( source, false );
+  }
+
+  /**
+   * @param withBigNumbers Read decimal numbers as BigDecimals and integers as BigIntegers, otherwise they are Double
+   *                       and Integer (or Long)
+   */
+  public JsonReader( Reader source, boolean withBigNumbers )
+  {
+    _source = source;
+    _withBigNumbers = withBigNumbers;
+    _buf = new char[BUFFER_SIZE];
+    _line = 1;
+    _stack = new byte[32];
+    _stack[0] = TOP;
+    _text = new char[64];
+    _names = new String[NAMES_SIZE];
+  }
+
+  public JsonReader( InputStream source, boolean withBigNumbers )
+  {
+    this( new InputStreamReader( source, StandardCharsets.UTF_8 ), withBigNumbers );
+  }
+
+  public JsonReader( ByteBuffer source, boolean withBigNumbers )
+  {
+    this( new ByteBufferInputStream( source ), withBigNumbers );
+  }
+
+  /**
+   * Advances to the next event.  Syntax errors and I/O errors are reported as a ScriptException.
+   */
+  public JsonEvent next() throws ScriptException
+  {
+    _string = null;
+    int c = nextNonWhitespace();
+    switch( _stack[_depth] )
+    {
+      case TOP:
+        if( c < 0 )
+        {
+          return _event = JsonEvent.EOF;
+        }
+        return readValueStart( c );
+
+      case ARRAY_FIRST:
+        if( c == ']' )
+        {
+          return pop( JsonEvent.END_ARRAY );
+        }
+        _stack[_depth] = ARRAY_NEXT;
+        return readValueStart( c );
+
+      case ARRAY_NEXT:
+        if( c == ']' )
+        {
+          return pop( JsonEvent.END_ARRAY );
+        }
+        expect( c, ',', "']'" );
+        return readValueStart( nextNonWhitespace() );
+
+      case OBJECT_FIRST:
+        if( c == '}' )
+        {
+          return pop( JsonEvent.END_OBJECT );
+        }
+        return readName( c );
+
+      case OBJECT_NEXT:
+        if( c == '}' )
+        {
+          return pop( JsonEvent.END_OBJECT );
+        }
+        expect( c, ',', "'}'" );
+        return readName( nextNonWhitespace() );
+
+      case OBJECT_VALUE:
+        expect( c, ':', "':'" );
+        _stack[_depth] = OBJECT_NEXT;
+        return readValueStart( nextNonWhitespace() );
+
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  /**
+   * @return The current event
+   */
+  public JsonEvent getEvent()
+  {
+    return _event;
+  }
+
+  /**
+   * @return The text of the current {@link JsonEvent#NAME} or {@link JsonEvent#STRING} event, otherwise the text of the
+   * current number or constant
+   */
+  public String getString()
+  {
+    if( _string == null && _event != null )
+    {
+      switch( _event )
+      {
+        case INTEGER:
+        case DOUBLE:
+          _string = new String( _text, 0, _textLength );
+          break;
+        case TRUE:
+          _string = "true";
+          break;
+        case FALSE:
+          _string = "false";
+          break;
+        case NULL:
+          _string = "null";
+          break;
+      }
+    }
+    return _string;
+  }
+
+  /**
+   * @return The value of the current {@link JsonEvent#INTEGER} or {@link JsonEvent#DOUBLE} event
+   */
+  public Number getNumber()
+  {
+    if( _event == JsonEvent.DOUBLE )
+    {
+      return _withBigNumbers ? new BigDecimal( _text, 0, _textLength ) : Double.parseDouble( getString() );
+    }
+    if( _event != JsonEvent.INTEGER )
+    {
+      throw new IllegalStateException( "Not a number: " + _event );
+    }
+    if( _withBigNumbers )
+    {
+      return new BigInteger( getString() );
+    }
+    if( _textLength <= 9 )
+    {
+      // fits in an int, no need for a string
+      boolean negative = _text[0] == '-';
+      int value = 0;
+      for( int i = negative ? 1 : 0; i < _textLength; i++ )
+      {
+        value = value * 10 + (_text[i] - '0');
+      }
+      return negative ? -value : value;
+    }
+    try
+    {
+      long value = Long.parseLong( getString() );
+      return value == (int)value ? (Number)(int)value : (Number)value;
+    }
+    catch( NumberFormatException e )
+    {
+      // same as DefaultParser
+      return 0;
+    }
+  }
+
+  /**
+   * Reads the value starting at the current event e.g., if the current event is {@link JsonEvent#START_OBJECT} reads
+   * through the matching {@link JsonEvent#END_OBJECT} and returns the object as Bindings.
+   *
+   * @return A JSON value (primitive/boxed type, String, List of JSON values, or Bindings of String/JSON value)
+   */
+  public Object readValue() throws ScriptException
+  {
+    switch( _event )
+    {
+      case START_OBJECT:
+        // using a LinkedHashMap to preserve insertion order, same as DefaultParser
+        Bindings map = new DataBindings( new LinkedHashMap<>() );
+        while( next() == JsonEvent.NAME )
+        {
+          String name = _string;
+          next();
+          map.put( name, readValue() );
+        }
+        return map;
+      case START_ARRAY:
+        List<Object> list = new ArrayList<>();
+        while( next() != JsonEvent.END_ARRAY )
+        {
+          list.add( readValue() );
+        }
+        return list;
+      case STRING:
+        return _string;
+      case INTEGER:
+      case DOUBLE:
+        return getNumber();
+      case TRUE:
+        return true;
+      case FALSE:
+        return false;
+      case NULL:
+        return null;
+      default:
+        throw error( "Unexpected " + _event );
+    }
+  }
+
+  /**
+   * Skips the value starting at the current event
+   */
+  public void skipValue() throws ScriptException
+  {
+    if( _event == JsonEvent.START_OBJECT || _event == JsonEvent.START_ARRAY )
+    {
+      int depth = _depth - 1;
+      while( _depth > depth )
+      {
+        next();
+      }
+    }
+    else if( _event == JsonEvent.NAME || _event == JsonEvent.END_OBJECT || _event == JsonEvent.END_ARRAY ||
+             _event == JsonEvent.EOF )
+    {
+      throw error( "Unexpected " + _event );
+    }
+  }
+
+  /**
+   * @return The nesting depth of the current position, zero at the top level
+   */
+  public int getDepth()
+  {
+    return _depth;
+  }
+
+  @Override
+  public void close() throws IOException
+  {
+    _source.close();
+  }
+
+  private JsonEvent pop( JsonEvent event )
+  {
+    _depth--;
+    return _event = event;
+  }
+
+  private void push( byte state )
+  {
+    if( ++_depth == _stack.length )
+    {
+      _stack = Arrays.copyOf( _stack, _depth * 2 );
+    }
+    _stack[_depth] = state;
+  }
+
+  private JsonEvent readName( int c ) throws ScriptException
+  {
+    if( c != '"' && c != '\'' )
+    {
+      throw error( "expecting 'a string', found " + describe( c ) );
+    }
+    _stack[_depth] = OBJECT_VALUE;
+    readString( (char)c, true );
+    return _event = JsonEvent.NAME;
+  }
+
+  private JsonEvent readValueStart( int c ) throws ScriptException
+  {
+    switch( c )
+    {
+      case '{':
+        push( OBJECT_FIRST );
+        return _event = JsonEvent.START_OBJECT;
+      case '[':
+        push( ARRAY_FIRST );
+        return _event = JsonEvent.START_ARRAY;
+      case '"':
+      case '\'':
+        readString( (char)c, false );
+        return _event = JsonEvent.STRING;
+      case '-':
+      case '0':
+      case '1':
+      case '2':
+      case '3':
+      case '4':
+      case '5':
+      case '6':
+      case '7':
+      case '8':
+      case '9':
+        return _event = readNumber( c );
+      default:
+        if( c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' )
+        {
+          return _event = readConstant( c );
+        }
+        throw error( "Unexpected token " + describe( c ) );
+    }
+  }
+
+  /*
+    string = '"' {char} '"' | "'" {char} "'".
+    char = unescaped | "\" ('"' | "\" | "/" | "b" | "f" | "n" | "r" | "t" | "u" hex hex hex hex).
+  */
+  private void readString( char quote, boolean isName ) throws ScriptException
+  {
+    // fast path: the whole string is in the buffer and has no escapes
+    for( int i = _pos; i < _limit; i++ )
+    {
+      char c = _buf[i];
+      if( c == quote )
+      {
+        _string = isName ? name( _buf, _pos, i - _pos ) : new String( _buf, _pos, i - _pos );
+        _pos = i + 1;
+        return;
+      }
+      if( c == '\\' || c == '\n' )
+      {
+        break;
+      }
+    }
+
+    _textLength = 0;
+    while( true )
+    {
+      int c = read();
+      if( c < 0 )
+      {
+        throw error( "Unterminated string" );
+      }
+      if( c == quote )
+      {
+        break;
+      }
+      if( c == '\\' )
+      {
+        c = readEscape();
+      }
+      else if( c == '\n' )
+      {
+        newLine();
+      }
+      append( (char)c );
+    }
+    _string = isName ? name( _text, 0, _textLength ) : new String( _text, 0, _textLength );
+  }
+
+  private int readEscape() throws ScriptException
+  {
+    int c = read();
+    switch( c )
+    {
+      case '"':
+      case '\'':
+      case '\\':
+      case '/':
+        return c;
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        int u = 0;
+        for( int i = 0; i < 4; i++ )
+        {
+          int digit = Character.digit( read(), 16 );
+          if( digit < 0 )
+          {
+            throw error( "Invalid unicode escape" );
+          }
+          u = u * 16 + digit;
+        }
+        return u;
+      default:
+        throw error( "Invalid escape " + describe( c ) );
+    }
+  }
+
+  /*
+    number = [ "-" ] int [ frac ] [ exp ].
+    exp = ("e" | "E") [ "-" | "+" ] digit {digit}.
+    frac = "." digit {digit}.
+    int = "0" |  digit19 {digit}.
+  */
+  private JsonEvent readNumber( int c ) throws ScriptException
+  {
+    boolean isDouble = false;
+    _textLength = 0;
+    if( c == '-' )
+    {
+      append( '-' );
+      c = read();
+    }
+    if( c == '0' )
+    {
+      append( '0' );
+    }
+    else
+    {
+      c = readDigits( c );
+      unread( c );
+    }
+    c = read();
+    if( c == '.' )
+    {
+      isDouble = true;
+      append( '.' );
+      c = readDigits( read() );
+    }
+    if( c == 'e' || c == 'E' )
+    {
+      isDouble = true;
+      append( 'e' );
+      c = read();
+      if( c == '-' || c == '+' )
+      {
+        append( (char)c );
+        c = read();
+      }
+      c = readDigits( c );
+    }
+    unread( c );
+    return isDouble ? JsonEvent.DOUBLE : JsonEvent.INTEGER;
+  }
+
+  /**
+   * Reads one or more digits starting with {@code c}
+   *
+   * @return The char following the digits
+   */
+  private int readDigits( int c ) throws ScriptException
+  {
+    if( c < '0' || c > '9' )
+    {
+      throw error( "Malformed number, found " + describe( c ) );
+    }
+    do
+    {
+      append( (char)c );
+      c = read();
+    } while( c >= '0' && c <= '9' );
+    return c;
+  }
+
+  private JsonEvent readConstant( int c ) throws ScriptException
+  {
+    _textLength = 0;
+    do
+    {
+      append( (char)c );
+      c = read();
+    } while( c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' );
+    unread( c );
+
+    if( textEquals( "true" ) )
+    {
+      return JsonEvent.TRUE;
+    }
+    if( textEquals( "false" ) )
+    {
+      return JsonEvent.FALSE;
+    }
+    if( textEquals( "null" ) )
+    {
+      return JsonEvent.NULL;
+    }
+    throw error( "Unexpected token '" + new String( _text, 0, _textLength ) + "'" );
+  }
+
+  private boolean textEquals( String s )
+  {
+    if( s.length() != _textLength )
+    {
+      return false;
+    }
+    for( int i = 0; i < _textLength; i++ )
+    {
+      if( s.charAt( i ) != _text[i] )
+      {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Answers a shared String for a member name, most documents repeat the same names over and over
+   */
+  private String name( char[] chars, int offset, int length )
+  {
+    if( length > MAX_NAME_LENGTH )
+    {
+      return new String( chars, offset, length );
+    }
+
+    int hash = 0;
+    for( int i = 0; i < length; i++ )
+    {
+      hash = 31 * hash + chars[offset + i];
+    }
+    int index = (hash ^ (hash >>> 16)) & (NAMES_SIZE - 1);
+    String name = _names[index];
+    if( name != null && name.length() == length )
+    {
+      boolean match = true;
+      for( int i = 0; i < length; i++ )
+      {
+        if( name.charAt( i ) != chars[offset + i] )
+        {
+          match = false;
+          break;
+        }
+      }
+      if( match )
+      {
+        return name;
+      }
+    }
+    return _names[index] = new String( chars, offset, length );
+  }
+
+  private void append( char c )
+  {
+    if( _textLength == _text.length )
+    {
+      _text = Arrays.copyOf( _text, _textLength * 2 );
+    }
+    _text[_textLength++] = c;
+  }
+
+  private void expect( int c, char expected, String orElse ) throws ScriptException
+  {
+    if( c != expected )
+    {
+      throw error( "expecting '" + expected + "' or " + orElse + ", found " + describe( c ) );
+    }
+  }
+
+  private int nextNonWhitespace() throws ScriptException
+  {
+    while( true )
+    {
+      if( _pos == _limit && !fill() )
+      {
+        return -1;
+      }
+      char c = _buf[_pos++];
+      if( c == '\n' )
+      {
+        newLine();
+      }
+      else if( c != ' ' && c != '\t' && c != '\r' )
+      {
+        return c;
+      }
+    }
+  }
+
+  private int read() throws ScriptException
+  {
+    if( _pos == _limit && !fill() )
+    {
+      return -1;
+    }
+    return _buf[_pos++];
+  }
+
+  private void unread( int c )
+  {
+    if( c >= 0 )
+    {
+      _pos--;
+    }
+  }
+
+  private boolean fill() throws ScriptException
+  {
+    // keep the last char around for unread()
+    if( _limit > 0 )
+    {
+      _buf[0] = _buf[_limit - 1];
+      _bufOffset += _limit - 1;
+      _pos = _limit = 1;
+    }
+    try
+    {
+      int count = _source.read( _buf, _limit, _buf.length - _limit );
+      if( count <= 0 )
+      {
+        return false;
+      }
+      _limit += count;
+      return true;
+    }
+    catch( IOException e )
+    {
+      throw new ScriptException( e );
+    }
+  }
+
+  private void newLine()
+  {
+    _line++;
+    _lineStart = _bufOffset + _pos;
+  }
+
+  private ScriptException error( String message )
+  {
+    int column = (int)(_bufOffset + _pos - _lineStart);
+    return new ScriptException( "[" + _line + ":" + column + "] " + message );
+  }
+
+  private static String describe( int c )
+  {
+    return c < 0 ? "EOF" : "'" + (char)c + "'";
+  }
+
+  private static class ByteBufferInputStream extends InputStream
+  {
+    private final ByteBuffer _buffer;
+
+    ByteBufferInputStream( ByteBuffer buffer )
+    {
+      _buffer = buffer;
+    }
+
+    @Override
+    public int read()
+    {
+      return _buffer.hasRemaining() ? _buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len )
+    {
+      if( !_buffer.hasRemaining() )
+      {
+        return -1;
+      }
+      len = Math.min( len, _buffer.remaining() );
+      _buffer.get( b, off, len );
+      return len;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.api.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.script.ScriptException;
+
+/**
+ * Iterates the top-level values of a JSON document one at a time, the elements of top-level arrays are iterated in
+ * place of the arrays.  So both a huge JSON array and newline delimited JSON are read in constant memory, only the
+ * current value is built.
+ */
+final class JsonValueIterator implements Iterator<Object>
+{
+  private final JsonReader _reader;
+  private boolean _inArray;
+  private boolean _ready;
+  private boolean _hasNext;
+
+  JsonValueIterator( JsonReader reader )
+  {
+    _reader = reader;
+  }
+
+  static Stream<Object> stream( JsonReader reader )
+  {
+    return StreamSupport.stream(
+      Spliterators.spliteratorUnknownSize( new JsonValueIterator( reader ), Spliterator.ORDERED ), false )
+      .onClose( () -> {
+        try
+        {
+          reader.close();
+        }
+        catch( IOException e )
+        {
+          throw new UncheckedIOException( e );
+        }
+      } );
+  }
+
+  @Override
+  public boolean hasNext()
+  {
+    if( !_ready )
+    {
+      try
+      {
+        advance();
+      }
+      catch( ScriptException e )
+      {
+        throw new RuntimeException( e );
+      }
+      _ready = true;
+    }
+    return _hasNext;
+  }
+
+  @Override
+  public Object next()
+  {
+    if( !hasNext() )
+    {
+      throw new NoSuchElementException();
+    }
+    _ready = false;
+    try
+    {
+      return _reader.readValue();
+    }
+    catch( ScriptException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private void advance() throws ScriptException
+  {
+    JsonEvent event = _reader.next();
+    while( true )
+    {
+      if( _inArray && event == JsonEvent.END_ARRAY && _reader.getDepth() == 0 )
+      {
+        _inArray = false;
+      }
+      else if( !_inArray && event == JsonEvent.START_ARRAY && _reader.getDepth() == 1 )
+      {
+        _inArray = true;
+      }
+      else
+      {
+        _hasNext = event != JsonEvent.EOF;
+        return;
+      }
+      event = _reader.next();
+    }
+  }
+}
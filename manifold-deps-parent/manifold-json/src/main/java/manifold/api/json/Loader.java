@@ -16,8 +16,15 @@
 
 package manifold.api.json;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
 import java.util.Arrays;
+import java.util.stream.Stream;
 import manifold.json.extensions.java.net.URL.ManUrlExt;
+import manifold.util.StreamUtil;
 
 /**
  * This class is used as part of the JSON API. It provides methods to load an instance of a JSON interface from
@@ -25,6 +32,13 @@ import manifold.json.extensions.java.net.URL.ManUrlExt;
  * <p/>
  * See {@link Requester}, obtained from a JSON API object's {@code send()} method, for methods to send an HTTP request
  * using GET, POST, PUT, PATCH, & DELETE.
+ * <p/>
+ * Use the {@code streamJsonXxx()} methods to process large JSON arrays or newline delimited JSON one element at a time:
+ * <pre><code>
+ * try( Stream&lt;Person&gt; people = Person.load().streamJsonFile( file ) ) {
+ *   people.filter( p -&gt; p.getAge() &gt; 21 ).forEach( ... );
+ * }
+ * </code></pre>
  *
  * @param <E> The sub-interface extending {@link IJsonBindingsBacked} or {@link IJsonList}
  */
@@ -71,6 +85,44 @@ public class Loader<E>
   }
 
 
+  /**
+   * Streams the elements of a JSON array, or consecutive top-level JSON values e.g., from newline delimited JSON, one
+   * element at a time.  Only the current element is held in memory.  Closing the stream closes the reader.
+   */
+  public Stream<E> streamJson( Reader reader )
+  {
+    //noinspection unchecked
+    return (Stream<E>)Json.streamJson( reader );
+  }
+
+  public Stream<E> streamJson( String jsonText )
+  {
+    return streamJson( new StringReader( jsonText ) );
+  }
+
+  public Stream<E> streamJsonUrl( java.net.URL url )
+  {
+    try
+    {
+      return streamJson( StreamUtil.getInputStreamReader( url.openStream() ) );
+    }
+    catch( IOException e )
+    {
+      throw new UncheckedIOException( e );
+    }
+  }
+
+  public Stream<E> streamJsonFile( java.io.File file )
+  {
+    try
+    {
+      return streamJson( StreamUtil.getInputStreamReader( Files.newInputStream( file.toPath() ) ) );
+    }
+    catch( IOException e )
+    {
+      throw new UncheckedIOException( e );
+    }
+  }
 
   public E fromYaml( String yamlText )
   {
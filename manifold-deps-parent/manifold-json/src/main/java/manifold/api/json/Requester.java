@@ -16,6 +16,9 @@
 
 package manifold.api.json;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -23,7 +26,15 @@ import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import manifold.json.extensions.java.net.URL.ManUrlExt;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import manifold.util.StreamUtil;
+import manifold.util.concurrent.LocklessLazyVar;
 
 /**
  * This class defines methods to simplify making HTTP requests involved with basic REST API calls supporting via GET,
@@ -55,6 +66,22 @@ public class Requester<T>
   private Format _format;
   private Map<String, String> _headers;
   private int _timeout;
+  private int _readTimeout;
+  private int _retries;
+  private long _retryBackoff;
+  private HttpResponseCache _responseCache;
+  private IHttpTransport _transport;
+  private Executor _executor;
+
+  private static final IHttpTransport DEFAULT_TRANSPORT = new UrlConnectionTransport();
+  private static final LocklessLazyVar<Executor> DEFAULT_EXECUTOR = LocklessLazyVar.make( Requester::makeDefaultExecutor );
+  private static final LocklessLazyVar<ScheduledExecutorService> RETRY_SCHEDULER = LocklessLazyVar.make( () ->
+    Executors.newSingleThreadScheduledExecutor( r -> {
+      Thread thread = new Thread( r, "manifold-requester-retry" );
+      thread.setDaemon( true );
+      return thread;
+    } ) );
+  private static final long MAX_RETRY_BACKOFF = 30_000;
 
   public enum Format
   {
@@ -80,6 +107,12 @@ public class Requester<T>
     _format = Format.Json;
     _headers = new HashMap<>();
     _timeout = 0;
+    _readTimeout = 0;
+    _retries = 0;
+    _retryBackoff = 0;
+    _responseCache = null;
+    _transport = DEFAULT_TRANSPORT;
+    _executor = null;
   }
 
   /**
@@ -143,6 +176,65 @@ public class Requester<T>
     return this;
   }
 
+  /**
+   * The read timeout setting in milliseconds. If the timeout expires before data is available to read from the
+   * response, a {@link java.net.SocketTimeoutException} is thrown. A value of zero is interpreted as an infinite
+   * timeout, this is the default setting.
+   */
+  @SuppressWarnings("unused")
+  public Requester<T> withReadTimeout( int readTimeout )
+  {
+    _readTimeout = readTimeout;
+    return this;
+  }
+
+  /**
+   * Retry idempotent requests (GET, PUT, DELETE) up to {@code retries} times if sending fails, including timeouts, or
+   * if the server responds with 429, 502, 503, or 504. The delay before each retry starts at {@code backoff}
+   * milliseconds and doubles with each retry, up to 30 seconds. By default requests are not retried.
+   */
+  @SuppressWarnings("unused")
+  public Requester<T> withRetries( int retries, long backoff )
+  {
+    _retries = retries;
+    _retryBackoff = backoff;
+    return this;
+  }
+
+  /**
+   * Cache GET responses in {@code cache}, honoring {@code ETag}, {@code Last-Modified}, and {@code Cache-Control}. A
+   * cache may be shared between requesters, see {@link HttpResponseCache}.
+   */
+  @SuppressWarnings("unused")
+  public Requester<T> withResponseCache( HttpResponseCache cache )
+  {
+    _responseCache = cache;
+    return this;
+  }
+
+  /**
+   * Set the transport used to exchange HTTP messages. The default transport, {@link UrlConnectionTransport}, pools
+   * keep-alive connections.
+   */
+  @SuppressWarnings("unused")
+  public Requester<T> withTransport( IHttpTransport transport )
+  {
+    _transport = transport;
+    return this;
+  }
+
+  /**
+   * Set the executor running the {@code xxxAsync()} requests with a blocking transport. The default executor is a
+   * shared pool of daemon threads sized with the {@code manifold.json.requester.threads} system property (default 32),
+   * so any number of concurrent async requests uses a bounded number of threads.
+   */
+  @SuppressWarnings("unused")
+  public Requester<T> withExecutor( Executor executor )
+  {
+    _executor = executor;
+    return this;
+  }
+
   /**
    * Use HTTP GET for a single {@code T} JSON API object specified in the {@code urlSuffix}, such as {@code "/108"}.
    *
@@ -261,6 +353,60 @@ public class Requester<T>
     return request( urlSuffix, Http.GET, format, arguments );
   }
 
+  /**
+   * Same as calling:
+   * {@link #streamMany(String, Object)} with {@code streamMany(urlSuffix, null)}
+   */
+  public Stream<T> streamMany( String urlSuffix )
+  {
+    return streamMany( urlSuffix, null );
+  }
+
+  /**
+   * Make an HTTP GET request to {@code urlBase + urlSuffix} with a JSON response, streaming the response one element
+   * at a time as it is read.  Use this instead of {@link #getMany(String, Object)} for large responses, close the
+   * stream when done.
+   *
+   * @param arguments A JSON value object, sent in the URL as JSON encoded arguments, nullable
+   * @param urlSuffix A suffix, such as "/108", nullable
+   *
+   * @return A stream of JSON values parsed from the JSON response, see {@link Json#streamJson(java.io.Reader)}
+   */
+  public Stream<T> streamMany( String urlSuffix, Object arguments )
+  {
+    IHttpTransport.Request request = makeRequest( urlSuffix, Http.GET, Format.Json, arguments );
+    try
+    {
+      // large responses are not cached
+      IHttpTransport.Response response = send( request, false );
+      try
+      {
+        checkStatus( request, response );
+      }
+      catch( IOException e )
+      {
+        response.close();
+        throw e;
+      }
+      //noinspection unchecked
+      return (Stream<T>)(Stream)Json.streamJson( StreamUtil.getInputStreamReader( response.getBody() ) )
+        .onClose( () -> {
+          try
+          {
+            response.close();
+          }
+          catch( IOException e )
+          {
+            throw new RuntimeException( e );
+          }
+        } );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Same as calling:
    * {@link #postOne(String, Object, Format)} with {@code postOne("", payload, _format)}
@@ -509,47 +655,374 @@ public class Requester<T>
   }
 
 
+  /**
+   * Same as calling:
+   * {@link #getOneAsync(String, Object, Format)} with {@code getOneAsync(urlSuffix, null, _format)}
+   */
+  public CompletableFuture<T> getOneAsync( String urlSuffix )
+  {
+    return getOneAsync( urlSuffix, null, _format );
+  }
+
+  /**
+   * Same as {@link #getOne(String, Object, Format)}, but does not block the calling thread.
+   *
+   * @return A future completing with the {@code T} JSON API object or exceptionally if the request fails
+   */
+  public CompletableFuture<T> getOneAsync( String urlSuffix, Object arguments, Format format )
+  {
+    return requestAsync( urlSuffix, Http.GET, format, arguments );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #getManyAsync(String, Object, Format)} with {@code getManyAsync(urlSuffix, null, _format)}
+   */
+  public CompletableFuture<IJsonList<T>> getManyAsync( String urlSuffix )
+  {
+    return getManyAsync( urlSuffix, null, _format );
+  }
+
+  /**
+   * Same as {@link #getMany(String, Object, Format)}, but does not block the calling thread.
+   *
+   * @return A future completing with the list of {@code T} JSON API objects or exceptionally if the request fails
+   */
+  public CompletableFuture<IJsonList<T>> getManyAsync( String urlSuffix, Object arguments, Format format )
+  {
+    return requestAsync( urlSuffix, Http.GET, format, arguments );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #postOneAsync(String, Object, Format)} with {@code postOneAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> postOneAsync( String urlSuffix, T payload )
+  {
+    return postOneAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #postOne(String, Object, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> postOneAsync( String urlSuffix, T payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.POST, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #postManyAsync(String, List, Format)} with {@code postManyAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> postManyAsync( String urlSuffix, List<T> payload )
+  {
+    return postManyAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #postMany(String, List, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> postManyAsync( String urlSuffix, List<T> payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.POST, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #putOneAsync(String, Object, Format)} with {@code putOneAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> putOneAsync( String urlSuffix, T payload )
+  {
+    return putOneAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #putOne(String, Object, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> putOneAsync( String urlSuffix, T payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.PUT, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #putManyAsync(String, List, Format)} with {@code putManyAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> putManyAsync( String urlSuffix, List<T> payload )
+  {
+    return putManyAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #putMany(String, List, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> putManyAsync( String urlSuffix, List<T> payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.PUT, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #patchOneAsync(String, Object, Format)} with {@code patchOneAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> patchOneAsync( String urlSuffix, T payload )
+  {
+    return patchOneAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #patchOne(String, Object, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> patchOneAsync( String urlSuffix, T payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.PATCH, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #patchManyAsync(String, List, Format)} with {@code patchManyAsync(urlSuffix, payload, _format)}
+   */
+  public <R> CompletableFuture<R> patchManyAsync( String urlSuffix, List<T> payload )
+  {
+    return patchManyAsync( urlSuffix, payload, _format );
+  }
+
+  /**
+   * Same as {@link #patchMany(String, List, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> patchManyAsync( String urlSuffix, List<T> payload, Format format )
+  {
+    return requestAsync( urlSuffix, Http.PATCH, format, payload );
+  }
+
+  /**
+   * Same as calling:
+   * {@link #deleteAsync(String, Object, Format)} with {@code deleteAsync(urlSuffix, null, _format)}
+   */
+  public <R> CompletableFuture<R> deleteAsync( String urlSuffix )
+  {
+    return deleteAsync( urlSuffix, null, _format );
+  }
+
+  /**
+   * Same as {@link #delete(String, Object, Format)}, but does not block the calling thread.
+   */
+  public <R> CompletableFuture<R> deleteAsync( String urlSuffix, Object arguments, Format format )
+  {
+    return requestAsync( urlSuffix, Http.DELETE, format, arguments );
+  }
+
   private <R> R request( String urlSuffix, Http method, Format format, Object jsonValue )
   {
+    IHttpTransport.Request request = makeRequest( urlSuffix, method, format, jsonValue );
+    try( IHttpTransport.Response response = send( request, true ) )
+    {
+      return readResponse( request, response, format );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
+  private <R> CompletableFuture<R> requestAsync( String urlSuffix, Http method, Format format, Object jsonValue )
+  {
+    IHttpTransport.Request request = makeRequest( urlSuffix, method, format, jsonValue );
+    return sendAsync( request, 0 )
+      .thenApply( response -> {
+        try( IHttpTransport.Response r = response )
+        {
+          return readResponse( request, r, format );
+        }
+        catch( IOException e )
+        {
+          throw new RuntimeException( e );
+        }
+      } );
+  }
+
+  private IHttpTransport.Request makeRequest( String urlSuffix, Http method, Format format, Object jsonValue )
+  {
+    // copy the headers, this Requester may be shared between concurrent requests
+    Map<String, String> headers = new HashMap<>( _headers );
     switch( format )
     {
       case Json:
-        _headers.put( "Accept", "application/json" );
-        return Request.send( ( url, p, m ) -> ManUrlExt.sendJsonRequest( url, m, jsonValue, _headers, _timeout ),
-          method, jsonValue, _urlBase, urlSuffix );
+        headers.put( "Accept", "application/json" );
+        break;
       case Yaml:
-        _headers.put( "Accept", "application/x-yaml, application/yaml, text/yaml;q=0.9" );
-        return Request.send( ( url, p, m ) -> ManUrlExt.sendYamlRequest( url, m, jsonValue, _headers, _timeout ),
-          method, jsonValue, _urlBase, urlSuffix );
-      case Text:
-        return Request.send( ( url, p, m ) -> ManUrlExt.sendPlainTextRequest( url, m, jsonValue, _headers, _timeout ),
-          method, jsonValue, _urlBase, urlSuffix );
+        headers.put( "Accept", "application/x-yaml, application/yaml, text/yaml;q=0.9" );
+        break;
+    }
+
+    String url = urlSuffix == null ? _urlBase : _urlBase + urlSuffix;
+    try
+    {
+      return new IHttpTransport.Request( method.name(), new URL( url ), headers, jsonValue, _timeout, _readTimeout );
+    }
+    catch( MalformedURLException e )
+    {
+      throw new RuntimeException( e );
     }
-    throw new IllegalArgumentException( "format: " + format );
   }
 
-  @FunctionalInterface
-  private interface Request
+  private IHttpTransport.Response send( IHttpTransport.Request request, boolean cache ) throws IOException
   {
-    Object send( URL url, Object payload, String method );
-
-    static <R> R send( Request sender, Http method, Object jsonValue, String urlBase, String urlSuffix )
+    for( int attempt = 0; ; attempt++ )
     {
-      if( urlSuffix != null )
+      IHttpTransport.Response response;
+      try
+      {
+        response = cache && _responseCache != null
+                   ? _responseCache.send( _transport, request )
+                   : _transport.send( request );
+      }
+      catch( IOException e )
       {
-        urlBase += urlSuffix;
+        if( !isRetryable( request, attempt ) )
+        {
+          throw e;
+        }
+        sleep( getRetryDelay( attempt ) );
+        continue;
       }
 
-      try
+      if( isRetryable( request, attempt ) && isRetryStatus( response.getStatus() ) )
       {
-        //noinspection unchecked
-        return (R)sender.send( new URL( urlBase ), jsonValue, method.name() );
+        response.close();
+        sleep( getRetryDelay( attempt ) );
+        continue;
       }
-      catch( MalformedURLException e )
+      return response;
+    }
+  }
+
+  private CompletableFuture<IHttpTransport.Response> sendAsync( IHttpTransport.Request request, int attempt )
+  {
+    Executor executor = _executor == null ? DEFAULT_EXECUTOR.get() : _executor;
+    CompletableFuture<IHttpTransport.Response> sent = _responseCache != null
+                                                      ? _responseCache.sendAsync( _transport, request, executor )
+                                                      : _transport.sendAsync( request, executor );
+    return sent.handle( ( response, t ) -> {
+      if( !isRetryable( request, attempt ) ||
+          (t == null && !isRetryStatus( response.getStatus() )) )
       {
-        throw new RuntimeException( e );
+        if( t != null )
+        {
+          CompletableFuture<IHttpTransport.Response> failed = new CompletableFuture<>();
+          failed.completeExceptionally( t );
+          return failed;
+        }
+        return CompletableFuture.completedFuture( response );
       }
+
+      if( response != null )
+      {
+        try
+        {
+          response.close();
+        }
+        catch( IOException ignore )
+        {
+        }
+      }
+      // retry after a delay without holding a thread
+      CompletableFuture<IHttpTransport.Response> retry = new CompletableFuture<>();
+      RETRY_SCHEDULER.get().schedule(
+        () -> sendAsync( request, attempt + 1 ).whenComplete( ( r, e ) -> {
+          if( e != null )
+          {
+            retry.completeExceptionally( e );
+          }
+          else
+          {
+            retry.complete( r );
+          }
+        } ),
+        getRetryDelay( attempt ), TimeUnit.MILLISECONDS );
+      return retry;
+    } ).thenCompose( future -> future );
+  }
+
+  private boolean isRetryable( IHttpTransport.Request request, int attempt )
+  {
+    if( attempt >= _retries )
+    {
+      return false;
+    }
+    switch( request.getMethod() )
+    {
+      case "GET":
+      case "PUT":
+      case "DELETE":
+        return true;
+    }
+    return false;
+  }
+
+  private static boolean isRetryStatus( int status )
+  {
+    return status == 429 || status == 502 || status == 503 || status == 504;
+  }
+
+  private long getRetryDelay( int attempt )
+  {
+    return Math.min( MAX_RETRY_BACKOFF, _retryBackoff << Math.min( attempt, 20 ) );
+  }
+
+  private static void sleep( long millis ) throws IOException
+  {
+    try
+    {
+      Thread.sleep( millis );
     }
+    catch( InterruptedException e )
+    {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /**
+   * Parses the response body directly from the response stream, as opposed to reading it into a String first.
+   */
+  private <R> R readResponse( IHttpTransport.Request request, IHttpTransport.Response response, Format format ) throws IOException
+  {
+    checkStatus( request, response );
+    Reader reader = StreamUtil.getInputStreamReader( response.getBody() );
+    switch( format )
+    {
+      case Json:
+        //noinspection unchecked
+        return (R)Json.fromJson( reader );
+      case Yaml:
+        //noinspection unchecked
+        return (R)Yaml.fromYaml( reader );
+      case Text:
+        //noinspection unchecked
+        return (R)StreamUtil.getContent( reader );
+    }
+    throw new IllegalArgumentException( "format: " + format );
+  }
+
+  private void checkStatus( IHttpTransport.Request request, IHttpTransport.Response response ) throws IOException
+  {
+    int status = response.getStatus();
+    if( status >= 400 )
+    {
+      throw new IOException( "Server returned HTTP response code: " + status + " for URL: " + request.getUrl() );
+    }
+  }
+
+  private static Executor makeDefaultExecutor()
+  {
+    int threads = Integer.getInteger( "manifold.json.requester.threads", 32 );
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newFixedThreadPool( threads, r -> {
+      Thread thread = new Thread( r, "manifold-requester-" + count.incrementAndGet() );
+      thread.setDaemon( true );
+      return thread;
+    } );
   }
 
   private enum Http
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2019 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.api.json;
+
+import java.io.Reader;
+import java.io.StringReader;
+import javax.script.ScriptException;
+
+/**
+ * A Json parser based on {@link JsonReader}, better suited to large documents than {@link DefaultParser} since it reads
+ * directly from the source and doesn't make tokens.  Select it with the {@code manifold.json.parser} system property or
+ * {@link Json#setParserName(String)} using this class's name.
+ * <p/>
+ * Since tokens exist only to serve tooling, parsing with tokens is delegated to {@link DefaultParser}.
+ */
+public class StreamingParser implements IJsonParser
+{
+  private static final StreamingParser INSTANCE = new StreamingParser();
+
+  public static IJsonParser instance()
+  {
+    return INSTANCE;
+  }
+
+  @Override
+  public Object parseJson( String jsonText, boolean withBigNumbers, boolean withTokens ) throws ScriptException
+  {
+    if( withTokens )
+    {
+      return DefaultParser.instance().parseJson( jsonText, withBigNumbers, true );
+    }
+    return parseJson( new StringReader( jsonText ), withBigNumbers, false );
+  }
+
+  @Override
+  public Object parseJson( Reader jsonText, boolean withBigNumbers, boolean withTokens ) throws ScriptException
+  {
+    if( withTokens )
+    {
+      return IJsonParser.super.parseJson( jsonText, withBigNumbers, true );
+    }
+    JsonReader reader = new JsonReader( jsonText, withBigNumbers );
+    reader.next();
+    return reader.readValue();
+  }
+}
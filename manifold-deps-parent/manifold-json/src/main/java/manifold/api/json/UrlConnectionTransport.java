@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package manifold.api.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import manifold.json.extensions.java.net.URL.ManUrlExt;
+import manifold.util.JsonUtil;
+
+/**
+ * The default {@link IHttpTransport}, based on {@link HttpURLConnection}.
+ * <p/>
+ * Connections are pooled with keep-alive by the JDK as long as each response is closed and never disconnected, which
+ * this transport ensures. Closing a response releases its connection to the pool, the JDK drains a partially read body
+ * if it is small enough to keep the connection. The number of idle connections kept per destination is configured with
+ * the JDK's {@code http.maxConnections} system property (default is 5).
+ */
+public class UrlConnectionTransport implements IHttpTransport
+{
+  @Override
+  public Response send( Request request ) throws IOException
+  {
+    HttpURLConnection conn = openConnection( request );
+    return new UrlConnectionResponse( conn, conn.getResponseCode() );
+  }
+
+  /**
+   * Opens a connection for the {@code request} and sends its JSON value, if any. The response is not read.
+   */
+  public static HttpURLConnection openConnection( Request request ) throws IOException
+  {
+    URL url = request.getUrl();
+    Object jsonValue = request.getJsonValue();
+    if( jsonValue != null && request.hasUrlArguments() )
+    {
+      url = ManUrlExt.makeUrl( url.toString(), jsonValue );
+    }
+    HttpURLConnection conn = (HttpURLConnection)url.openConnection();
+    conn.setRequestMethod( request.getMethod() );
+    conn.setRequestProperty( "Content-Type", "application/x-www-form-urlencoded" );
+    request.getHeaders().forEach( conn::setRequestProperty );
+    conn.setConnectTimeout( request.getConnectTimeout() );
+    if( request.getReadTimeout() > 0 )
+    {
+      conn.setReadTimeout( request.getReadTimeout() );
+    }
+    if( jsonValue != null && !request.hasUrlArguments() )
+    {
+      conn.setDoOutput( true );
+      RequestBodyStream out = new RequestBodyStream( conn );
+      try
+      {
+        JsonUtil.toJson( out, jsonValue );
+      }
+      catch( Throwable t )
+      {
+        // never finish a partial body, a chunked body may already be partially sent
+        conn.disconnect();
+        throw t;
+      }
+      out.close();
+    }
+    return conn;
+  }
+
+  private static class UrlConnectionResponse implements Response
+  {
+    private final HttpURLConnection _conn;
+    private final int _status;
+    private InputStream _body;
+
+    UrlConnectionResponse( HttpURLConnection conn, int status )
+    {
+      _conn = conn;
+      _status = status;
+    }
+
+    @Override
+    public int getStatus()
+    {
+      return _status;
+    }
+
+    @Override
+    public String getHeader( String name )
+    {
+      return _conn.getHeaderField( name );
+    }
+
+    @Override
+    public InputStream getBody() throws IOException
+    {
+      if( _body == null )
+      {
+        InputStream body = _status >= 400 ? _conn.getErrorStream() : _conn.getInputStream();
+        _body = body == null ? new ByteArrayInputStream( new byte[0] ) : body;
+      }
+      return _body;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      // note, don't disconnect(), closing the stream is what returns the connection to the keep-alive pool
+      getBody().close();
+    }
+  }
+
+  /**
+   * Buffers a request body up to {@link #FIXED_LENGTH_MAX} bytes so a small body is sent with a Content-Length. A
+   * larger body switches the connection to chunked streaming and is sent as it is written, so it is never fully in
+   * memory. Closing the stream completes the body, so close it only after the body is fully written.
+   */
+  private static class RequestBodyStream extends OutputStream
+  {
+    private static final int FIXED_LENGTH_MAX = 64 * 1024;
+    private static final int CHUNK_LENGTH = 8 * 1024;
+
+    private final HttpURLConnection _conn;
+    private ByteArrayOutputStream _buffer;
+    private OutputStream _out;
+
+    RequestBodyStream( HttpURLConnection conn )
+    {
+      _conn = conn;
+      _buffer = new ByteArrayOutputStream( CHUNK_LENGTH );
+    }
+
+    @Override
+    public void write( int b ) throws IOException
+    {
+      write( new byte[] {(byte)b}, 0, 1 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) throws IOException
+    {
+      if( _out != null )
+      {
+        _out.write( b, off, len );
+      }
+      else if( _buffer.size() + len <= FIXED_LENGTH_MAX )
+      {
+        _buffer.write( b, off, len );
+      }
+      else
+      {
+        _conn.setChunkedStreamingMode( CHUNK_LENGTH );
+        _out = _conn.getOutputStream();
+        _buffer.writeTo( _out );
+        _buffer = null;
+        _out.write( b, off, len );
+      }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+      if( _out == null )
+      {
+        _conn.setFixedLengthStreamingMode( _buffer.size() );
+        _out = _conn.getOutputStream();
+        _buffer.writeTo( _out );
+        _buffer = null;
+      }
+      _out.close();
+    }
+  }
+}
@@ -17,6 +17,7 @@
 package manifold.api.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import javax.script.Bindings;
 import manifold.util.JsonUtil;
 
@@ -50,11 +51,30 @@ public class Writer
   {
     return JsonUtil.toJson( _value );
   }
+  /**
+   * Serializes this instance as JSON directly to {@code target} as it is produced, without building a String first.
+   * If {@code target} is a {@link java.io.Writer} it should be buffered.
+   */
   public void toJson( Appendable target )
   {
     try
     {
-      target.append( JsonUtil.toJson( _value ) );
+      JsonUtil.toJson( target, 0, _value );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+  /**
+   * Serializes this instance as UTF-8 encoded JSON directly to {@code out} as it is produced. The stream is flushed,
+   * not closed.
+   */
+  public void toJson( OutputStream out )
+  {
+    try
+    {
+      JsonUtil.toJson( out, _value );
     }
     catch( IOException e )
     {
@@ -73,11 +93,25 @@ public class Writer
     Yaml.toYaml( _value, sb );
     return sb.toString();
   }
+  /**
+   * Serializes this instance as YAML directly to {@code target} as it is produced, without building a String first.
+   * If {@code target} is a {@link java.io.Writer} it should be buffered.
+   */
   public void toYaml( Appendable target )
+  {
+    Yaml.toYaml( _value, target );
+  }
+  /**
+   * Serializes this instance as UTF-8 encoded YAML directly to {@code out} as it is produced. The stream is flushed,
+   * not closed.
+   */
+  public void toYaml( OutputStream out )
   {
     try
     {
-      target.append( toYaml() );
+      java.io.Writer writer = JsonUtil.makeUtf8Writer( out );
+      Yaml.toYaml( _value, writer );
+      writer.flush();
     }
     catch( IOException e )
     {
@@ -94,11 +128,30 @@ public class Writer
   {
     return JsonUtil.toXml( _value );
   }
+  /**
+   * Serializes this instance as XML directly to {@code target} as it is produced, without building a String first.
+   * If {@code target} is a {@link java.io.Writer} it should be buffered.
+   */
   public void toXml( Appendable target )
   {
     try
     {
-      target.append( JsonUtil.toXml( _value ) );
+      JsonUtil.toXml( _value, "object", target, 0 );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+  /**
+   * Serializes this instance as UTF-8 encoded XML directly to {@code out} as it is produced. The stream is flushed,
+   * not closed.
+   */
+  public void toXml( OutputStream out )
+  {
+    try
+    {
+      JsonUtil.toXml( out, _value, "object" );
     }
     catch( IOException e )
     {
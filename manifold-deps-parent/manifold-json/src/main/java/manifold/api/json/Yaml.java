@@ -16,10 +16,14 @@
 
 package manifold.api.json;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import javax.script.ScriptException;
 import manifold.ext.DataBindings;
+import manifold.util.ManExceptionUtil;
 import manifold.util.Pair;
 import manifold.util.ReflectUtil;
 import org.snakeyaml.engine.v1.api.Dump;
@@ -55,14 +59,27 @@ public class Yaml
   }
 
   public static Object fromYaml( String yaml, boolean withBigNumbers, boolean withTokens )
+  {
+    return parseYaml( load -> load.loadFromString( yaml ), withTokens );
+  }
+
+  /**
+   * Parse YAML from a reader as a javax.script.Bindings instance.  The reader is not closed.
+   *
+   * @param yaml A reader over Standard YAML 1.2 formatted text
+   *
+   * @return A javax.script.Bindings instance
+   */
+  public static Object fromYaml( Reader yaml )
+  {
+    return parseYaml( load -> load.loadFromReader( yaml ), false );
+  }
+
+  private static Object parseYaml( Function<Load, Object> loader, boolean withTokens )
   {
     try
     {
-      return parseYaml( yaml, withBigNumbers, withTokens );
-    }
-    catch( ScriptException e )
-    {
-      throw new RuntimeException( e );
+      return loader.apply( makeLoad( withTokens ) );
     }
     catch( MarkedYamlEngineException me )
     {
@@ -80,6 +97,17 @@ public class Yaml
    * @param target A {@link StringBuilder} to write the YAML in
    */
   public static void toYaml( Object jsonValue, StringBuilder target )
+  {
+    toYaml( jsonValue, (Appendable)target );
+  }
+
+  /**
+   * Serializes a JSON value to YAML 1.2 directly in the {@code target} as it is produced, as opposed to building a
+   * String first. Use this to serialize large values to a {@link java.io.Writer}, preferably a buffered one.
+   *
+   * @param target An {@link Appendable} to write the YAML in
+   */
+  public static void toYaml( Object jsonValue, Appendable target )
   {
     DumpSettings settings = new DumpSettingsBuilder()
       .setBestLineBreak( "\n" )
@@ -93,25 +121,38 @@ public class Yaml
         @Override
         public void write( String str )
         {
-          target.append( str );
+          try
+          {
+            target.append( str );
+          }
+          catch( IOException e )
+          {
+            throw ManExceptionUtil.unchecked( e );
+          }
         }
 
         @Override
         public void write( String str, int offset, int length )
         {
-          target.append( str, offset, offset + length );
+          try
+          {
+            target.append( str, offset, offset + length );
+          }
+          catch( IOException e )
+          {
+            throw ManExceptionUtil.unchecked( e );
+          }
         }
       } );
   }
 
-  private static Object parseYaml( String yaml, boolean withBigNumbers, boolean withTokens ) throws ScriptException
+  private static Load makeLoad( boolean withTokens )
   {
     LoadSettings loadSettings = new LoadSettingsBuilder()
       .setUseMarks( true )
       .setDefaultMap( DataBindings::new )
       .build();
-    Load load = new Load( loadSettings, new MyConstructor( loadSettings, withTokens ) );
-    return load.loadFromString( yaml );
+    return new Load( loadSettings, new MyConstructor( loadSettings, withTokens ) );
   }
 
   private static class MyConstructor extends StandardConstructor
@@ -89,6 +89,14 @@ public class BigNumberFormatResolver implements IJsonFormatTypeResolver
     return UNHANDLED;
   }
 
+  @Override
+  public boolean handles( Class<?> valueClass, Class<?> type )
+  {
+    return (type == BigInteger.class || type == BigDecimal.class) && valueClass == String.class ||
+           type == String.class && (BigInteger.class.isAssignableFrom( valueClass ) ||
+                                    BigDecimal.class.isAssignableFrom( valueClass ));
+  }
+
   @Override
   public Object toBindingValue( Object value )
   {
@@ -87,6 +87,14 @@ public class BinaryFormatResolver implements IJsonFormatTypeResolver
     return UNHANDLED;
   }
 
+  @Override
+  public boolean handles( Class<?> valueClass, Class<?> type )
+  {
+    return (type == OctetEncoding.class || type == Base64Encoding.class) && valueClass == String.class ||
+           type == String.class && (OctetEncoding.class.isAssignableFrom( valueClass ) ||
+                                    Base64Encoding.class.isAssignableFrom( valueClass ));
+  }
+
   @Override
   public Object toBindingValue( Object value )
   {
@@ -16,10 +16,13 @@
 
 package manifold.api.json.schema;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
 import manifold.ext.RuntimeMethods;
 import manifold.ext.api.IBindingType;
 import manifold.ext.api.ICoercionProvider;
-import manifold.util.ReflectUtil;
 
 
 import static manifold.ext.api.ICallHandler.UNHANDLED;
@@ -30,6 +33,15 @@ import static manifold.ext.api.ICallHandler.UNHANDLED;
  */
 public class DefaultCoercionProvider implements ICoercionProvider
 {
+  private static final ClassValue<Map<Object, IBindingType>> ENUM_CONSTANTS = new ClassValue<Map<Object, IBindingType>>()
+  {
+    @Override
+    protected Map<Object, IBindingType> computeValue( Class<?> type )
+    {
+      return makeEnumConstantMap( type );
+    }
+  };
+
   @Override
   public Object coerce( Object value, Class<?> type )
   {
@@ -52,6 +64,23 @@ public class DefaultCoercionProvider implements ICoercionProvider
     return UNHANDLED;
   }
 
+  @Override
+  public boolean handles( Class<?> valueClass, Class<?> type )
+  {
+    if( type.isEnum() && IBindingType.class.isAssignableFrom( type ) )
+    {
+      return true;
+    }
+    for( IJsonFormatTypeResolver resolver: FormatTypeResolvers.get() )
+    {
+      if( resolver.handles( valueClass, type ) )
+      {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public Object toBindingValue( Object value )
   {
@@ -77,21 +106,94 @@ public class DefaultCoercionProvider implements ICoercionProvider
   {
     if( type.isEnum() && IBindingType.class.isAssignableFrom( type ) )
     {
-      if( IBindingType.class.isAssignableFrom( type ) )
+      IBindingType enumConst = ENUM_CONSTANTS.get( type ).get( normalize( value ) );
+      if( enumConst != null )
       {
-        //noinspection ConstantConditions
-        IBindingType[] values = (IBindingType[])ReflectUtil.method( type, "values" ).invokeStatic();
-        for( IBindingType enumConst: values )
+        return enumConst;
+      }
+
+      // not a normalized match, compare with each constant's binding value as coerced from the value
+      for( Object constant: type.getEnumConstants() )
+      {
+        Object jsonValue = ((IBindingType)constant).toBindingValue();
+        Object coercedValue = RuntimeMethods.coerce( value, jsonValue.getClass() );
+        if( jsonValue.equals( coercedValue ) )
         {
-          Object jsonValue = enumConst.toBindingValue();
-          Object coercedValue = RuntimeMethods.coerce( value, jsonValue.getClass() );
-          if( jsonValue.equals( coercedValue ) )
-          {
-            return enumConst;
-          }
+          return constant;
         }
       }
     }
     return UNHANDLED;
   }
+
+  /**
+   * Maps the normalized binding values of an {@link IBindingType} enum's constants to the constants. Numeric and
+   * boolean binding values are also mapped by their string form, since such values often arrive as strings.
+   * <p/>
+   * A value equal to a binding value, numbers compared by value, selects that constant even if an earlier constant of
+   * another type also matches the value after coercion, e.g., {@code 1} selects {@code One(1)} over an earlier
+   * {@code Text("1")}. Likewise a string binding value takes precedence over the string form of a numeric or boolean
+   * binding value. Otherwise the first constant in declaration order wins.
+   */
+  private static Map<Object, IBindingType> makeEnumConstantMap( Class<?> type )
+  {
+    Map<Object, IBindingType> map = new HashMap<>();
+    for( Object constant: type.getEnumConstants() )
+    {
+      IBindingType enumConst = (IBindingType)constant;
+      map.putIfAbsent( normalize( enumConst.toBindingValue() ), enumConst );
+    }
+    for( Object constant: type.getEnumConstants() )
+    {
+      IBindingType enumConst = (IBindingType)constant;
+      Object jsonValue = enumConst.toBindingValue();
+      if( jsonValue instanceof Number || jsonValue instanceof Boolean )
+      {
+        map.putIfAbsent( String.valueOf( jsonValue ), enumConst );
+      }
+    }
+    return map;
+  }
+
+  /**
+   * Normalizes numbers so that equal numeric values of different classes, such as {@code 1}, {@code 1L}, {@code 1.0}
+   * and {@code 1.00}, share a key. Integral values are keyed exactly, as a {@code long} if in range, otherwise as a
+   * {@link BigDecimal} without trailing zeros. Only non-integral floating point values are keyed as {@code double}.
+   */
+  private static Object normalize( Object value )
+  {
+    if( value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte )
+    {
+      return ((Number)value).longValue();
+    }
+    if( value instanceof BigInteger )
+    {
+      BigInteger bi = (BigInteger)value;
+      return bi.bitLength() < Long.SIZE ? (Object)bi.longValue() : new BigDecimal( bi ).stripTrailingZeros();
+    }
+    if( value instanceof BigDecimal )
+    {
+      BigDecimal bd = ((BigDecimal)value).stripTrailingZeros();
+      // avoid expanding huge exponents
+      if( bd.scale() <= 0 && bd.precision() - bd.scale() <= 19 )
+      {
+        BigInteger bi = bd.toBigIntegerExact();
+        if( bi.bitLength() < Long.SIZE )
+        {
+          return bi.longValue();
+        }
+      }
+      return bd;
+    }
+    if( value instanceof Double || value instanceof Float )
+    {
+      double d = ((Number)value).doubleValue();
+      if( d == Math.rint( d ) && !Double.isInfinite( d ) )
+      {
+        return normalize( new BigDecimal( d ) );
+      }
+      return d;
+    }
+    return value;
+  }
 }
@@ -154,6 +154,29 @@ public class DefaultFormatResolver implements IJsonFormatTypeResolver
     return UNHANDLED;
   }
 
+  @Override
+  public boolean handles( Class<?> valueClass, Class<?> type )
+  {
+    // From JSON value to Java value
+    if( type == LocalDateTime.class || type == LocalDate.class || type == LocalTime.class || type == Instant.class ||
+        (type == Long.class || type == long.class) &&
+        (Number.class.isAssignableFrom( valueClass ) || valueClass == String.class) )
+    {
+      return true;
+    }
+
+    // From Java value to JSON value
+    if( valueClass == LocalDateTime.class || valueClass == LocalDate.class || valueClass == LocalTime.class )
+    {
+      return type == String.class;
+    }
+    if( valueClass == Instant.class )
+    {
+      return type == String.class || Number.class.isAssignableFrom( type );
+    }
+    return type == String.class && valueClass == Long.class;
+  }
+
   @Override
   public Object toBindingValue( Object value )
   {
@@ -16,14 +16,12 @@
 
 package manifold.json.extensions.java.net.URL;
 
-import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import manifold.api.json.Yaml;
 import manifold.ext.api.Jailbreak;
 import manifold.json.extensions.javax.script.Bindings.ManBindingsExt;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
@@ -32,11 +30,13 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 import javax.script.Bindings;
+import manifold.api.json.IHttpTransport;
 import manifold.api.json.Json;
+import manifold.api.json.UrlConnectionTransport;
 import manifold.ext.api.Extension;
 import manifold.ext.api.This;
-import manifold.util.JsonUtil;
 import manifold.util.StreamUtil;
 
 /**
@@ -149,21 +149,7 @@ public class ManUrlExt
   {
     try
     {
-      if( jsonValue != null && (httpMethod.equals( "GET") || httpMethod.equals( "DELETE" )) )
-      {
-        url = makeUrl( url.toString(), jsonValue );
-      }
-      HttpURLConnection conn = (HttpURLConnection)url.openConnection();
-      conn.setRequestMethod( httpMethod );
-      conn.setRequestProperty( "Content-Type", "application/x-www-form-urlencoded" );
-      headers.forEach( conn::setRequestProperty );
-      conn.setConnectTimeout( timeout );
-      if( jsonValue != null &&
-          !httpMethod.equals( "GET" ) && !httpMethod.equals( "DELETE" ) )
-      {
-        sendJsonValue( jsonValue, conn );
-      }
-      return receiveResponse( conn );
+      return receiveResponse( openRequest( url, httpMethod, jsonValue, headers, timeout ) );
     }
     catch( Exception e )
     {
@@ -171,16 +157,11 @@ public class ManUrlExt
     }
   }
 
-  private static void sendJsonValue( Object jsonValue, HttpURLConnection conn ) throws IOException
+  private static HttpURLConnection openRequest( URL url, String httpMethod, Object jsonValue,
+                                                Map<String, String> headers, int timeout ) throws IOException
   {
-    String json = JsonUtil.toJson( jsonValue );
-    byte[] bytes = json.getBytes( StandardCharsets.UTF_8 );
-    conn.setFixedLengthStreamingMode( bytes.length );
-    conn.setDoOutput( true );
-    try( OutputStream out = conn.getOutputStream() )
-    {
-      out.write( bytes );
-    }
+    return UrlConnectionTransport.openConnection(
+      new IHttpTransport.Request( httpMethod, url, headers, jsonValue, timeout ) );
   }
 
   private static String receiveResponse( HttpURLConnection conn ) throws IOException
@@ -212,6 +193,29 @@ public class ManUrlExt
     return Json.fromJson( sendRequest( url, httpMethod, jsonValue, headers, timeout ) );
   }
 
+  /**
+   * Use HTTP GET, POST, PUT, or PATCH to send JSON bindings to a URL with a JSON response, streaming the elements of
+   * the response one at a time as it is read.  Closing the stream closes the connection's input stream.
+   *
+   * @param httpMethod The HTTP method to use: "GET", "POST", "PUT", or "PATCH"
+   * @param jsonValue A JSON value to send (primitive/boxed type, String, List of JSON values, or Bindings of String/JSON value)
+   *
+   * @return A stream of the JSON values parsed from the JSON response, see {@link Json#streamJson(Reader)}
+   */
+  public static Stream<Object> sendJsonStreamRequest( @This URL url, String httpMethod, Object jsonValue,
+                                                      Map<String, String> headers, int timeout )
+  {
+    try
+    {
+      HttpURLConnection conn = openRequest( url, httpMethod, jsonValue, headers, timeout );
+      return Json.streamJson( StreamUtil.getInputStreamReader( conn.getInputStream() ) );
+    }
+    catch( IOException e )
+    {
+      throw new RuntimeException( e );
+    }
+  }
+
   /**
    * Use HTTP GET, POST, PUT, or PATCH to send JSON bindings to a URL with a YAML response.
    *
@@ -0,0 +1,33 @@
+package manifold.templates.misc;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import directives.section.SectionWithParams;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class RenderToTest
+{
+  @Test
+  public void renderToOutputStreamMatchesRender()
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    misc.BigassContentChunkTest.renderTo( out, "testing\u00e9\u20ac\ud83d\ude00" );
+    assertEquals( misc.BigassContentChunkTest.render( "testing\u00e9\u20ac\ud83d\ude00" ),
+      new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+
+  @Test
+  public void renderToChannelMatchesRender()
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    SectionWithParams.renderTo( Channels.newChannel( out ) );
+    assertEquals( SectionWithParams.render(), new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+
+    out.reset();
+    SectionWithParams.mySection.renderTo( out, "Edward", 19 );
+    assertEquals( "(Edward is 19 years old)", new String( out.toByteArray(), StandardCharsets.UTF_8 ) );
+  }
+}
@@ -32,6 +32,7 @@ import manifold.templates.manifold.TemplateIssueContainer;
 import manifold.templates.tokenizer.Token;
 import manifold.templates.tokenizer.Tokenizer;
 import manifold.util.ManClassUtil;
+import manifold.util.ManEscapeUtil;
 
 
 import static manifold.templates.codegen.TemplateGen.DirType.*;
@@ -79,6 +80,7 @@ public class TemplateGen
     Directive layoutDir;
     int contentPos;
     String testSource;
+    List<int[]> segments = new ArrayList<>();
 
     //only for the outermost class
     private ClassInfo( Iterator<Directive> dirIterator, String fqn, String name, URI fileUri, String fileName, Integer endTokenPos )
@@ -665,6 +667,22 @@ public class TemplateGen
         .newLine( "    }\n\n" );
     }
 
+    private void addRenderTo()
+    {
+      _sb.newLine( "    public static void renderTo(java.io.OutputStream out" ).append( safeTrailingString( _currClass.params ) ).append( ") {" )
+        .newLine( "      Utf8Appendable buffer = new Utf8Appendable(out);" )
+        .newLine( "      renderInto(buffer" );
+      appendArgs();
+      _sb.append( ");" )
+        .newLine( "      buffer.complete();" )
+        .newLine( "    }\n" )
+        .newLine( "    public static void renderTo(java.nio.channels.WritableByteChannel channel" ).append( safeTrailingString( _currClass.params ) ).append( ") {" )
+        .newLine( "      renderTo(java.nio.channels.Channels.newOutputStream(channel)" );
+      appendArgs();
+      _sb.append( ");" )
+        .newLine( "    }\n\n" );
+    }
+
     private void addNestInto()
     {
       _sb.newLine( "    public static void nestInto(Appendable buffer, String indentation" ).append( safeTrailingString( _currClass.params ) ).append( ") {\n" )
@@ -711,6 +729,19 @@ public class TemplateGen
         .newLine( "    public void renderInto(Appendable sb" ).append( safeTrailingString( _currClass.params ) ).append( ") {" )
         .newLine( "      renderImpl(sb, getOverride()" );
       appendArgs();
+      _sb.append( ");" )
+        .newLine( "    }\n" )
+        // renderTo
+        .newLine( "    public void renderTo(java.io.OutputStream out" ).append( safeTrailingString( _currClass.params ) ).append( ") {" )
+        .newLine( "      Utf8Appendable buffer = new Utf8Appendable(out);" )
+        .newLine( "      renderImpl(buffer, getOverride()" );
+      appendArgs();
+      _sb.append( ");" )
+        .newLine( "      buffer.complete();" )
+        .newLine( "    }\n" )
+        .newLine( "    public void renderTo(java.nio.channels.WritableByteChannel channel" ).append( safeTrailingString( _currClass.params ) ).append( ") {" )
+        .newLine( "      renderTo(java.nio.channels.Channels.newOutputStream(channel)" );
+      appendArgs();
       _sb.append( ");" )
         .newLine( "    }\n" )
         // nestInto
@@ -806,6 +837,7 @@ public class TemplateGen
       addWithoutLayout();
       addWithLayout();
       addRenderInto();
+      addRenderTo();
       addNestInto();
       addRenderImpl();
 
@@ -813,6 +845,7 @@ public class TemplateGen
       {
         addHeaderAndFooter();
       }
+      addSegments();
       for( ClassInfo nested: _currClass.nestedClasses.values() )
       {
         _currClass = nested;
@@ -832,11 +865,31 @@ public class TemplateGen
       {
         //!! only for tests
         _sb.newLine( "    protected String getTemplateText() {" )
-          .newLine( "        return \"" + _currClass.testSource.replace( "\"", "\\\\\"" ).replace( "\n", "\\\\n" ) + "\";" )
+          .newLine( "        return \"" + ManEscapeUtil.escapeForJava( _currClass.testSource ) + "\";" )
           .newLine( "    }" );
       }
     }
 
+    private void addSegments()
+    {
+      if( _currClass.segments.isEmpty() )
+      {
+        return;
+      }
+
+      StringBuilder offsets = new StringBuilder();
+      for( int[] loc: _currClass.segments )
+      {
+        if( offsets.length() > 0 )
+        {
+          offsets.append( ", " );
+        }
+        offsets.append( loc[0] ).append( ", " ).append( loc[1] );
+      }
+
+      _sb.newLine( "    private static final TemplateSegments _segments = TemplateSegments.of(" ).append( offsets.toString() ).append( ");" );
+    }
+
     private String getTemplateFilePath()
     {
       String className = ManClassUtil.getShortClassName( _currClass.fqn );
@@ -925,7 +978,9 @@ public class TemplateGen
             int[] loc = makeText( lastTokenIndex, nextTokenType( i + 1, endPos ), token );
             if( loc != null )
             {
-              _sb.newLine( "                buffer.append(getTemplateText(), ${loc[0]}, ${loc[1]});" );
+              _currClass.segments.add( loc );
+              int segment = _currClass.segments.size() - 1;
+              _sb.newLine( "                _segments.appendTo(this, buffer, ${segment});" );
               // sb.newLine( "                buffer.append(\"" ).append( text.replaceAll( "\"", "\\\\\"" ).replaceAll( "\r", "" ).replaceAll( "\n", "\\\\n" ) + "\");" );
               templateLineNumbers.add( token.getLine() );
             }
@@ -19,10 +19,11 @@ package manifold.templates.runtime;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.util.Map;
 import manifold.templates.ManifoldTemplates;
 import manifold.util.ManExceptionUtil;
 import manifold.util.StreamUtil;
-import manifold.util.concurrent.LocklessLazyVar;
+import manifold.util.concurrent.ConcurrentWeakHashMap;
 
 /**
  * The base class for all generated template classes.  You can derive your own base class from this one to
@@ -30,20 +31,9 @@ import manifold.util.concurrent.LocklessLazyVar;
  */
 public abstract class BaseTemplate
 {
+  private static final Map<Class<?>, String> TEMPLATE_TEXT = new ConcurrentWeakHashMap<>();
+
   private ILayout _explicitLayout = null;
-  private LocklessLazyVar<String> _templateText = LocklessLazyVar.make(
-    () -> {
-      try
-      {
-        InputStreamReader reader = new InputStreamReader( getTemplateResourceAsStream() );
-        return StreamUtil.getContent( reader ).replace( "\r\n", "\n" );
-      }
-      catch( Exception e )
-      {
-        throw ManExceptionUtil.unchecked( e );
-      }
-    }
-  );
 
   /**
    * Open an {@link InputStream} for the template resource file in the classpath/module-path.
@@ -60,7 +50,16 @@ public abstract class BaseTemplate
    */
   protected String getTemplateText()
   {
-    return _templateText.get();
+    return TEMPLATE_TEXT.computeIfAbsent( getClass(), c -> {
+      try( InputStreamReader reader = new InputStreamReader( getTemplateResourceAsStream() ) )
+      {
+        return StreamUtil.getContent( reader ).replace( "\r\n", "\n" );
+      }
+      catch( Exception e )
+      {
+        throw ManExceptionUtil.unchecked( e );
+      }
+    } );
   }
 
   protected void setLayout( ILayout layout )
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.templates.runtime;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * The static text segments of a generated template class. The segments are sliced from the template text the first
+ * time the class renders, and encoded to UTF-8 the first time they are written to a {@link Utf8Appendable}.
+ * <p>
+ * To be used internally by the generated template.
+ */
+public final class TemplateSegments
+{
+  private final int[] _offsets;
+  private volatile Slices _slices;
+
+  /**
+   * @param offsets Pairs of start and end offsets of each segment in the template text
+   */
+  public static TemplateSegments of( int... offsets )
+  {
+    return new TemplateSegments( offsets );
+  }
+
+  private TemplateSegments( int[] offsets )
+  {
+    _offsets = offsets;
+  }
+
+  /**
+   * @return The segment at {@code index}, sliced from the text {@code template} provides via
+   * {@link BaseTemplate#getTemplateText()}
+   */
+  public String get( BaseTemplate template, int index )
+  {
+    return getSlices( template )._text[index];
+  }
+
+  /**
+   * Appends the segment at {@code index} to {@code buffer}. If {@code buffer} ultimately writes to a
+   * {@link Utf8Appendable} without indentation, the pre-encoded bytes are written to it directly.
+   */
+  public void appendTo( BaseTemplate template, Appendable buffer, int index ) throws IOException
+  {
+    Slices slices = getSlices( template );
+    Appendable target = buffer;
+    while( target instanceof WrapAppendable )
+    {
+      Appendable direct = ((WrapAppendable)target).getDirectTarget();
+      if( direct == null )
+      {
+        break;
+      }
+      target = direct;
+    }
+
+    if( target instanceof Utf8Appendable )
+    {
+      ((Utf8Appendable)target).write( slices._bytes.get()[index] );
+    }
+    else
+    {
+      buffer.append( slices._text[index] );
+    }
+  }
+
+  private Slices getSlices( BaseTemplate template )
+  {
+    Slices slices = _slices;
+    if( slices == null )
+    {
+      // all instances of the template class have the same text, a race slices the same segments
+      _slices = slices = new Slices( template.getTemplateText(), _offsets );
+    }
+    return slices;
+  }
+
+  private static class Slices
+  {
+    private final String[] _text;
+    private final LocklessLazyVar<byte[][]> _bytes;
+
+    private Slices( String templateText, int[] offsets )
+    {
+      _text = new String[offsets.length / 2];
+      for( int i = 0; i < _text.length; i++ )
+      {
+        _text[i] = templateText.substring( offsets[i * 2], offsets[i * 2 + 1] );
+      }
+      _bytes = LocklessLazyVar.make( () -> {
+        byte[][] bytes = new byte[_text.length][];
+        for( int i = 0; i < bytes.length; i++ )
+        {
+          bytes[i] = _text[i].getBytes( StandardCharsets.UTF_8 );
+        }
+        return bytes;
+      } );
+    }
+  }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.templates.runtime;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import manifold.util.ManExceptionUtil;
+
+/**
+ * An {@link Appendable} that encodes to UTF-8 and writes to an {@link OutputStream}, used by the generated
+ * {@code renderTo()} methods. The static segments of a template are written as pre-encoded bytes, see
+ * {@link TemplateSegments#appendTo(BaseTemplate, Appendable, int)}.
+ */
+public class Utf8Appendable implements Appendable
+{
+  private static final int BUFFER_SIZE = 8192;
+
+  private final OutputStream _out;
+  private final byte[] _buffer;
+  private int _pos;
+  private char _highSurrogate;
+
+  public Utf8Appendable( OutputStream out )
+  {
+    _out = out;
+    _buffer = new byte[BUFFER_SIZE];
+  }
+
+  @Override
+  public Appendable append( CharSequence csq ) throws IOException
+  {
+    if( csq == null )
+    {
+      csq = "null";
+    }
+    return append( csq, 0, csq.length() );
+  }
+
+  @Override
+  public Appendable append( CharSequence csq, int start, int end ) throws IOException
+  {
+    if( csq == null )
+    {
+      csq = "null";
+    }
+    for( int i = start; i < end; i++ )
+    {
+      append( csq.charAt( i ) );
+    }
+    return this;
+  }
+
+  @Override
+  public Appendable append( char c ) throws IOException
+  {
+    if( _highSurrogate != 0 )
+    {
+      char high = _highSurrogate;
+      _highSurrogate = 0;
+      if( Character.isLowSurrogate( c ) )
+      {
+        int cp = Character.toCodePoint( high, c );
+        ensureCapacity( 4 );
+        _buffer[_pos++] = (byte)(0xF0 | (cp >> 18));
+        _buffer[_pos++] = (byte)(0x80 | ((cp >> 12) & 0x3F));
+        _buffer[_pos++] = (byte)(0x80 | ((cp >> 6) & 0x3F));
+        _buffer[_pos++] = (byte)(0x80 | (cp & 0x3F));
+        return this;
+      }
+      // unpaired surrogate, same replacement as String#getBytes()
+      writeByte( '?' );
+    }
+
+    if( c < 0x80 )
+    {
+      writeByte( c );
+    }
+    else if( c < 0x800 )
+    {
+      ensureCapacity( 2 );
+      _buffer[_pos++] = (byte)(0xC0 | (c >> 6));
+      _buffer[_pos++] = (byte)(0x80 | (c & 0x3F));
+    }
+    else if( Character.isHighSurrogate( c ) )
+    {
+      _highSurrogate = c;
+    }
+    else if( Character.isLowSurrogate( c ) )
+    {
+      writeByte( '?' );
+    }
+    else
+    {
+      ensureCapacity( 3 );
+      _buffer[_pos++] = (byte)(0xE0 | (c >> 12));
+      _buffer[_pos++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+      _buffer[_pos++] = (byte)(0x80 | (c & 0x3F));
+    }
+    return this;
+  }
+
+  /**
+   * Writes already UTF-8 encoded {@code bytes}.
+   */
+  public void write( byte[] bytes ) throws IOException
+  {
+    completeSurrogate();
+    if( bytes.length > _buffer.length - _pos )
+    {
+      flushBuffer();
+      if( bytes.length >= _buffer.length )
+      {
+        _out.write( bytes );
+        return;
+      }
+    }
+    System.arraycopy( bytes, 0, _buffer, _pos, bytes.length );
+    _pos += bytes.length;
+  }
+
+  /**
+   * Writes any buffered bytes and flushes the underlying stream. The stream is not closed.
+   */
+  public void complete()
+  {
+    try
+    {
+      completeSurrogate();
+      flushBuffer();
+      _out.flush();
+    }
+    catch( IOException e )
+    {
+      throw ManExceptionUtil.unchecked( e );
+    }
+  }
+
+  private void completeSurrogate() throws IOException
+  {
+    if( _highSurrogate != 0 )
+    {
+      _highSurrogate = 0;
+      writeByte( '?' );
+    }
+  }
+
+  private void writeByte( int b ) throws IOException
+  {
+    ensureCapacity( 1 );
+    _buffer[_pos++] = (byte)b;
+  }
+
+  private void ensureCapacity( int count ) throws IOException
+  {
+    if( _pos + count > _buffer.length )
+    {
+      flushBuffer();
+    }
+  }
+
+  private void flushBuffer() throws IOException
+  {
+    if( _pos > 0 )
+    {
+      _out.write( _buffer, 0, _pos );
+      _pos = 0;
+    }
+  }
+}
@@ -88,6 +88,14 @@ public class WrapAppendable implements Appendable
     }
   }
 
+  /**
+   * @return The wrapped appendable if appends pass straight through to it, otherwise null
+   */
+  Appendable getDirectTarget()
+  {
+    return _indentation.length() == 0 ? _appendable : null;
+  }
+
   private Appendable getAppendable()
   {
     return _indentation.length() == 0
@@ -0,0 +1,79 @@
+package manifold.api.fs.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import junit.framework.TestCase;
+import manifold.api.fs.IDirectory;
+import manifold.api.fs.IFile;
+import manifold.api.host.IManifoldHost;
+import manifold.internal.host.RuntimeManifoldHost;
+import manifold.internal.runtime.Bootstrap;
+import manifold.util.cache.FqnCache;
+
+/**
+ */
+public class PathCacheTest extends TestCase
+{
+  public void testParallelScanMatchesSerialScan() throws IOException
+  {
+    Bootstrap.init();
+    IManifoldHost host = RuntimeManifoldHost.get();
+
+    List<IDirectory> path = new ArrayList<>();
+    for( int entry = 0; entry < 4; entry++ )
+    {
+      Path root = Files.createTempDirectory( "pathcache" );
+      for( int pkg = 0; pkg < 5; pkg++ )
+      {
+        // nested packages, each entry shadows the same abc.pkgN.Shared file
+        Path dir = Files.createDirectories( root.resolve( "abc/pkg" + pkg + "/nested" + entry ) );
+        Files.write( dir.resolve( "Foo" + pkg + ".json" ), new byte[0] );
+        Files.write( dir.getParent().resolve( "Shared.json" ), new byte[0] );
+        Files.write( dir.getParent().resolve( "Shared.yml" ), new byte[0] );
+      }
+      Files.createDirectories( root.resolve( "META-INF" ) );
+      Files.write( root.resolve( "META-INF/Ignored.json" ), new byte[0] );
+      path.add( host.getFileSystem().getIDirectory( root.toFile() ) );
+    }
+
+    PathCache parallel = new PathCache( host.getSingleModule(), () -> path, () -> {}, true );
+    PathCache serial = new PathCache( host.getSingleModule(), () -> path, () -> {}, false );
+
+    Map<String, Map<String, IFile>> expected = contents( serial );
+    assertEquals( expected, contents( parallel ) );
+    assertEquals( 2, expected.size() );
+    assertEquals( 5 * 4 + 5, expected.get( "json" ).size() );
+    assertFalse( expected.get( "json" ).containsKey( "META-INF.Ignored" ) );
+
+    // the first entry in the path wins
+    File first = path.get( 0 ).toJavaFile();
+    assertEquals( new File( first, "abc/pkg3/Shared.json" ), parallel.getExtensionCache( "json" ).get( "abc.pkg3.Shared" ).toJavaFile() );
+    for( Map.Entry<String, IFile> entry: expected.get( "yml" ).entrySet() )
+    {
+      assertEquals( new HashSet<>( serial.getFqnForFile( entry.getValue() ) ),
+        new HashSet<>( parallel.getFqnForFile( entry.getValue() ) ) );
+    }
+  }
+
+  private static Map<String, Map<String, IFile>> contents( PathCache pathCache )
+  {
+    Map<String, Map<String, IFile>> contents = new HashMap<>();
+    for( Map.Entry<String, FqnCache<IFile>> entry: pathCache.getExtensionCaches().entrySet() )
+    {
+      Map<String, IFile> files = new HashMap<>();
+      for( String fqn: entry.getValue().getFqns() )
+      {
+        files.put( fqn, entry.getValue().get( fqn ) );
+      }
+      contents.put( entry.getKey(), files );
+    }
+    return contents;
+  }
+}
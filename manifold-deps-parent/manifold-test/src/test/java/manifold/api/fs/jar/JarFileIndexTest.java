@@ -0,0 +1,42 @@
+package manifold.api.fs.jar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import junit.framework.TestCase;
+
+/**
+ */
+public class JarFileIndexTest extends TestCase
+{
+  public void testStoreAndLoad() throws IOException
+  {
+    JarFileIndex index = new JarFileIndex( Files.createTempDirectory( "jarindex" ) );
+    File jar = makeJar( 10 );
+    assertNull( index.load( jar ) );
+
+    List<String> names = Arrays.asList( "META-INF/", "META-INF/MANIFEST.MF", "abc/", "abc/Foo.json" );
+    index.store( jar, names );
+    assertEquals( names, index.load( jar ) );
+  }
+
+  public void testStaleIndexIsIgnored() throws IOException
+  {
+    JarFileIndex index = new JarFileIndex( Files.createTempDirectory( "jarindex" ) );
+    File jar = makeJar( 10 );
+    index.store( jar, Arrays.asList( "abc/", "abc/Foo.json" ) );
+
+    Files.write( jar.toPath(), new byte[20] );
+    assertNull( index.load( jar ) );
+  }
+
+  private static File makeJar( int length ) throws IOException
+  {
+    File jar = Files.createTempFile( "test", ".jar" ).toFile();
+    jar.deleteOnExit();
+    Files.write( jar.toPath(), new byte[length] );
+    return jar;
+  }
+}
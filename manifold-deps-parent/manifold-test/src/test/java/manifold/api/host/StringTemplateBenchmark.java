@@ -0,0 +1,63 @@
+package manifold.api.host;
+
+/**
+ * Measures string literal templates typical of logging and messages. Not a test, run {@code main()} to compare
+ * compilations of templates e.g., with and without presized StringBuilders when targeting Java 8.
+ */
+public class StringTemplateBenchmark
+{
+  private static final int WARMUP = 5;
+  private static final int ITERATIONS = 2_000_000;
+
+  public static void main( String[] args )
+  {
+    for( int i = 0; i < WARMUP; i++ )
+    {
+      run( false );
+    }
+    run( true );
+  }
+
+  private static void run( boolean report )
+  {
+    long sink = 0;
+    String user = "alice";
+    String method = "GET";
+    String path = "/api/v1/orders";
+
+    long start = System.nanoTime();
+    for( int i = 0; i < ITERATIONS; i++ )
+    {
+      long elapsed = i * 3L;
+      String msg = "request $i from user $user took ${elapsed}ms and exceeded the configured threshold";
+      sink += msg.length();
+    }
+    long logLine = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for( int i = 0; i < ITERATIONS; i++ )
+    {
+      int status = 200 + (i & 3);
+      double ratio = i / 7.0;
+      String msg = "[INFO] $method $path status=$status bytes=${i * 17} ratio=$ratio user=$user";
+      sink += msg.length();
+    }
+    long accessLog = System.nanoTime() - start;
+
+    start = System.nanoTime();
+    for( int i = 0; i < ITERATIONS; i++ )
+    {
+      String msg = "Hello $user, you have $i new messages";
+      sink += msg.length();
+    }
+    long message = System.nanoTime() - start;
+
+    if( report )
+    {
+      System.out.printf( "log line:   %6.1f ns/op%n", (double)logLine / ITERATIONS );
+      System.out.printf( "access log: %6.1f ns/op%n", (double)accessLog / ITERATIONS );
+      System.out.printf( "message:    %6.1f ns/op%n", (double)message / ITERATIONS );
+      System.out.println( "(" + sink + ")" );
+    }
+  }
+}
@@ -129,6 +129,30 @@ public class StringTemplateTest extends TestCase
     assertEquals( "6", value );
   }
 
+  public void testOperandTypes()
+  {
+    char c = 'x';
+    char d = 'y';
+    byte b = 7;
+    short sh = -3;
+    long l = 1L << 40;
+    double dbl = 2.25;
+    boolean bool = true;
+    char[] chars = {'a', 'b'};
+    Object nullObj = null;
+    String nullStr = null;
+
+    assertEquals( "xy", "$c$d" );
+    assertEquals( "x", "$c" );
+    assertEquals( String.valueOf( c + d ), "${c + d}" );
+    assertEquals( "7 -3 1099511627776 2.25 true", "$b $sh $l $dbl $bool" );
+    assertEquals( "chars: " + chars, "chars: $chars" );
+    assertEquals( "null null", "$nullObj $nullStr" );
+    assertEquals( "null12!", "${nullStr + 1 + 2}!" );
+    assertEquals( "3x", "${1 + 2 + \"x\"}" );
+    assertEquals( "a x b y", "a $c" + " b $d" );
+  }
+
   public void testEscape()
   {
     String value = "\$5"; 
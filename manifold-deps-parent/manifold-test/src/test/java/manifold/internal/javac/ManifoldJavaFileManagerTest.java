@@ -0,0 +1,43 @@
+package manifold.internal.javac;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import junit.framework.TestCase;
+import manifold.internal.host.RuntimeManifoldHost;
+import manifold.internal.runtime.Bootstrap;
+
+/**
+ */
+public class ManifoldJavaFileManagerTest extends TestCase
+{
+  public void testHandedOutClassFileIsStillFound() throws IOException
+  {
+    Bootstrap.init();
+    ManifoldJavaFileManager fm = new ManifoldJavaFileManager( RuntimeManifoldHost.get(),
+      ToolProvider.getSystemJavaCompiler().getStandardFileManager( null, null, null ), null, false );
+
+    InMemoryClassJavaFileObject file = (InMemoryClassJavaFileObject)fm.getJavaFileForOutput(
+      StandardLocation.CLASS_OUTPUT, "abc.Foo$Bar", JavaFileObject.Kind.CLASS, null );
+    assertTrue( fm.hasCompiledFile( "abc.Foo$Bar" ) );
+
+    // handing out the class file before javac writes it does not release it
+    assertSame( file, fm.findCompiledFile( "abc.Foo$Bar" ) );
+    try( OutputStream out = file.openOutputStream() )
+    {
+      out.write( new byte[]{(byte)0xCA, (byte)0xFE, (byte)0xBA, (byte)0xBE} );
+    }
+
+    // handed out, the class file is held softly and is found as long as it is not reclaimed
+    assertSame( file, fm.findCompiledFile( "abc.Foo$Bar" ) );
+    assertTrue( fm.hasCompiledFile( "abc.Foo$Bar" ) );
+    assertTrue( fm.hasCompiledFile( "abc.Foo.Bar" ) );
+    assertSame( file, fm.findCompiledFile( "abc.Foo.Bar" ) );
+    assertEquals( 4, fm.findCompiledFile( "abc.Foo$Bar" ).getBytes().length );
+
+    assertFalse( fm.hasCompiledFile( "abc.Baz" ) );
+    assertNull( fm.findCompiledFile( "abc.Baz" ) );
+  }
+}
@@ -0,0 +1,140 @@
+package manifold.internal.runtime;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.TestCase;
+import manifold.api.fs.IDirectory;
+import manifold.api.fs.IFile;
+import manifold.api.fs.cache.PathCache;
+import manifold.api.host.IManifoldHost;
+import manifold.api.type.ITypeManifold;
+import manifold.internal.host.RuntimeManifoldHost;
+
+/**
+ */
+public class BytecodeCacheTest extends TestCase
+{
+  public void testStoreAndLoad() throws IOException
+  {
+    BytecodeCache cache = new BytecodeCache( Files.createTempDirectory( "bytecode" ), 1024 * 1024 );
+    String key = key( 1 );
+    assertNull( cache.load( key ) );
+
+    byte[] bytes = makeClassBytes( 100 );
+    cache.store( key, bytes );
+    assertTrue( Arrays.equals( bytes, cache.load( key ) ) );
+  }
+
+  public void testCorruptEntryIsDiscarded() throws IOException
+  {
+    BytecodeCache cache = new BytecodeCache( Files.createTempDirectory( "bytecode" ), 1024 * 1024 );
+    String key = key( 2 );
+    cache.store( key, new byte[]{1, 2, 3, 4, 5} );
+    assertNull( cache.load( key ) );
+  }
+
+  public void testEvictsLeastRecentlyUsed() throws IOException
+  {
+    Path dir = Files.createTempDirectory( "bytecode" );
+    BytecodeCache cache = new BytecodeCache( dir, 1300 );
+
+    long time = System.currentTimeMillis() - 100_000;
+    for( int i = 0; i < 3; i++ )
+    {
+      cache.store( key( i ), makeClassBytes( 400 ) );
+      assertTrue( entry( dir, key( i ) ).setLastModified( time + i * 1000 ) );
+    }
+    cache.store( key( 3 ), makeClassBytes( 400 ) );
+
+    assertFalse( entry( dir, key( 0 ) ).exists() );
+    assertFalse( entry( dir, key( 1 ) ).exists() );
+    assertTrue( entry( dir, key( 2 ) ).exists() );
+    assertTrue( entry( dir, key( 3 ) ).exists() );
+  }
+
+  public void testReferencedResourceChangesKey() throws IOException
+  {
+    Bootstrap.init();
+    IManifoldHost host = RuntimeManifoldHost.get();
+
+    Path root = Files.createTempDirectory( "bytecode" );
+    Path dir = Files.createDirectories( root.resolve( "abc" ) );
+    Files.write( dir.resolve( "Foo.json" ), "{\"bar\": {\"$ref\": \"Bar.json\"}}".getBytes( StandardCharsets.UTF_8 ) );
+    Path bar = dir.resolve( "Bar.json" );
+    Files.write( bar, "{\"name\": \"string\"}".getBytes( StandardCharsets.UTF_8 ) );
+    Files.write( dir.resolve( "Baz.txt" ), "baz".getBytes( StandardCharsets.UTF_8 ) );
+    List<IDirectory> path = Collections.singletonList( host.getFileSystem().getIDirectory( root.toFile() ) );
+    PathCache pathCache = new PathCache( host.getSingleModule(), () -> path, () -> {} );
+    List<ITypeManifold> tms = Collections.singletonList( makeJsonTypeManifold( pathCache ) );
+    List<String> options = Collections.singletonList( "-g" );
+
+    Path cacheDir = Files.createTempDirectory( "bytecode" );
+    String key = new BytecodeCache( cacheDir, 1024 * 1024 ).makeKey( pathCache, "abc.Foo", "abc.Foo", options, tms );
+    assertNotNull( key );
+    assertEquals( key, new BytecodeCache( cacheDir, 1024 * 1024 ).makeKey( pathCache, "abc.Foo", "abc.Foo", options, tms ) );
+
+    // a file the type manifold doesn't handle is not a dependency
+    Files.write( dir.resolve( "Baz.txt" ), "changed".getBytes( StandardCharsets.UTF_8 ) );
+    assertEquals( key, new BytecodeCache( cacheDir, 1024 * 1024 ).makeKey( pathCache, "abc.Foo", "abc.Foo", options, tms ) );
+
+    // Foo.json is unchanged, but the Bar.json it references changed in the next run
+    Files.write( bar, "{\"name\": \"integer\"}".getBytes( StandardCharsets.UTF_8 ) );
+    String changedKey = new BytecodeCache( cacheDir, 1024 * 1024 ).makeKey( pathCache, "abc.Foo", "abc.Foo", options, tms );
+    assertNotNull( changedKey );
+    assertFalse( key.equals( changedKey ) );
+  }
+
+  /**
+   * A type manifold for the .json files in the path of {@code pathCache}, having just what the key needs
+   */
+  private static ITypeManifold makeJsonTypeManifold( PathCache pathCache )
+  {
+    return (ITypeManifold)Proxy.newProxyInstance( BytecodeCacheTest.class.getClassLoader(),
+      new Class[]{ITypeManifold.class}, ( proxy, method, args ) -> {
+        switch( method.getName() )
+        {
+          case "handlesFileExtension":
+            return "json".equals( args[0] );
+          case "handlesFile":
+            return "json".equals( ((IFile)args[0]).getExtension() );
+          case "findFilesForType":
+            return Collections.singletonList( pathCache.getExtensionCache( "json" ).get( (String)args[0] ) );
+          case "getModule":
+            return null;
+          case "hashCode":
+            return System.identityHashCode( proxy );
+          case "equals":
+            return proxy == args[0];
+          default:
+            throw new UnsupportedOperationException( method.getName() );
+        }
+      } );
+  }
+
+  private static File entry( Path dir, String key )
+  {
+    return dir.resolve( key.substring( 0, 2 ) ).resolve( key + ".class" ).toFile();
+  }
+
+  private static String key( int i )
+  {
+    return String.format( "%064x", i + 0xab );
+  }
+
+  private static byte[] makeClassBytes( int length )
+  {
+    byte[] bytes = new byte[length];
+    bytes[0] = (byte)0xCA;
+    bytes[1] = (byte)0xFE;
+    bytes[2] = (byte)0xBA;
+    bytes[3] = (byte)0xBE;
+    return bytes;
+  }
+}
@@ -0,0 +1,96 @@
+package manifold.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import manifold.util.Pair;
+
+/**
+ * Compares searching log payloads for many keywords with a {@link MultiMatcher} against testing each keyword at each
+ * index, which is how {@code findAnyOf()} searches below its threshold. Not a test, run {@code main()}.
+ */
+public class MultiMatcherBenchmark
+{
+  private static final int WARMUP = 5;
+  private static final String[] WORDS = {
+    "request", "user", "took", "INFO", "DEBUG", "status", "bytes", "session", "login", "cache", "miss", "hit"};
+
+  public static void main( String[] args )
+  {
+    for( int textLength: new int[]{200, 2_000, 100_000} )
+    {
+      for( int keywords: new int[]{2, 8, 32, 256} )
+      {
+        run( textLength, keywords, false );
+        run( textLength, keywords, true );
+      }
+    }
+  }
+
+  private static void run( int textLength, int keywordCount, boolean ignoreCase )
+  {
+    Random random = new Random( 1 );
+    StringBuilder sb = new StringBuilder();
+    while( sb.length() < textLength )
+    {
+      sb.append( WORDS[random.nextInt( WORDS.length )] ).append( random.nextInt( 1000 ) ).append( ' ' );
+    }
+    List<String> keywords = new ArrayList<>();
+    for( int i = 0; i < keywordCount; i++ )
+    {
+      keywords.add( "Keyword" + Integer.toString( i * 7919, 36 ) );
+    }
+    // the last keyword is found at the end
+    String last = keywords.get( keywordCount - 1 );
+    String text = sb.toString() + (ignoreCase ? last.toUpperCase() : last);
+
+    int iterations = Math.max( 1, 50_000_000 / (text.length() * keywordCount) );
+    long loop = 0;
+    long compileAndFind = 0;
+    long find = 0;
+    long sink = 0;
+    for( int rep = 0; rep <= WARMUP; rep++ )
+    {
+      long start = System.nanoTime();
+      for( int i = 0; i < iterations; i++ )
+      {
+        sink += findWithLoop( text, keywords, ignoreCase ).getFirst();
+      }
+      loop = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      for( int i = 0; i < iterations; i++ )
+      {
+        sink += MultiMatcher.of( keywords, ignoreCase ).find( text ).getFirst();
+      }
+      compileAndFind = System.nanoTime() - start;
+
+      MultiMatcher matcher = MultiMatcher.of( keywords, ignoreCase );
+      start = System.nanoTime();
+      for( int i = 0; i < iterations; i++ )
+      {
+        sink += matcher.find( text ).getFirst();
+      }
+      find = System.nanoTime() - start;
+    }
+
+    System.out.printf( "length=%-7d keywords=%-4d ignoreCase=%-5b loop %10.1f us  compile+find %8.1f us  find %8.1f us  (%d)%n",
+      text.length(), keywordCount, ignoreCase, loop / 1e3 / iterations, compileAndFind / 1e3 / iterations,
+      find / 1e3 / iterations, sink );
+  }
+
+  private static Pair<Integer, String> findWithLoop( String text, List<String> strings, boolean ignoreCase )
+  {
+    for( int index = 0; index <= text.length(); index++ )
+    {
+      for( String string: strings )
+      {
+        if( string.regionMatches( ignoreCase, 0, text, index, string.length() ) )
+        {
+          return new Pair<>( index, string );
+        }
+      }
+    }
+    return null;
+  }
+}
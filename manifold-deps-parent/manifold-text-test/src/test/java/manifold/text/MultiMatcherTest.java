@@ -0,0 +1,121 @@
+package manifold.text;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import junit.framework.TestCase;
+import manifold.util.Pair;
+
+/**
+ */
+public class MultiMatcherTest extends TestCase
+{
+  public void testFind()
+  {
+    MultiMatcher matcher = MultiMatcher.of( Arrays.asList( "he", "she", "his", "hers" ) );
+    assertEquals( new Pair<>( 1, "she" ), matcher.find( "ushers" ) );
+    assertEquals( new Pair<>( 0, "she" ), matcher.find( "shers" ) );
+    assertEquals( new Pair<>( 2, "his" ), matcher.find( "xxhis" ) );
+    assertNull( matcher.find( "nothing" ) );
+    assertNull( matcher.find( "ushers", 5 ) );
+  }
+
+  public void testPrecedence()
+  {
+    // where more than one string matches at an index, the first one listed is the match
+    assertEquals( new Pair<>( 2, "hers" ), MultiMatcher.of( Arrays.asList( "hers", "he" ) ).find( "ushers" ) );
+    assertEquals( new Pair<>( 2, "he" ), MultiMatcher.of( Arrays.asList( "he", "hers" ) ).find( "ushers" ) );
+    // the earliest index wins over precedence
+    assertEquals( new Pair<>( 0, "abcd" ), MultiMatcher.of( Arrays.asList( "bc", "abcd" ) ).find( "abcd" ) );
+  }
+
+  public void testEmptyString()
+  {
+    assertEquals( new Pair<>( 2, "" ), MultiMatcher.of( Arrays.asList( "", "cd" ) ).find( "abcd", 2 ) );
+    assertEquals( new Pair<>( 2, "cd" ), MultiMatcher.of( Arrays.asList( "cd", "" ) ).find( "abcd", 2 ) );
+    assertEquals( new Pair<>( 4, "" ), MultiMatcher.of( Collections.singletonList( "" ) ).find( "abcd", 4 ) );
+    assertNull( MultiMatcher.of( Collections.singletonList( "" ) ).find( "abcd", 5 ) );
+  }
+
+  public void testIgnoreCase()
+  {
+    MultiMatcher matcher = MultiMatcher.of( Arrays.asList( "ERROR", "Warn", "café" ), true );
+    assertEquals( new Pair<>( 4, "Warn" ), matcher.find( "abc WARNING error" ) );
+    assertEquals( new Pair<>( 6, "café" ), matcher.find( "a la  CAFÉ" ) );
+    assertNull( MultiMatcher.of( Arrays.asList( "ERROR", "Warn" ) ).find( "abc WARNING error" ) );
+  }
+
+  public void testFindLast()
+  {
+    MultiMatcher matcher = MultiMatcher.of( Arrays.asList( "ab", "b", "abc" ) );
+    assertEquals( new Pair<>( 5, "b" ), matcher.findLast( "abc abc", 6 ) );
+    assertEquals( new Pair<>( 4, "ab" ), matcher.findLast( "abc abc", 4 ) );
+    assertEquals( new Pair<>( 1, "b" ), matcher.findLast( "abc abc", 3 ) );
+    assertNull( matcher.findLast( "abc abc", -1 ) );
+  }
+
+  public void testFindAll()
+  {
+    MultiMatcher matcher = MultiMatcher.of( Arrays.asList( "he", "she", "his", "hers" ) );
+    assertEquals( Arrays.asList( new Pair<>( 1, "she" ), new Pair<>( 2, "he" ), new Pair<>( 2, "hers" ) ),
+      matcher.findAll( "ushers" ) );
+  }
+
+  public void testExtensions()
+  {
+    MultiMatcher matcher = MultiMatcher.of( Arrays.asList( "timeout", "refused" ), true );
+    String log = "connect to db: Connection REFUSED, retrying after timeout";
+    assertEquals( new Pair<>( 26, "refused" ), log.findAnyOf( matcher ) );
+    assertEquals( 26, log.indexOfAny( matcher ) );
+    assertEquals( 50, log.lastIndexOfAny( matcher ) );
+    assertEquals( 2, log.findAllOf( matcher ).size() );
+    assertTrue( log.containsAny( matcher ) );
+    assertFalse( "all good".containsAny( matcher ) );
+  }
+
+  public void testFindAnyOfMatchesLoop()
+  {
+    // long enough to search with a matcher
+    List<String> strings = new ArrayList<>();
+    for( int i = 0; i < 50; i++ )
+    {
+      strings.add( "key" + i + "x" );
+    }
+    StringBuilder sb = new StringBuilder();
+    for( int i = 0; i < 100; i++ )
+    {
+      sb.append( "some text " ).append( i ).append( ' ' );
+    }
+    String text = sb.toString() + "KEY42X and key7x";
+
+    assertEquals( new Pair<>( text.indexOf( "key7x" ), "key7x" ), text.findAnyOf( strings ) );
+    assertEquals( text.indexOf( "key7x" ), text.indexOfAny( strings ) );
+    assertEquals( text.indexOf( "KEY42X" ), text.indexOfAny( strings, 0, true ) );
+    assertEquals( "key42x", text.findAnyOf( strings, 0, true ).getSecond() );
+    assertEquals( text.indexOf( "key7x" ), text.lastIndexOfAny( strings, text.length() - 1, true ) );
+    assertEquals( -1, text.substring( 0, 1000 ).indexOfAny( strings, 0, true ) );
+
+    assertEquals( text.indexOf( "KEY42X" ), text.indexOf( "key42x", true ) );
+    assertEquals( text.indexOf( "KEY42X" ), text.indexOf( "key42x", 5, true ) );
+    assertEquals( -1, text.indexOf( "key42x", text.length() - 10, true ) );
+    assertEquals( text.indexOf( "KEY42X" ), text.lastIndexOf( "key42x", true ) );
+
+    // not a String, the loop compares with regionMatchesImpl()
+    StringBuilder builder = new StringBuilder( text );
+    assertEquals( text.findAnyOf( strings, 0, true ), builder.findAnyOf( strings, 0, true ) );
+    assertEquals( text.lastIndexOfAny( strings, text.length() - 1, true ), builder.lastIndexOfAny( strings, builder.length() - 1, true ) );
+    assertEquals( -1, new StringBuilder( text.substring( 0, 1000 ) ).indexOfAny( strings, 0, true ) );
+
+    // the loop and the matcher fold case alike, above and below the threshold: long s, dotless i
+    String padding = new String( new char[300] ).replace( '\0', '-' );
+    for( String c: Arrays.asList( "\u017f", "\u0131" ) )
+    {
+      List<String> ascii = Collections.singletonList( c.equals( "\u017f" ) ? "s" : "i" );
+      for( CharSequence seq: Arrays.<CharSequence>asList( c, new StringBuilder( c ), padding + c, new StringBuilder( padding + c ) ) )
+      {
+        assertEquals( seq.length() - 1, seq.indexOfAny( ascii, 0, true ) );
+      }
+    }
+  }
+}
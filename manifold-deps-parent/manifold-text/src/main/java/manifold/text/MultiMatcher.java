@@ -0,0 +1,390 @@
+/*
+ * Copyright (c) 2018 - Manifold Systems LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package manifold.text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import manifold.util.Pair;
+import manifold.util.concurrent.LocklessLazyVar;
+
+/**
+ * A compiled set of strings to search for in char sequences. Searches all the strings in a single pass over the text
+ * using an Aho-Corasick automaton, as opposed to testing each string at each index. Compile the strings once and
+ * reuse the matcher to scan many texts e.g., for keywords in log payloads.
+ * <p>
+ * Use {@code CharSequence.findAnyOf( MultiMatcher )} and related extension methods to search with a matcher. When
+ * matching ignores case, characters are compared as in {@link String#regionMatches(boolean, int, String, int, int)}.
+ * <p>
+ * A matcher is immutable and safe to share between threads.
+ */
+public final class MultiMatcher
+{
+  private static final char[] ASCII_FOLD = new char[128];
+  static
+  {
+    for( char c = 0; c < ASCII_FOLD.length; c++ )
+    {
+      ASCII_FOLD[c] = Character.toLowerCase( c );
+    }
+  }
+
+  private final String[] _strings;
+  private final boolean _ignoreCase;
+  private final int _maxLength;
+  private final int _emptyIndex;
+  private final Automaton _forward;
+  private final LocklessLazyVar<Automaton> _backward;
+
+  /**
+   * Compiles a case-sensitive matcher for {@code strings}.
+   */
+  public static MultiMatcher of( Collection<String> strings )
+  {
+    return of( strings, false );
+  }
+
+  /**
+   * Compiles a matcher for {@code strings}. Where more than one string matches at an index, the one appearing first in
+   * {@code strings} is the match.
+   *
+   * @param ignoreCase {@code true} to ignore character case when matching a string.
+   */
+  public static MultiMatcher of( Collection<String> strings, boolean ignoreCase )
+  {
+    return new MultiMatcher( strings.toArray( new String[0] ), ignoreCase );
+  }
+
+  private MultiMatcher( String[] strings, boolean ignoreCase )
+  {
+    _strings = strings;
+    _ignoreCase = ignoreCase;
+
+    int maxLength = 0;
+    int emptyIndex = -1;
+    for( int i = 0; i < strings.length; i++ )
+    {
+      maxLength = Math.max( maxLength, strings[i].length() );
+      if( emptyIndex < 0 && strings[i].isEmpty() )
+      {
+        emptyIndex = i;
+      }
+    }
+    _maxLength = maxLength;
+    _emptyIndex = emptyIndex;
+    _forward = new Automaton( false );
+    _backward = LocklessLazyVar.make( () -> new Automaton( true ) );
+  }
+
+  /**
+   * @return The strings this matcher searches for, in order of precedence
+   */
+  public List<String> getStrings()
+  {
+    return Arrays.asList( _strings.clone() );
+  }
+
+  public boolean isIgnoreCase()
+  {
+    return _ignoreCase;
+  }
+
+  /**
+   * Finds the first occurrence of any of this matcher's strings in {@code text}.
+   *
+   * @return A pair of the index of the first occurrence and the string matched, or {@code null} if none of the strings
+   * are found.
+   */
+  public Pair<Integer, String> find( CharSequence text )
+  {
+    return find( text, 0 );
+  }
+
+  /**
+   * Finds the first occurrence of any of this matcher's strings in {@code text}, starting from the specified
+   * {@code startIndex}. Where more than one string matches at the index, the string precedence determines the match.
+   *
+   * @return A pair of the index of the first occurrence and the string matched, or {@code null} if none of the strings
+   * are found.
+   */
+  public Pair<Integer, String> find( CharSequence text, int startIndex )
+  {
+    int start = Math.max( startIndex, 0 );
+    int length = text.length();
+    if( start > length )
+    {
+      return null;
+    }
+
+    int bestStart = -1;
+    int bestIndex = -1;
+    if( _emptyIndex >= 0 )
+    {
+      bestStart = start;
+      bestIndex = _emptyIndex;
+    }
+
+    Node state = _forward._root;
+    for( int i = start; i < length; i++ )
+    {
+      if( bestStart >= 0 && i >= bestStart + _maxLength )
+      {
+        // a match ending here or later starts after the best match
+        break;
+      }
+
+      state = _forward.next( state, fold( text.charAt( i ) ) );
+      for( Node out = state.hasMatch() ? state : state._output; out != null; out = out._output )
+      {
+        int matchStart = i - out._depth + 1;
+        if( bestStart < 0 || matchStart < bestStart || matchStart == bestStart && out._index < bestIndex )
+        {
+          bestStart = matchStart;
+          bestIndex = out._index;
+        }
+      }
+    }
+    return bestStart < 0 ? null : new Pair<>( bestStart, _strings[bestIndex] );
+  }
+
+  /**
+   * Finds the last occurrence of any of this matcher's strings in {@code text}, starting from the specified
+   * {@code startIndex}.
+   *
+   * @param startIndex The index of character to start searching at. The search proceeds backward toward the beginning
+   *                   of the string.
+   *
+   * @return A pair of the index of the last occurrence and the string matched, or {@code null} if none of the strings
+   * are found.
+   */
+  public Pair<Integer, String> findLast( CharSequence text, int startIndex )
+  {
+    int length = text.length();
+    int start = Math.min( startIndex, length - 1 );
+    if( start < 0 )
+    {
+      return null;
+    }
+
+    Automaton backward = _backward.get();
+    Node state = backward._root;
+    for( int i = Math.min( length - 1, start + Math.max( _maxLength, 1 ) - 1 ); i >= 0; i-- )
+    {
+      // matches found scanning backward start at i
+      state = backward.next( state, fold( text.charAt( i ) ) );
+      if( i > start )
+      {
+        continue;
+      }
+
+      int bestIndex = _emptyIndex;
+      for( Node out = state.hasMatch() ? state : state._output; out != null; out = out._output )
+      {
+        if( bestIndex < 0 || out._index < bestIndex )
+        {
+          bestIndex = out._index;
+        }
+      }
+      if( bestIndex >= 0 )
+      {
+        return new Pair<>( i, _strings[bestIndex] );
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Finds all occurrences of this matcher's strings in {@code text}, including overlapping occurrences. Empty strings
+   * are not reported. Strings that are equal according to this matcher are reported once, as the one having
+   * precedence.
+   *
+   * @return Pairs of the index of each occurrence and the string matched, in the order the occurrences end in
+   * {@code text}
+   */
+  public List<Pair<Integer, String>> findAll( CharSequence text )
+  {
+    List<Pair<Integer, String>> result = new ArrayList<>();
+    Node state = _forward._root;
+    for( int i = 0; i < text.length(); i++ )
+    {
+      state = _forward.next( state, fold( text.charAt( i ) ) );
+      for( Node out = state.hasMatch() ? state : state._output; out != null; out = out._output )
+      {
+        result.add( new Pair<>( i - out._depth + 1, _strings[out._index] ) );
+      }
+    }
+    return result;
+  }
+
+  private char fold( char c )
+  {
+    if( !_ignoreCase )
+    {
+      return c;
+    }
+    return c < ASCII_FOLD.length ? ASCII_FOLD[c] : Character.toLowerCase( Character.toUpperCase( c ) );
+  }
+
+  /**
+   * The trie of the (optionally reversed) strings with failure and output links.
+   */
+  private class Automaton
+  {
+    private final Node _root;
+    private final Node[] _rootAscii;
+
+    private Automaton( boolean reverse )
+    {
+      _root = new Node( 0 );
+      for( int i = 0; i < _strings.length; i++ )
+      {
+        String string = _strings[i];
+        if( string.isEmpty() )
+        {
+          continue;
+        }
+
+        Node node = _root;
+        for( int j = 0; j < string.length(); j++ )
+        {
+          node = node.addChild( fold( string.charAt( reverse ? string.length() - 1 - j : j ) ) );
+        }
+        if( !node.hasMatch() )
+        {
+          node._index = i;
+        }
+      }
+
+      _rootAscii = new Node[128];
+      for( char c = 0; c < _rootAscii.length; c++ )
+      {
+        Node child = _root.getChild( c );
+        _rootAscii[c] = child == null ? _root : child;
+      }
+
+      linkFailures();
+    }
+
+    /**
+     * Breadth-first, link each node to the node of its longest proper suffix in the trie and to the nearest such
+     * suffix node that completes a string.
+     */
+    private void linkFailures()
+    {
+      ArrayDeque<Node> queue = new ArrayDeque<>();
+      for( int i = 0; i < _root._size; i++ )
+      {
+        Node child = _root._children[i];
+        child._fail = _root;
+        queue.add( child );
+      }
+
+      while( !queue.isEmpty() )
+      {
+        Node node = queue.remove();
+        for( int i = 0; i < node._size; i++ )
+        {
+          Node child = node._children[i];
+          child._fail = next( node._fail, node._chars[i] );
+          child._output = child._fail.hasMatch() ? child._fail : child._fail._output;
+          queue.add( child );
+        }
+      }
+    }
+
+    private Node next( Node state, char c )
+    {
+      while( true )
+      {
+        if( state == _root )
+        {
+          if( c < _rootAscii.length )
+          {
+            return _rootAscii[c];
+          }
+          Node child = _root.getChild( c );
+          return child == null ? _root : child;
+        }
+
+        Node child = state.getChild( c );
+        if( child != null )
+        {
+          return child;
+        }
+        state = state._fail;
+      }
+    }
+  }
+
+  private static class Node
+  {
+    private static final char[] NO_CHARS = {};
+    private static final Node[] NO_CHILDREN = {};
+
+    private final int _depth;
+    /** sorted */
+    private char[] _chars = NO_CHARS;
+    private Node[] _children = NO_CHILDREN;
+    private int _size;
+    private Node _fail;
+    private Node _output;
+    /** the index of the string ending at this node, -1 if none */
+    private int _index = -1;
+
+    private Node( int depth )
+    {
+      _depth = depth;
+    }
+
+    private boolean hasMatch()
+    {
+      return _index >= 0;
+    }
+
+    private Node getChild( char c )
+    {
+      int i = Arrays.binarySearch( _chars, 0, _size, c );
+      return i < 0 ? null : _children[i];
+    }
+
+    private Node addChild( char c )
+    {
+      int i = Arrays.binarySearch( _chars, 0, _size, c );
+      if( i >= 0 )
+      {
+        return _children[i];
+      }
+
+      i = -(i + 1);
+      if( _size == _chars.length )
+      {
+        int capacity = Math.max( 2, _size * 2 );
+        _chars = Arrays.copyOf( _chars, capacity );
+        _children = Arrays.copyOf( _children, capacity );
+      }
+      System.arraycopy( _chars, i, _chars, i + 1, _size - i );
+      System.arraycopy( _children, i, _children, i + 1, _size - i );
+      Node child = new Node( _depth + 1 );
+      _chars[i] = c;
+      _children[i] = child;
+      _size++;
+      return child;
+    }
+  }
+}
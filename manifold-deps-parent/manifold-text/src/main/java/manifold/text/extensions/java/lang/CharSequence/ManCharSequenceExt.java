@@ -17,8 +17,11 @@
 package manifold.text.extensions.java.lang.CharSequence;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import manifold.ext.api.Extension;
 import manifold.ext.api.This;
+import manifold.text.MultiMatcher;
 import manifold.util.CharPredicate;
 import manifold.util.Pair;
 
@@ -27,6 +30,17 @@ import manifold.util.Pair;
 @Extension
 public class ManCharSequenceExt
 {
+  /**
+   * The number of strings times the length of text to search, at or above which {@code findAnyOf()} and related
+   * methods search with a {@link MultiMatcher} in place of testing each string at each index.
+   */
+  private static final int MULTI_MATCHER_THRESHOLD = 256;
+  /**
+   * The length of text to search, at or above which ignore-case {@code indexOf()} and related methods search with a
+   * {@link MultiMatcher} in place of testing the string at each index.
+   */
+  private static final int IGNORE_CASE_MATCHER_THRESHOLD = 256;
+
   /**
    * Returns a sub sequence of this char sequence having leading and trailing characters matching the {@code predicate} trimmed.
    */
@@ -375,6 +389,8 @@ public class ManCharSequenceExt
   /**
    * Implementation of {@code regionMatches} for CharSequences.
    * Invoked when it's already known that arguments are not Strings, so that no additional type checks are performed.
+   * Ignoring case, characters are compared as in {@link String#regionMatches(boolean, int, String, int, int)} and
+   * {@link MultiMatcher}.
    */
   private static boolean regionMatchesImpl( CharSequence thiz, int thisOffset, CharSequence other, int otherOffset, int length, boolean ignoreCase )
   {
@@ -388,10 +404,20 @@ public class ManCharSequenceExt
     {
       char thisChar = thiz.charAt( thisOffset + index );
       char otherChar = other.charAt( otherOffset + index );
-      if( !(thisChar == otherChar || ignoreCase && Character.toLowerCase( thisChar ) == Character.toLowerCase( otherChar )) )
+      if( thisChar == otherChar )
       {
-        return false;
+        continue;
+      }
+      if( ignoreCase )
+      {
+        char thisUpper = Character.toUpperCase( thisChar );
+        char otherUpper = Character.toUpperCase( otherChar );
+        if( thisUpper == otherUpper || Character.toLowerCase( thisUpper ) == Character.toLowerCase( otherUpper ) )
+        {
+          continue;
+        }
       }
+      return false;
     }
     return true;
   }
@@ -551,6 +577,11 @@ public class ManCharSequenceExt
 
   private static int indexOf( CharSequence thiz, CharSequence other, int startIndex, int endIndex, boolean ignoreCase, boolean last )
   {
+    if( ignoreCase && (last ? startIndex : endIndex - startIndex) >= IGNORE_CASE_MATCHER_THRESHOLD )
+    {
+      return indexOfWithMatcher( thiz, other, startIndex, endIndex, last );
+    }
+
     if( !last )
     {
       int start = Math.max( startIndex, 0 );
@@ -607,6 +638,21 @@ public class ManCharSequenceExt
     return -1;
   }
 
+  private static int indexOfWithMatcher( CharSequence thiz, CharSequence other, int startIndex, int endIndex, boolean last )
+  {
+    MultiMatcher matcher = MultiMatcher.of( Collections.singletonList( other.toString() ), true );
+    if( !last )
+    {
+      Pair<Integer, String> result = matcher.find( thiz, startIndex );
+      return result == null || result.getFirst() > endIndex ? -1 : result.getFirst();
+    }
+    else
+    {
+      Pair<Integer, String> result = matcher.findLast( thiz, startIndex );
+      return result == null ? -1 : result.getFirst();
+    }
+  }
+
   private static Pair<Integer, String> findAnyOf( CharSequence thiz, Collection<String> strings, int startIndex, final boolean ignoreCase, boolean last )
   {
     if( !ignoreCase && strings.size() == 1 )
@@ -616,6 +662,13 @@ public class ManCharSequenceExt
       return (index < 0) ? null : new Pair<>( index, string );
     }
 
+    int searchLength = last ? startIndex + 1 : thiz.length() - startIndex;
+    if( (long)strings.size() * searchLength >= MULTI_MATCHER_THRESHOLD )
+    {
+      MultiMatcher matcher = MultiMatcher.of( strings, ignoreCase );
+      return last ? matcher.findLast( thiz, startIndex ) : matcher.find( thiz, startIndex );
+    }
+
     if( !last )
     {
       int start = Math.max( startIndex, 0 );
@@ -783,6 +836,95 @@ public class ManCharSequenceExt
     return result == null ? -1 : result.getFirst();
   }
 
+  // MultiMatcher
+
+  public static Pair<Integer, String> findAnyOf( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return matcher.find( thiz, 0 );
+  }
+  /**
+   * Finds the first occurrence of any of the {@code matcher}'s strings in this char sequence, starting from the
+   * specified {@code startIndex}. Use a {@link MultiMatcher} to search many texts for the same strings.
+   *
+   * @returns A pair of an index of the first occurrence of a matched string and the string matched or {@code null} if
+   * none of the strings are found.
+   */
+  public static Pair<Integer, String> findAnyOf( @This CharSequence thiz, MultiMatcher matcher, int startIndex )
+  {
+    return matcher.find( thiz, startIndex );
+  }
+
+  public static Pair<Integer, String> findLastAnyOf( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return matcher.findLast( thiz, thiz.length() - 1 );
+  }
+  /**
+   * Finds the last occurrence of any of the {@code matcher}'s strings in this char sequence, starting from the
+   * specified {@code startIndex}.
+   *
+   * @param startIndex The index of character to start searching at. The search proceeds backward toward the beginning of the string.
+   *
+   * @returns A pair of an index of the last occurrence of a matched string and the string matched or {@code null} if
+   * none of the strings are found.
+   */
+  public static Pair<Integer, String> findLastAnyOf( @This CharSequence thiz, MultiMatcher matcher, int startIndex )
+  {
+    return matcher.findLast( thiz, startIndex );
+  }
+
+  /**
+   * Finds all occurrences of the {@code matcher}'s strings in this char sequence, including overlapping occurrences.
+   *
+   * @returns Pairs of the index of each occurrence and the string matched, in the order the occurrences end in this
+   * char sequence.
+   */
+  public static List<Pair<Integer, String>> findAllOf( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return matcher.findAll( thiz );
+  }
+
+  public static int indexOfAny( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return indexOfAny( thiz, matcher, 0 );
+  }
+  /**
+   * Finds the index of the first occurrence of any of the {@code matcher}'s strings in this char sequence, starting
+   * from the specified {@code startIndex}.
+   *
+   * @returns An index of the first occurrence of a matched string or -1 if none of the strings are found.
+   */
+  public static int indexOfAny( @This CharSequence thiz, MultiMatcher matcher, int startIndex )
+  {
+    Pair<Integer, String> result = matcher.find( thiz, startIndex );
+    return result == null ? -1 : result.getFirst();
+  }
+
+  public static int lastIndexOfAny( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return lastIndexOfAny( thiz, matcher, thiz.length() - 1 );
+  }
+  /**
+   * Finds the index of the last occurrence of any of the {@code matcher}'s strings in this char sequence, starting
+   * from the specified {@code startIndex}.
+   *
+   * @param startIndex The index of character to start searching at. The search proceeds backward toward the beginning of the string.
+   *
+   * @returns An index of the last occurrence of a matched string or -1 if none of the strings are found.
+   */
+  public static int lastIndexOfAny( @This CharSequence thiz, MultiMatcher matcher, int startIndex )
+  {
+    Pair<Integer, String> result = matcher.findLast( thiz, startIndex );
+    return result == null ? -1 : result.getFirst();
+  }
+
+  /**
+   * Returns {@code true} if this char sequence contains any of the {@code matcher}'s strings.
+   */
+  public static boolean containsAny( @This CharSequence thiz, MultiMatcher matcher )
+  {
+    return matcher.find( thiz, 0 ) != null;
+  }
+
   // indexOf
 
   public static int indexOf( @This CharSequence thiz, int ch )